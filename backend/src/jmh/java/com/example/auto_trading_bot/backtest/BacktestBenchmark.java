@@ -0,0 +1,64 @@
+package com.example.auto_trading_bot.backtest;
+
+import com.example.auto_trading_bot.bot.StrategyParams;
+import com.example.auto_trading_bot.bot.StrategyRegistry;
+import com.example.auto_trading_bot.bot.TradingStrategy;
+import com.example.auto_trading_bot.common.FixedPoint;
+import com.example.auto_trading_bot.execution.ExecutionParams;
+import com.example.auto_trading_bot.market.CandleSeries;
+import com.example.auto_trading_bot.portfolio.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Full in-memory backtest, with naive fills and with every execution rule on; scores are bars per second. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BacktestBenchmark {
+
+    private static final int BARS = 1_000_000;
+
+    @Param({"naive", "market", "limit"})
+    public String execution;
+
+    private BacktestEngine engine;
+    private CandleSeries series;
+
+    @Setup
+    public void setup() {
+        ExecutionParams params = switch (execution) {
+            case "naive" -> ExecutionParams.NAIVE;
+            default -> new ExecutionParams(execution.toUpperCase(), new BigDecimal("0.001"), new BigDecimal("0.001"),
+                    new BigDecimal("0.1"), new BigDecimal("0.5"), new BigDecimal("0.001"), 5);
+        };
+        engine = new BacktestEngine(new StrategyRegistry(List.of(new TradingStrategy()), "sma", List.of()), params);
+        Random rnd = new Random(11);
+        CandleSeries.Builder b = CandleSeries.builder(BARS);
+        long p = FixedPoint.of(30_000);
+        for (int i = 0; i < BARS; i++) {
+            long next = Math.max(FixedPoint.of(100), p + (rnd.nextLong() % 2_000_000_000L));
+            b.append(i * 60_000L, p, Math.max(p, next), Math.min(p, next), next, FixedPoint.of(5));
+            p = next;
+        }
+        series = b.build();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BARS)
+    public BacktestResult run() {
+        return engine.run(series, StrategyParams.DEFAULT, FixedPoint.of(10_000),
+                new Position(Position.CostBasis.FIFO), () -> true);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.auto_trading_bot.bot;
+
+import com.example.auto_trading_bot.bot.indicator.IndicatorSet;
+import com.example.auto_trading_bot.common.FixedPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One closed bar: indicator update plus signal evaluation, for several SMA windows; and four
+ * strategies on one shared set against each on its own set.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StrategyBenchmark {
+
+    @Param({"5", "50", "500"})
+    int window;
+
+    private final TradingStrategy strategy = new TradingStrategy();
+    private final StrategyRegistry registry = new StrategyRegistry(
+            List.of(strategy, new SmaRsiStrategy(), new BollingerStrategy()),
+            "sma", List.of("sma-rsi", "bollinger", "vote(sma+sma-rsi+bollinger)"));
+    private final List<Strategy> all = List.of(registry.trading(), registry.shadows().get(0),
+            registry.shadows().get(1), registry.shadows().get(2));
+    private StrategyParams params;
+    private IndicatorSet ind;
+    private IndicatorSet shared;
+    private IndicatorSet[] separate;
+    private long[] closes;
+    private int i;
+
+    @Setup
+    public void setup() {
+        params = new StrategyParams(window, new BigDecimal("0.05"), new BigDecimal("0.5"));
+        ind = strategy.newIndicators(params);
+        Random rnd = new Random(7);
+        closes = new long[1 << 16];
+        long p = FixedPoint.of(30_000);
+        for (int k = 0; k < closes.length; k++) {
+            p += rnd.nextInt(2_000_000_000) - 1_000_000_000;
+            closes[k] = p;
+        }
+        shared = registry.newIndicators(params);
+        separate = new IndicatorSet[all.size()];
+        for (int s = 0; s < separate.length; s++) {
+            separate[s] = new IndicatorSet();
+            all.get(s).register(separate[s], params);
+        }
+        for (int k = 0; k < window + 1; k++) {
+            ind.update(k, closes[k]);
+            shared.update(k, closes[k]);
+            for (IndicatorSet set : separate) set.update(k, closes[k]);
+        }
+    }
+
+    @Benchmark
+    public Strategy.Signal updateAndSignal() {
+        int k = i++ & (closes.length - 1);
+        ind.update(k, closes[k]);
+        return strategy.signal(ind, params);
+    }
+
+    @Benchmark
+    public int fourStrategiesShared() {
+        int k = i++ & (closes.length - 1);
+        shared.update(k, closes[k]);
+        int buys = 0;
+        for (Strategy s : all) if (s.signal(shared, params) == Strategy.Signal.BUY) buys++;
+        return buys;
+    }
+
+    @Benchmark
+    public int fourStrategiesSeparate() {
+        int k = i++ & (closes.length - 1);
+        int buys = 0;
+        for (int s = 0; s < separate.length; s++) {
+            separate[s].update(k, closes[k]);
+            if (all.get(s).signal(separate[s], params) == Strategy.Signal.BUY) buys++;
+        }
+        return buys;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.auto_trading_bot.execution;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulated order flow against a book holding 10k resting orders: replacing an order
+ * (cancel + add), and a bar that fills the best order followed by a new one. Scores are
+ * orders per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderBookBenchmark {
+
+    private static final int RESTING = 10_000;
+    private static final int MASK = (1 << 16) - 1;
+    private static final long MID = FixedPoint.of(30_000);
+    private static final long QTY = FixedPoint.of(1);
+
+    private final long[] offsets = new long[MASK + 1];
+    private final int[] ids = new int[RESTING];
+    private final OrderBook.Fills all = (order, buy, qty, price) -> qty;
+    private OrderBook book;
+    private int n;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(5);
+        book = new OrderBook(OrderBook.tickFor(MID), 1 << 16, MID);
+        for (int i = 0; i < offsets.length; i++) offsets[i] = 1 + (long) (rnd.nextDouble() * 200) * book.tick();
+        for (int i = 0; i < RESTING; i++) ids[i] = add(i);
+    }
+
+    private int add(int i) {
+        boolean buy = (i & 1) == 0;
+        long o = offsets[i & MASK];
+        return book.add(buy, book.align(buy, buy ? MID - o : MID + o), QTY);
+    }
+
+    @Benchmark
+    public int replace() {
+        int slot = n % RESTING;
+        book.cancel(ids[slot]);
+        ids[slot] = add(n++);
+        return ids[slot];
+    }
+
+    @Benchmark
+    public int fillBest() {
+        // liquidity for one order per side, at any resting price
+        book.match(0, Long.MAX_VALUE, QTY, QTY, all);
+        int a = add(n++);
+        add(n++);
+        return a;
+    }
+}
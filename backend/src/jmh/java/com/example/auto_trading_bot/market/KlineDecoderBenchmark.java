@@ -0,0 +1,53 @@
+package com.example.auto_trading_bot.market;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Decoding one full 1000-kline /api/v3/klines response. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class KlineDecoderBenchmark {
+
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder("[");
+        long t = 1_700_000_000_000L;
+        for (int i = 0; i < 1000; i++) {
+            if (i > 0) sb.append(',');
+            double p = 30_000 + Math.sin(i / 10.0) * 500;
+            sb.append('[').append(t + i * 60_000L)
+                    .append(",\"").append(String.format("%.8f", p))
+                    .append("\",\"").append(String.format("%.8f", p + 12.5))
+                    .append("\",\"").append(String.format("%.8f", p - 12.5))
+                    .append("\",\"").append(String.format("%.8f", p + 3))
+                    .append("\",\"").append(String.format("%.8f", 10 + i % 17 / 3.0))
+                    .append("\",").append(t + i * 60_000L + 59_999)
+                    .append(",\"1234.5\",321,\"12.3\",\"456.7\",\"0\"]");
+        }
+        body = sb.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<Candle> decodeCandles() {
+        return KlineDecoder.decode(body);
+    }
+
+    @Benchmark
+    public CandleSeries decodeColumns() {
+        CandleSeries.Builder b = CandleSeries.builder(1000);
+        KlineDecoder.decodeInto(body, b);
+        return b.build();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.auto_trading_bot.portfolio;
+
+import com.example.auto_trading_bot.journal.Journal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The trade and equity bookkeeping done by each live tick, against a stubbed database:
+ * a fill on every bar, an equity point, each journaled to a temp directory, and a drain every
+ * 500 bars like the projection, which also trims the journal.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LedgerTickBenchmark {
+
+    private static final BigDecimal BUY_FRACTION = new BigDecimal("0.05");
+    private static final BigDecimal SELL_FRACTION = new BigDecimal("0.5");
+
+    private Path dir;
+    private Journal journal;
+    private Ledger ledger;
+    private long bar;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("journal-bench");
+        journal = new Journal(dir.toString(), 100_000);
+        journal.open();
+        ledger = new Ledger(new StubJdbc(), journal, Clock.systemUTC(), Position.CostBasis.FIFO);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path f : files.toList()) Files.delete(f);
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public BigDecimal tick() {
+        long n = bar++;
+        Instant ts = Instant.ofEpochSecond(n * 60);
+        BigDecimal price = BigDecimal.valueOf(3_000_000 + (n % 97) * 100, 2);
+        if ((n & 1) == 0) {
+            BigDecimal qty = ledger.cash().multiply(BUY_FRACTION).divide(price, 8, RoundingMode.DOWN);
+            ledger.buy(ts, "BTCUSDT", "1m", qty, price, BigDecimal.ZERO);
+        } else {
+            BigDecimal qty = ledger.quantity("BTCUSDT").multiply(SELL_FRACTION).setScale(8, RoundingMode.DOWN);
+            if (qty.signum() > 0) ledger.sell(ts, "BTCUSDT", "1m", qty, price, BigDecimal.ZERO);
+        }
+        BigDecimal equity = ledger.cash().add(ledger.quantity("BTCUSDT").multiply(price));
+        ledger.recordEquity(ts, "BTCUSDT", "1m", equity);
+        if (n % 500 == 499) {
+            ledger.drain();
+            journal.deleteBefore(journal.lastSeq());
+        }
+        return equity;
+    }
+
+    /** Answers the ledger's initial load without a database. */
+    static final class StubJdbc extends JdbcTemplate {
+        @Override
+        public <T> T queryForObject(String sql, Class<T> requiredType) {
+            return requiredType.cast(new BigDecimal("10000.00000000"));
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            return 0;
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler rch) {
+        }
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper) {
+            return List.of();
+        }
+    }
+}
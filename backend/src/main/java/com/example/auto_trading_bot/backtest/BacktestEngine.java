@@ -0,0 +1,117 @@
+package com.example.auto_trading_bot.backtest;
+
+import com.example.auto_trading_bot.bot.Strategy;
+import com.example.auto_trading_bot.bot.StrategyParams;
+import com.example.auto_trading_bot.bot.StrategyRegistry;
+import com.example.auto_trading_bot.bot.indicator.IndicatorSet;
+import com.example.auto_trading_bot.common.FixedPoint;
+import com.example.auto_trading_bot.execution.ExecutionParams;
+import com.example.auto_trading_bot.execution.ExecutionSimulator;
+import com.example.auto_trading_bot.market.CandleSeries;
+import com.example.auto_trading_bot.portfolio.Position;
+import org.springframework.stereotype.Component;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs the strategy and the order rules of {@code BotService.tick} over a {@link CandleSeries}
+ * entirely in memory, on fixed-point longs, with fills from the same {@link ExecutionSimulator}. Nothing touches the database until the
+ * finished {@link BacktestResult} is handed to {@link BacktestWriter}.
+ */
+@Component
+public class BacktestEngine {
+
+    static final int WARMUP_BARS = 30;
+    static final int CHECK_EVERY = 4096;
+
+    private final Strategy strategy;
+    private final ExecutionParams execution;
+
+    /** Backtests the strategy that trades live; shadows only run in live sessions. */
+    public BacktestEngine(StrategyRegistry strategies, ExecutionParams execution) {
+        this.strategy = strategies.trading();
+        this.execution = execution;
+    }
+
+    /**
+     * @param p window and buy/sell fractions; {@link StrategyParams#DEFAULT} is the live rule
+     * @param position starting lots, traded in place; SELL pnl comes from its cost basis like the live ledger
+     * @param keepRunning polled every few thousand bars; returning false stops the run early
+     */
+    public BacktestResult run(CandleSeries s, StrategyParams p, long cash, Position position,
+                              BooleanSupplier keepRunning) {
+        IndicatorSet ind = new IndicatorSet();
+        strategy.register(ind, p);
+        long buyFraction = FixedPoint.of(p.buyFraction());
+        long sellFraction = FixedPoint.of(p.sellFraction());
+        Books books = new Books(cash, position);
+        ExecutionSimulator exec = new ExecutionSimulator(execution);
+
+        int n = s.size();
+        int start = Math.max(0, Math.min(WARMUP_BARS, n - 1));
+        long[] equity = new long[Math.max(0, n - start)];
+        int k = 0;
+        boolean completed = true;
+
+        for (int i = 0; i < n; i++) {
+            long price = s.close(i);
+            ind.update(s.ts(i), price);
+            if (i < start) continue;
+            if ((k % CHECK_EVERY) == 0 && !keepRunning.getAsBoolean()) {
+                completed = false;
+                break;
+            }
+
+            books.bar = i;
+            exec.onBar(i, s.open(i), s.high(i), s.low(i), price, s.volume(i), books);
+            Strategy.Signal sig = strategy.signal(ind, p);
+            if (sig == Strategy.Signal.BUY && books.cash > FixedPoint.SCALE) {
+                long buyQty = FixedPoint.div(FixedPoint.mul(books.cash, buyFraction), price);
+                if (buyQty > 0) exec.submit(true, buyQty);
+            } else if (sig == Strategy.Signal.SELL && position.quantity() > 0) {
+                long sellQty = FixedPoint.mul(position.quantity(), sellFraction);
+                if (sellQty > 0) exec.submit(false, sellQty);
+            }
+            equity[k++] = books.cash + FixedPoint.mul(position.quantity(), price);
+        }
+        return new BacktestResult(s, start, equity, k, books.trades, books.cash, position.quantity(), completed);
+    }
+
+    /** Settles simulated fills into the run's cash, position and trade columns. */
+    private static final class Books implements ExecutionSimulator.Account {
+        final BacktestResult.Trades trades = new BacktestResult.Trades();
+        final Position position;
+        long cash;
+        int bar;
+
+        Books(long cash, Position position) {
+            this.cash = cash;
+            this.position = position;
+        }
+
+        @Override
+        public long cash() {
+            return cash;
+        }
+
+        @Override
+        public long quantity() {
+            return position.quantity();
+        }
+
+        @Override
+        public void fill(boolean buy, long qty, long price, long fee, boolean maker) {
+            if (buy) {
+                cash -= FixedPoint.mul(qty, price) + fee;
+                position.buy(qty, price);
+                position.charge(fee);
+                trades.add(bar, true, qty, price, BacktestResult.NO_PNL, fee);
+            } else {
+                long pnl = position.sell(qty, price) - fee;
+                position.charge(fee);
+                cash += FixedPoint.mul(qty, price) - fee;
+                trades.add(bar, false, qty, price, pnl, fee);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.auto_trading_bot.backtest;
+
+import com.example.auto_trading_bot.market.CandleSeries;
+
+import java.util.Arrays;
+
+/**
+ * Output of one {@link BacktestEngine} run, kept columnar like its input. Equity point
+ * {@code k} belongs to bar {@code start() + k} of the series.
+ */
+public final class BacktestResult {
+
+    public static final long NO_PNL = Long.MIN_VALUE;
+
+    private final CandleSeries series;
+    private final int start;
+    private final long[] equity;
+    private final int equityCount;
+
+    private final int[] tradeBar;
+    private final boolean[] tradeBuy;
+    private final long[] tradeQty;
+    private final long[] tradePrice;
+    private final long[] tradePnl;
+    private final long[] tradeFee;
+    private final int tradeCount;
+
+    private final long finalCash;
+    private final long finalQty;
+    private final boolean completed;
+
+    BacktestResult(CandleSeries series, int start, long[] equity, int equityCount,
+                   Trades trades, long finalCash, long finalQty, boolean completed) {
+        this.series = series;
+        this.start = start;
+        this.equity = equity;
+        this.equityCount = equityCount;
+        this.tradeBar = trades.bar;
+        this.tradeBuy = trades.buy;
+        this.tradeQty = trades.qty;
+        this.tradePrice = trades.price;
+        this.tradePnl = trades.pnl;
+        this.tradeFee = trades.fee;
+        this.tradeCount = trades.size;
+        this.finalCash = finalCash;
+        this.finalQty = finalQty;
+        this.completed = completed;
+    }
+
+    public CandleSeries series() { return series; }
+    public int start() { return start; }
+    public int equityCount() { return equityCount; }
+    public long equity(int k) { return equity[k]; }
+    public long equityTs(int k) { return series.ts(start + k); }
+
+    public int tradeCount() { return tradeCount; }
+    public long tradeTs(int t) { return series.ts(tradeBar[t]); }
+    public boolean tradeIsBuy(int t) { return tradeBuy[t]; }
+    public long tradeQty(int t) { return tradeQty[t]; }
+    public long tradePrice(int t) { return tradePrice[t]; }
+    /** Net of the trade's fee. */
+    public long tradePnl(int t) { return tradePnl[t]; }
+    public long tradeFee(int t) { return tradeFee[t]; }
+
+    public long finalCash() { return finalCash; }
+    public long finalQty() { return finalQty; }
+    public boolean completed() { return completed; }
+
+    public long finalEquity() {
+        return equityCount == 0 ? finalCash : equity[equityCount - 1];
+    }
+
+    static final class Trades {
+        int[] bar = new int[64];
+        boolean[] buy = new boolean[64];
+        long[] qty = new long[64];
+        long[] price = new long[64];
+        long[] pnl = new long[64];
+        long[] fee = new long[64];
+        int size;
+
+        void add(int b, boolean isBuy, long q, long p, long profit, long f) {
+            if (size == bar.length) {
+                int n = size * 2;
+                bar = Arrays.copyOf(bar, n);
+                buy = Arrays.copyOf(buy, n);
+                qty = Arrays.copyOf(qty, n);
+                price = Arrays.copyOf(price, n);
+                pnl = Arrays.copyOf(pnl, n);
+                fee = Arrays.copyOf(fee, n);
+            }
+            bar[size] = b;
+            buy[size] = isBuy;
+            qty[size] = q;
+            price[size] = p;
+            pnl[size] = profit;
+            fee[size] = f;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.auto_trading_bot.backtest;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+import com.example.auto_trading_bot.portfolio.EquityCurve;
+import com.example.auto_trading_bot.portfolio.Ledger;
+import com.example.auto_trading_bot.portfolio.LedgerPersister;
+import com.example.auto_trading_bot.portfolio.RunStats;
+import com.example.auto_trading_bot.portfolio.Runs;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Bulk-writes a finished backtest: trades and equity straight from the result columns into
+ * the run's own partitions with {@code COPY}, in one transaction, then settles the balances
+ * in the {@link Ledger} and stores the run's metrics.
+ */
+@Component
+public class BacktestWriter {
+
+    private static final int CHUNK = 5_000;
+
+    private final JdbcTemplate db;
+    private final TransactionTemplate tx;
+    private final Ledger ledger;
+    private final LedgerPersister persister;
+    private final EquityCurve curve;
+
+    public BacktestWriter(JdbcTemplate db, TransactionTemplate tx, Ledger ledger, LedgerPersister persister,
+                          EquityCurve curve) {
+        this.db = db;
+        this.tx = tx;
+        this.ledger = ledger;
+        this.persister = persister;
+        this.curve = curve;
+    }
+
+    /**
+     * @param run       the run started for this backtest, whose partitions exist
+     * @param startCash cash the run started from; only the net change is applied to the ledger
+     */
+    public void write(long run, String symbol, String interval, BacktestResult r, long startCash) {
+        String sym = "\t" + symbol + "\t";
+        tx.executeWithoutResult(status -> {
+            copy("COPY " + Runs.partition("trades", run) + " (run_id,ts,symbol,side,qty,price,fee,pnl) FROM STDIN",
+                    r.tradeCount(), (row, t) -> {
+                        row.append(run).append('\t').append(Instant.ofEpochMilli(r.tradeTs(t)))
+                                .append(sym).append(r.tradeIsBuy(t) ? "BUY\t" : "SELL\t");
+                        FixedPoint.append(row, r.tradeQty(t)).append('\t');
+                        FixedPoint.append(row, r.tradePrice(t)).append('\t');
+                        FixedPoint.append(row, r.tradeFee(t)).append('\t');
+                        long pnl = r.tradePnl(t);
+                        if (pnl == BacktestResult.NO_PNL) row.append("\\N");
+                        else FixedPoint.append(row, pnl);
+                    });
+            copy("COPY " + Runs.partition("equity_curve", run) + " (run_id,ts,symbol,equity) FROM STDIN",
+                    r.equityCount(), (row, k) -> {
+                        row.append(run).append('\t').append(Instant.ofEpochMilli(r.equityTs(k))).append(sym);
+                        FixedPoint.append(row, r.equity(k));
+                    });
+            EquityCurve.Rollup rollup = curve.rollup();
+            for (int k = 0; k < r.equityCount(); k++) rollup.add(run, symbol, r.equityTs(k), r.equity(k));
+            curve.write(rollup);
+        });
+        long[] qty = new long[r.tradeCount()];
+        long[] price = new long[r.tradeCount()];
+        long[] fee = new long[r.tradeCount()];
+        for (int t = 0; t < r.tradeCount(); t++) {
+            qty[t] = r.tradeIsBuy(t) ? r.tradeQty(t) : -r.tradeQty(t);
+            price[t] = r.tradePrice(t);
+            fee[t] = r.tradeFee(t);
+        }
+        ledger.applyBacktest(symbol, FixedPoint.toBigDecimal(r.finalCash() - startCash), qty, price, fee);
+        persister.flush();
+        persister.recordStats(run, stats(symbol, interval, r));
+    }
+
+    /**
+     * One pass over both columns; a trade counts toward the position from its bar's equity point on.
+     * {@link BacktestResult#NO_PNL} is the journal's marker too.
+     */
+    static RunStats stats(String symbol, String interval, BacktestResult r) {
+        RunStats s = new RunStats(symbol, interval);
+        long held = r.finalQty();
+        for (int t = 0; t < r.tradeCount(); t++) held -= r.tradeIsBuy(t) ? r.tradeQty(t) : -r.tradeQty(t);
+        int t = 0;
+        for (int k = 0; k < r.equityCount(); k++) {
+            long ts = r.equityTs(k);
+            for (; t < r.tradeCount() && r.tradeTs(t) <= ts; t++) {
+                held += r.tradeIsBuy(t) ? r.tradeQty(t) : -r.tradeQty(t);
+                s.fill(r.tradePnl(t));
+            }
+            s.equity(r.equity(k), held != 0);
+        }
+        for (; t < r.tradeCount(); t++) s.fill(r.tradePnl(t));
+        return s;
+    }
+
+    private interface Row {
+        void write(StringBuilder row, int i);
+    }
+
+    /** Streams {@code rows} text-format lines through {@code sql} on the transaction's connection, in chunks. */
+    private void copy(String sql, int rows, Row row) {
+        if (rows == 0) return;
+        db.execute((ConnectionCallback<Long>) con -> {
+            CopyIn in = con.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+            try {
+                StringBuilder buf = new StringBuilder(CHUNK * 96);
+                for (int i = 0; i < rows; i++) {
+                    row.write(buf, i);
+                    buf.append('\n');
+                    if ((i + 1) % CHUNK == 0 || i == rows - 1) {
+                        byte[] bytes = buf.toString().getBytes(StandardCharsets.UTF_8);
+                        in.writeToCopy(bytes, 0, bytes.length);
+                        buf.setLength(0);
+                    }
+                }
+                return in.endCopy();
+            } finally {
+                if (in.isActive()) in.cancelCopy();
+            }
+        });
+    }
+}
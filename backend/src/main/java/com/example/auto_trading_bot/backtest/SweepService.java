@@ -0,0 +1,136 @@
+package com.example.auto_trading_bot.backtest;
+
+import com.example.auto_trading_bot.bot.StrategyParams;
+import com.example.auto_trading_bot.common.FixedPoint;
+import com.example.auto_trading_bot.dto.SweepRange;
+import com.example.auto_trading_bot.dto.SweepRequest;
+import com.example.auto_trading_bot.dto.SweepResult;
+import com.example.auto_trading_bot.market.CandleSeries;
+import com.example.auto_trading_bot.portfolio.Position;
+import com.example.auto_trading_bot.market.CandleHistory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Backtests every combination of strategy parameters over one shared, read-only
+ * {@link CandleSeries}, spread over a fork-join pool sized to the machine.
+ */
+@Service
+public class SweepService {
+
+    private static final int MAX_COMBINATIONS = 100_000;
+    private static final BigDecimal DEFAULT_CASH = new BigDecimal("10000");
+
+    private final CandleHistory history;
+    private final BacktestEngine engine;
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    public SweepService(CandleHistory history, BacktestEngine engine) {
+        this.history = history;
+        this.engine = engine;
+    }
+
+    public List<SweepResult> sweep(SweepRequest req) {
+        List<StrategyParams> combos = combinations(req);
+        int bars = req.bars() == null ? 1000 : req.bars();
+        for (StrategyParams p : combos) {
+            // a window that never fills holds every run and only burns pool time
+            if (p.window() >= bars) {
+                throw new IllegalArgumentException("window " + p.window() + " must be below bars " + bars);
+            }
+        }
+        CandleSeries candles = history.lastBars(req.symbol(), req.interval(), bars);
+        if (candles.size() < 2) {
+            throw new IllegalArgumentException("not enough candles for " + req.symbol() + " " + req.interval());
+        }
+        BigDecimal initialCash = req.initialCash() == null ? DEFAULT_CASH : req.initialCash();
+        return run(candles, combos, FixedPoint.of(initialCash));
+    }
+
+    List<SweepResult> run(CandleSeries candles, List<StrategyParams> combos, long cash) {
+        List<Row> rows;
+        try {
+            rows = pool.submit(() -> combos.parallelStream()
+                    .map(p -> score(p, engine.run(candles, p, cash, new Position(Position.CostBasis.FIFO), () -> true), cash))
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("sweep interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("sweep failed", e.getCause());
+        }
+
+        List<Row> ranked = new ArrayList<>(rows);
+        ranked.sort(Comparator.comparingLong(Row::finalEquity).reversed());
+        List<SweepResult> out = new ArrayList<>(ranked.size());
+        for (int i = 0; i < ranked.size(); i++) {
+            Row r = ranked.get(i);
+            out.add(new SweepResult(i + 1, r.params().window(), r.params().buyFraction(), r.params().sellFraction(),
+                    FixedPoint.toBigDecimal(r.finalEquity()),
+                    pct(r.finalEquity() - cash, cash),
+                    BigDecimal.valueOf(r.maxDrawdown() * 100).setScale(4, RoundingMode.HALF_UP),
+                    r.trades()));
+        }
+        return out;
+    }
+
+    private static Row score(StrategyParams p, BacktestResult r, long cash) {
+        long peak = cash;
+        double maxDd = 0;
+        for (int k = 0; k < r.equityCount(); k++) {
+            long e = r.equity(k);
+            if (e > peak) peak = e;
+            else if (peak > 0) maxDd = Math.max(maxDd, (peak - e) / (double) peak);
+        }
+        return new Row(p, r.finalEquity(), maxDd, r.tradeCount());
+    }
+
+    private static BigDecimal pct(long delta, long base) {
+        if (base == 0) return BigDecimal.ZERO;
+        return BigDecimal.valueOf(delta).multiply(BigDecimal.valueOf(100))
+                .divide(BigDecimal.valueOf(base), 4, RoundingMode.HALF_UP);
+    }
+
+    private static List<StrategyParams> combinations(SweepRequest req) {
+        List<BigDecimal> windows = values(req.window(), BigDecimal.valueOf(StrategyParams.DEFAULT.window()));
+        List<BigDecimal> buys = values(req.buyFraction(), StrategyParams.DEFAULT.buyFraction());
+        List<BigDecimal> sells = values(req.sellFraction(), StrategyParams.DEFAULT.sellFraction());
+        long total = (long) windows.size() * buys.size() * sells.size();
+        if (total > MAX_COMBINATIONS) {
+            throw new IllegalArgumentException("sweep has " + total + " combinations, max is " + MAX_COMBINATIONS);
+        }
+
+        List<StrategyParams> out = new ArrayList<>((int) total);
+        for (BigDecimal w : windows) {
+            int window;
+            try {
+                window = w.intValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("window must be a whole number: " + w);
+            }
+            for (BigDecimal b : buys) {
+                for (BigDecimal s : sells) out.add(new StrategyParams(window, b, s));
+            }
+        }
+        return out;
+    }
+
+    private static List<BigDecimal> values(SweepRange range, BigDecimal fallback) {
+        return range == null ? List.of(fallback) : range.values();
+    }
+
+    private record Row(StrategyParams params, long finalEquity, double maxDrawdown, int trades) {}
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
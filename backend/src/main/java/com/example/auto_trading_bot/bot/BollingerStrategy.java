@@ -0,0 +1,39 @@
+package com.example.auto_trading_bot.bot;
+
+import com.example.auto_trading_bot.bot.indicator.Bollinger;
+import com.example.auto_trading_bot.bot.indicator.IndicatorSet;
+import org.springframework.stereotype.Component;
+
+/** Mean reversion: buys a close under the lower band, sells one over the upper band. */
+@Component
+public class BollingerStrategy implements Strategy {
+
+    private static final double K = 2;
+
+    @Override
+    public String name() {
+        return "bollinger";
+    }
+
+    @Override
+    public void register(IndicatorSet ind, StrategyParams p) {
+        ind.bollinger(length(p), K);
+    }
+
+    @Override
+    public Signal signal(IndicatorSet ind, StrategyParams p) {
+        if (ind.count() <= length(p)) return Signal.HOLD;
+
+        Bollinger bands = ind.bollinger(length(p), K);
+        long last = ind.lastClose();
+
+        if (last < bands.lower()) return Signal.BUY;
+        if (last > bands.upper()) return Signal.SELL;
+        return Signal.HOLD;
+    }
+
+    /** A deviation over fewer than two closes is always zero. */
+    private static int length(StrategyParams p) {
+        return Math.max(2, p.window());
+    }
+}
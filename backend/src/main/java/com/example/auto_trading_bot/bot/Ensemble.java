@@ -0,0 +1,45 @@
+package com.example.auto_trading_bot.bot;
+
+import com.example.auto_trading_bot.bot.indicator.IndicatorSet;
+
+import java.util.List;
+
+/**
+ * Majority vote of other strategies, named {@code vote(a+b+c)}: BUY or SELL when more members
+ * say so than the opposite and at least half of them agree, HOLD otherwise. Its members share
+ * the session's indicators like any other strategy.
+ */
+public final class Ensemble implements Strategy {
+
+    private final String name;
+    private final Strategy[] members;
+
+    Ensemble(List<Strategy> members) {
+        if (members.size() < 2) throw new IllegalArgumentException("a vote needs at least two strategies");
+        this.members = members.toArray(Strategy[]::new);
+        this.name = "vote(" + String.join("+", members.stream().map(Strategy::name).toList()) + ")";
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void register(IndicatorSet ind, StrategyParams p) {
+        for (Strategy m : members) m.register(ind, p);
+    }
+
+    @Override
+    public Signal signal(IndicatorSet ind, StrategyParams p) {
+        int buy = 0, sell = 0;
+        for (Strategy m : members) {
+            Signal s = m.signal(ind, p);
+            if (s == Signal.BUY) buy++;
+            else if (s == Signal.SELL) sell++;
+        }
+        if (buy > sell && buy * 2 >= members.length) return Signal.BUY;
+        if (sell > buy && sell * 2 >= members.length) return Signal.SELL;
+        return Signal.HOLD;
+    }
+}
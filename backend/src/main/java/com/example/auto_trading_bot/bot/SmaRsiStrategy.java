@@ -0,0 +1,41 @@
+package com.example.auto_trading_bot.bot;
+
+import com.example.auto_trading_bot.bot.indicator.IndicatorSet;
+import com.example.auto_trading_bot.common.FixedPoint;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code sma} with an RSI(14) filter: no buying into an overbought market, and selling out of
+ * one. Reads the same SMA as {@code sma}, so running both costs a single SMA update.
+ */
+@Component
+public class SmaRsiStrategy implements Strategy {
+
+    private static final int RSI_LENGTH = 14;
+    private static final long OVERBOUGHT = FixedPoint.of(70);
+
+    @Override
+    public String name() {
+        return "sma-rsi";
+    }
+
+    @Override
+    public void register(IndicatorSet ind, StrategyParams p) {
+        ind.sma(p.window());
+        ind.rsi(RSI_LENGTH);
+    }
+
+    @Override
+    public Signal signal(IndicatorSet ind, StrategyParams p) {
+        if (ind.count() <= Math.max(p.window(), RSI_LENGTH)) return Signal.HOLD;
+
+        long sma = ind.sma(p.window()).value();
+        long rsi = ind.rsi(RSI_LENGTH).value();
+        long last = ind.lastClose();
+
+        if (rsi > OVERBOUGHT) return Signal.SELL;
+        if (last > sma) return Signal.BUY;
+        if (last < sma) return Signal.SELL;
+        return Signal.HOLD;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.auto_trading_bot.bot;
+
+import com.example.auto_trading_bot.bot.indicator.IndicatorSet;
+
+/**
+ * A trading rule. Every strategy a session runs registers its indicators in the session's one
+ * {@link IndicatorSet}, which keeps a single instance per type and length, so an indicator read
+ * by several strategies is updated once per bar and a strategy only adds its decision.
+ * Implementations are Spring beans found by {@link StrategyRegistry}.
+ */
+public interface Strategy {
+
+    enum Signal { BUY, SELL, HOLD }
+
+    /** Unique; selects the strategy in {@code app.strategies}. */
+    String name();
+
+    /** Registers the indicators {@link #signal} reads; called before the set's first candle. */
+    void register(IndicatorSet ind, StrategyParams p);
+
+    Signal signal(IndicatorSet ind, StrategyParams p);
+}
@@ -0,0 +1,27 @@
+package com.example.auto_trading_bot.bot;
+
+import java.math.BigDecimal;
+
+public record StrategyParams(
+        int window,
+        BigDecimal buyFraction,
+        BigDecimal sellFraction
+) {
+    /** Longest lookback; the indicators keep a ring buffer of this many bars per session. */
+    public static final int MAX_WINDOW = 10_000;
+
+    public static final StrategyParams DEFAULT =
+            new StrategyParams(5, new BigDecimal("0.05"), new BigDecimal("0.5"));
+
+    public StrategyParams {
+        if (window < 1 || window > MAX_WINDOW) {
+            throw new IllegalArgumentException("window must be between 1 and " + MAX_WINDOW);
+        }
+        if (buyFraction.signum() <= 0 || buyFraction.compareTo(BigDecimal.ONE) > 0) {
+            throw new IllegalArgumentException("buyFraction must be in (0, 1]");
+        }
+        if (sellFraction.signum() <= 0 || sellFraction.compareTo(BigDecimal.ONE) > 0) {
+            throw new IllegalArgumentException("sellFraction must be in (0, 1]");
+        }
+    }
+}
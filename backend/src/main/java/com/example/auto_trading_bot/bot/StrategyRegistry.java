@@ -0,0 +1,74 @@
+package com.example.auto_trading_bot.bot;
+
+import com.example.auto_trading_bot.bot.indicator.IndicatorSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link Strategy} beans by name, and which of them a session runs: one that trades
+ * ({@code app.strategies.trade}) and any number of shadows that only paper-trade alongside it
+ * ({@code app.strategies.shadow}). Names may be votes of other strategies, see {@link Ensemble}.
+ */
+@Component
+public class StrategyRegistry {
+
+    private final Map<String, Strategy> byName = new LinkedHashMap<>();
+    private final Strategy trading;
+    private final List<Strategy> shadows = new ArrayList<>();
+
+    public StrategyRegistry(List<Strategy> strategies,
+                            @Value("${app.strategies.trade:sma}") String trade,
+                            @Value("${app.strategies.shadow:}") List<String> shadow) {
+        for (Strategy s : strategies) {
+            if (byName.putIfAbsent(s.name(), s) != null) {
+                throw new IllegalStateException("Two strategies are named " + s.name());
+            }
+        }
+        this.trading = get(trade);
+        for (String name : shadow) {
+            if (name.isBlank()) continue;
+            Strategy s = get(name.trim());
+            if (s.name().equals(trading.name()) || shadows.stream().anyMatch(x -> x.name().equals(s.name()))) {
+                throw new IllegalArgumentException("Strategy runs twice: " + s.name());
+            }
+            shadows.add(s);
+        }
+    }
+
+    /** @throws IllegalArgumentException for an unknown name */
+    public Strategy get(String name) {
+        if (name.startsWith("vote(") && name.endsWith(")")) {
+            List<Strategy> members = new ArrayList<>();
+            for (String m : name.substring(5, name.length() - 1).split("\\+")) members.add(get(m.trim()));
+            return new Ensemble(members);
+        }
+        Strategy s = byName.get(name);
+        if (s == null) throw new IllegalArgumentException("Unknown strategy " + name + ", known: " + byName.keySet());
+        return s;
+    }
+
+    public List<String> names() {
+        return List.copyOf(byName.keySet());
+    }
+
+    public Strategy trading() {
+        return trading;
+    }
+
+    public List<Strategy> shadows() {
+        return shadows;
+    }
+
+    /** One set for a session: the indicators of the trading strategy and of every shadow, each once. */
+    public IndicatorSet newIndicators(StrategyParams p) {
+        IndicatorSet ind = new IndicatorSet();
+        trading.register(ind, p);
+        for (Strategy s : shadows) s.register(ind, p);
+        return ind;
+    }
+}
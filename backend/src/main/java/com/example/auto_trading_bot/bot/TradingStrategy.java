@@ -1,33 +1,46 @@
 package com.example.auto_trading_bot.bot;
 
-import com.example.auto_trading_bot.market.Candle;
+import com.example.auto_trading_bot.bot.indicator.IndicatorSet;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.List;
-
+/** Trend following on the close against its SMA: the original rule, named {@code sma}. */
 @Component
-public class TradingStrategy {
+public class TradingStrategy implements Strategy {
 
-    public enum Signal { BUY, SELL, HOLD }
+        @Override
+        public String name() {
+            return "sma";
+        }
 
-        public Signal signal(List<Candle> candles) {
-            if (candles.size() < 6) return Signal.HOLD;
+        public IndicatorSet newIndicators() {
+            return newIndicators(StrategyParams.DEFAULT);
+        }
 
-            BigDecimal sma5 = sma(candles, 5);
-            BigDecimal last = candles.get(candles.size()-1).close();
+        public IndicatorSet newIndicators(StrategyParams p) {
+            IndicatorSet ind = new IndicatorSet();
+            register(ind, p);
+            return ind;
+        }
 
-            if (last.compareTo(sma5) > 0)  return Signal.BUY;
-            if (last.compareTo(sma5) < 0)  return Signal.SELL;
-            return Signal.HOLD;
+        @Override
+        public void register(IndicatorSet ind, StrategyParams p) {
+            ind.sma(p.window());
         }
 
-        private BigDecimal sma(List<Candle> c, int n) {
-            int len = c.size();
-            BigDecimal sum = BigDecimal.ZERO;
-            for (int i=len-n; i<len; i++) sum = sum.add(c.get(i).close());
-            return sum.divide(BigDecimal.valueOf(n), 8, RoundingMode.HALF_UP);
+        public Signal signal(IndicatorSet ind) {
+            return signal(ind, StrategyParams.DEFAULT);
+        }
+
+        @Override
+        public Signal signal(IndicatorSet ind, StrategyParams p) {
+            if (ind.count() <= p.window()) return Signal.HOLD;
+
+            long sma = ind.sma(p.window()).value();
+            long last = ind.lastClose();
+
+            if (last > sma) return Signal.BUY;
+            if (last < sma) return Signal.SELL;
+            return Signal.HOLD;
         }
 
 }
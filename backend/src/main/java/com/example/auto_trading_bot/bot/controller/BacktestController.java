@@ -0,0 +1,44 @@
+package com.example.auto_trading_bot.bot.controller;
+
+import com.example.auto_trading_bot.backtest.SweepService;
+import com.example.auto_trading_bot.dto.SweepRequest;
+import com.example.auto_trading_bot.dto.SweepResult;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/backtest")
+@CrossOrigin(origins = "*")
+public class BacktestController {
+
+    private static final int MAX_BARS = 5_000_000;
+
+    private final SweepService sweeps;
+
+    public BacktestController(SweepService sweeps) { this.sweeps = sweeps; }
+
+    @PostMapping("/sweep")
+    public List<SweepResult> sweep(@RequestBody SweepRequest req) {
+        String symbol = req.symbol() == null ? "" : req.symbol().trim();
+        String interval = req.interval() == null ? "" : req.interval().trim();
+        if (!symbol.matches("[A-Z0-9]{3,20}")) {
+            throw new IllegalArgumentException("invalid symbol");
+        }
+        if (!interval.matches("[0-9]{1,6}[smhdw]")) {
+            throw new IllegalArgumentException("invalid interval");
+        }
+        if (req.bars() != null && (req.bars() < 2 || req.bars() > MAX_BARS)) {
+            throw new IllegalArgumentException("bars must be between 2 and " + MAX_BARS);
+        }
+        if (req.initialCash() != null && req.initialCash().signum() <= 0) {
+            throw new IllegalArgumentException("initialCash must be positive");
+        }
+        return sweeps.sweep(new SweepRequest(symbol, interval, req.bars(), req.initialCash(),
+                req.window(), req.buyFraction(), req.sellFraction()));
+    }
+}
@@ -1,16 +1,24 @@
 package com.example.auto_trading_bot.bot.controller;
 
 import com.example.auto_trading_bot.bot.service.BotService;
+import com.example.auto_trading_bot.dashboard.DashboardFeed;
 import com.example.auto_trading_bot.dto.BotStatus;
 import com.example.auto_trading_bot.dto.EquityPoint;
+import com.example.auto_trading_bot.dto.RunDTO;
+import com.example.auto_trading_bot.dto.RunSummary;
+import com.example.auto_trading_bot.dto.ShadowSummary;
 import com.example.auto_trading_bot.dto.TradeDTO;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
@@ -19,43 +27,95 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class BotController {
 
+    private static final int MAX_BACKTEST_BARS = 5_000_000;
+    private static final int DEFAULT_CHART_POINTS = 1000;
+    private static final int MAX_CHART_POINTS = 20_000;
+
     private final BotService bot;
+    private final DashboardFeed feed;
 
-    public BotController(BotService bot) { this.bot = bot; }
+    public BotController(BotService bot, DashboardFeed feed) {
+        this.bot = bot;
+        this.feed = feed;
+    }
 
     private static String sanitize(String s) {
         return s == null ? "" : s.trim();
     }
 
+    private static String optional(String s) {
+        return s == null || s.isBlank() ? null : s.trim();
+    }
+
     @PostMapping("/bot/start")
     public Map<String,Object> start(@RequestParam String mode,
                                     @RequestParam String symbol,
-                                    @RequestParam String interval) {
+                                    @RequestParam String interval,
+                                    @RequestParam(defaultValue = "1000") int bars) {
         mode = sanitize(mode);
         symbol = sanitize(symbol);
         interval = sanitize(interval);
 
-        if (!(mode.equals("BACKTEST") || mode.equals("LIVE"))) {
-            throw new IllegalArgumentException("mode must be BACKTEST or LIVE");
+        if (!(mode.equals("BACKTEST") || mode.equals("LIVE") || mode.equals("REPLAY"))) {
+            throw new IllegalArgumentException("mode must be BACKTEST, LIVE or REPLAY");
         }
         if (!symbol.matches("[A-Z0-9]{3,20}")) {
             throw new IllegalArgumentException("invalid symbol");
         }
-        if (!interval.matches("[0-9]+[smhdw]")) {
+        if (!interval.matches("[0-9]{1,6}[smhdw]")) {
             throw new IllegalArgumentException("invalid interval");
         }
+        if (bars < 2 || bars > MAX_BACKTEST_BARS) {
+            throw new IllegalArgumentException("bars must be between 2 and " + MAX_BACKTEST_BARS);
+        }
 
-        if (mode.equals("BACKTEST")) bot.startBacktest(symbol, interval);
+        if (mode.equals("BACKTEST")) bot.startBacktest(symbol, interval, bars);
+        else if (mode.equals("REPLAY")) bot.startReplay(symbol, interval, bars);
         else bot.startLive(symbol, interval);
         return Map.of("ok", true, "mode", mode, "symbol", symbol, "interval", interval);
     }
 
-    @PostMapping("/bot/pause")  public BotStatus pause()  { bot.pause();  return new BotStatus(bot.mode(), "PAUSED",  bot.symbol(), bot.interval()); }
-    @PostMapping("/bot/resume") public BotStatus resume() { bot.resume(); return new BotStatus(bot.mode(), "RUNNING", bot.symbol(), bot.interval()); }
-    @PostMapping("/bot/stop")   public BotStatus stop()   { bot.stop();   return new BotStatus(bot.mode(), "IDLE",    bot.symbol(), bot.interval()); }
-    @GetMapping("/bot/status")  public BotStatus status() { return new BotStatus(bot.mode(), bot.status(), bot.symbol(), bot.interval()); }
+    // symbol/interval are optional on the session endpoints; when omitted the last started session is used
+    @PostMapping("/bot/pause")  public BotStatus pause(@RequestParam(required = false) String symbol, @RequestParam(required = false) String interval)  { return bot.pause(optional(symbol), optional(interval)); }
+    @PostMapping("/bot/resume") public BotStatus resume(@RequestParam(required = false) String symbol, @RequestParam(required = false) String interval) { return bot.resume(optional(symbol), optional(interval)); }
+    @PostMapping("/bot/stop")   public BotStatus stop(@RequestParam(required = false) String symbol, @RequestParam(required = false) String interval)   { return bot.stop(optional(symbol), optional(interval)); }
+    @GetMapping("/bot/status")  public BotStatus status(@RequestParam(required = false) String symbol, @RequestParam(required = false) String interval) { return bot.status(optional(symbol), optional(interval)); }
+    @GetMapping("/bot/sessions") public List<BotStatus> sessions() { return bot.sessions(); }
+    @GetMapping("/bot/shadows") public List<ShadowSummary> shadows(@RequestParam(required = false) String symbol, @RequestParam(required = false) String interval) { return bot.shadows(optional(symbol), optional(interval)); }
+    @GetMapping("/strategies") public Map<String, Object> strategies() { return bot.strategies(); }
+
+    // since= is a cursor: the last trade id / equity timestamp the client has; pages come oldest first
+    @GetMapping("/trades")   public List<TradeDTO> trades(@RequestParam(required = false) Long since, @RequestParam(required = false) Long run) { return since == null ? bot.trades(run) : bot.tradesSince(since); }
+
+    @GetMapping("/runs")     public List<RunDTO> runs() { return bot.runs(); }
+    @DeleteMapping("/runs/{id}") public void dropRun(@PathVariable long id) { bot.dropRun(id); }
+    @GetMapping("/runs/{id}/summary") public RunSummary runSummary(@PathVariable long id) { return bot.summary(null, null, id); }
+    @GetMapping("/summary")  public RunSummary summary(@RequestParam(required = false) String symbol, @RequestParam(required = false) String interval) { return bot.summary(optional(symbol), optional(interval), null); }
+
+    /**
+     * Raw rows without parameters or with since=; from/to/points ask for a downsampled range.
+     * Reads the latest run on the symbol, and on the interval if one is given, unless run= names another.
+     */
+    @GetMapping("/equity")
+    public List<EquityPoint> equity(@RequestParam(required = false) String symbol,
+                                    @RequestParam(required = false) String interval,
+                                    @RequestParam(required = false) Long run,
+                                    @RequestParam(required = false) Instant since,
+                                    @RequestParam(required = false) Instant from,
+                                    @RequestParam(required = false) Instant to,
+                                    @RequestParam(required = false) Integer points) {
+        if (since != null) return bot.equitySince(optional(symbol), optional(interval), run, since);
+        if (from == null && to == null && points == null) return bot.equity(optional(symbol), optional(interval), run);
+        int n = points == null ? DEFAULT_CHART_POINTS : points;
+        if (n < 4 || n > MAX_CHART_POINTS) {
+            throw new IllegalArgumentException("points must be between 4 and " + MAX_CHART_POINTS);
+        }
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+        return bot.equity(optional(symbol), optional(interval), run, from, to, n);
+    }
 
-    @GetMapping("/trades")   public List<TradeDTO> trades() { return bot.trades(); }
-    @GetMapping("/equity")   public List<EquityPoint> equity() { return bot.equity(); }
-    @GetMapping("/portfolio")public java.util.Map<String,Object> portfolio() { return bot.portfolio(); }
+    @GetMapping("/events")   public SseEmitter events() { return feed.subscribe(); }
+    @GetMapping("/portfolio")public java.util.Map<String,Object> portfolio(@RequestParam(required = false) String symbol) { return bot.portfolio(optional(symbol)); }
 }
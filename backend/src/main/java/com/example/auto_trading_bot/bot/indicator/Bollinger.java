@@ -0,0 +1,74 @@
+package com.example.auto_trading_bot.bot.indicator;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Bollinger bands: {@link #value()} is the middle band, {@link #upper()}/{@link #lower()}
+ * are {@code k} standard deviations away. The sum of squares is kept in double because
+ * squared fixed-point prices do not fit in a long.
+ */
+public final class Bollinger implements Indicator {
+
+    private final LongRingBuffer window;
+    private final double k;
+    private long sum;
+    private double sumSq;
+
+    public Bollinger(int length, double k) {
+        this.window = new LongRingBuffer(length);
+        this.k = k;
+    }
+
+    @Override
+    public void update(long v) {
+        boolean evicting = window.full();
+        long evicted = window.push(v);
+        sum += v - evicted;
+        double d = FixedPoint.toDouble(v);
+        double e = evicting ? FixedPoint.toDouble(evicted) : 0;
+        sumSq += d * d - e * e;
+    }
+
+    @Override
+    public boolean ready() {
+        return window.full();
+    }
+
+    @Override
+    public long value() {
+        return window.size() == 0 ? 0 : sum / window.size();
+    }
+
+    public long upper() {
+        return value() + FixedPoint.fromDouble(k * stdDev());
+    }
+
+    public long lower() {
+        return value() - FixedPoint.fromDouble(k * stdDev());
+    }
+
+    public double stdDev() {
+        int n = window.size();
+        if (n == 0) return 0;
+        double mean = FixedPoint.toDouble(sum) / n;
+        return Math.sqrt(Math.max(0, sumSq / n - mean * mean));
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        window.write(out);
+        out.writeLong(sum);
+        out.writeDouble(sumSq);
+    }
+
+    @Override
+    public void read(DataInput in) throws IOException {
+        window.read(in);
+        sum = in.readLong();
+        sumSq = in.readDouble();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.auto_trading_bot.bot.indicator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Exponential moving average seeded with the SMA of the first {@code length} values.
+ */
+public final class Ema implements Indicator {
+
+    private final int length;
+    private long value;
+    private long seedSum;
+    private int count;
+
+    public Ema(int length) {
+        if (length <= 0) throw new IllegalArgumentException("length must be > 0");
+        this.length = length;
+    }
+
+    @Override
+    public void update(long v) {
+        if (count < length) {
+            seedSum += v;
+            count++;
+            value = seedSum / count;
+            return;
+        }
+        value += (v - value) * 2 / (length + 1);
+    }
+
+    @Override
+    public boolean ready() {
+        return count >= length;
+    }
+
+    @Override
+    public long value() {
+        return value;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(value);
+        out.writeLong(seedSum);
+        out.writeInt(count);
+    }
+
+    @Override
+    public void read(DataInput in) throws IOException {
+        value = in.readLong();
+        seedSum = in.readLong();
+        count = in.readInt();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.auto_trading_bot.bot.indicator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Rolling indicator over fixed-point values (see {@link com.example.auto_trading_bot.common.FixedPoint}).
+ * Each {@link #update(long)} is O(1) regardless of the window length.
+ */
+public interface Indicator {
+
+    void update(long value);
+
+    boolean ready();
+
+    long value();
+
+    /** Writes the running state, so {@link #read} on a fresh instance continues exactly here. */
+    void write(DataOutput out) throws IOException;
+
+    void read(DataInput in) throws IOException;
+}
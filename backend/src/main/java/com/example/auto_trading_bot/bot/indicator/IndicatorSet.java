@@ -0,0 +1,126 @@
+package com.example.auto_trading_bot.bot.indicator;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+import com.example.auto_trading_bot.market.Candle;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Indicator state for one symbol/interval. Candles are pushed once as they close and every
+ * registered indicator is updated in constant time, so nothing re-reads the candle history.
+ * Not thread-safe: each run owns its own set.
+ */
+public class IndicatorSet {
+
+    private static final int SMA = 1, EMA = 2, RSI = 3, BOLLINGER = 4;
+
+    // Lookups run every bar, so keys are packed longs scanned linearly instead of map keys.
+    private long[] keys = new long[4];
+    private Indicator[] all = new Indicator[4];
+    private int size;
+
+    private long count;
+    private long lastTs;
+    private long lastClose;
+
+    public Sma sma(int length) {
+        long key = key(SMA, length, 0);
+        Indicator found = find(key);
+        return (Sma) (found != null ? found : add(key, new Sma(length)));
+    }
+
+    public Ema ema(int length) {
+        long key = key(EMA, length, 0);
+        Indicator found = find(key);
+        return (Ema) (found != null ? found : add(key, new Ema(length)));
+    }
+
+    public Rsi rsi(int length) {
+        long key = key(RSI, length, 0);
+        Indicator found = find(key);
+        return (Rsi) (found != null ? found : add(key, new Rsi(length)));
+    }
+
+    public Bollinger bollinger(int length, double k) {
+        long key = key(BOLLINGER, length, k);
+        Indicator found = find(key);
+        return (Bollinger) (found != null ? found : add(key, new Bollinger(length, k)));
+    }
+
+    private static long key(int type, int length, double k) {
+        if (length <= 0 || length >= (1 << 24)) throw new IllegalArgumentException("length out of range: " + length);
+        return ((long) type << 56) | ((Float.floatToIntBits((float) k) & 0xFFFFFFFFL) << 24) | length;
+    }
+
+    private Indicator find(long key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) return all[i];
+        }
+        return null;
+    }
+
+    private Indicator add(long key, Indicator created) {
+        if (count > 0) throw new IllegalStateException("indicators must be registered before the first candle");
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            all = Arrays.copyOf(all, size * 2);
+        }
+        keys[size] = key;
+        all[size++] = created;
+        return created;
+    }
+
+    public void update(Candle c) {
+        update(c.ts().toEpochMilli(), FixedPoint.of(c.close()));
+    }
+
+    public void update(long tsMillis, long close) {
+        for (int i = 0; i < size; i++) all[i].update(close);
+        lastTs = tsMillis;
+        lastClose = close;
+        count++;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long lastTs() {
+        return lastTs;
+    }
+
+    public long lastClose() {
+        return lastClose;
+    }
+
+    /** The registrations, then every indicator's state; see {@link #read}. */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) out.writeLong(keys[i]);
+        for (int i = 0; i < size; i++) all[i].write(out);
+        out.writeLong(count);
+        out.writeLong(lastTs);
+        out.writeLong(lastClose);
+    }
+
+    /**
+     * Continues from state {@link #write written} by a set with the same indicators registered.
+     * Returns false, without changing anything, if the registrations differ; an exception
+     * while reading the states leaves this set unusable.
+     */
+    public boolean read(DataInput in) throws IOException {
+        int n = in.readInt();
+        if (n != size) return false;
+        for (int i = 0; i < size; i++) {
+            if (in.readLong() != keys[i]) return false;
+        }
+        for (int i = 0; i < size; i++) all[i].read(in);
+        count = in.readLong();
+        lastTs = in.readLong();
+        lastClose = in.readLong();
+        return true;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.auto_trading_bot.bot.indicator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+final class LongRingBuffer {
+
+    private final long[] buf;
+    private int head;
+    private int size;
+
+    LongRingBuffer(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        this.buf = new long[capacity];
+    }
+
+    /** Appends {@code v} and returns the value it evicted, or 0 while the buffer is still filling. */
+    long push(long v) {
+        long evicted = 0;
+        if (size == buf.length) evicted = buf[head];
+        else size++;
+        buf[head] = v;
+        head = (head + 1) % buf.length;
+        return evicted;
+    }
+
+    boolean full() {
+        return size == buf.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return buf.length;
+    }
+
+    long get(int i) {
+        int start = size == buf.length ? head : 0;
+        return buf[(start + i) % buf.length];
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /** Oldest first; read back into a buffer of the same capacity. */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) out.writeLong(get(i));
+    }
+
+    void read(DataInput in) throws IOException {
+        int n = in.readInt();
+        if (n < 0 || n > buf.length) throw new IOException("window of " + n + " does not fit " + buf.length);
+        clear();
+        for (int i = 0; i < n; i++) push(in.readLong());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.auto_trading_bot.bot.indicator;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Wilder's RSI. {@link #value()} is in fixed point on a 0..100 scale.
+ */
+public final class Rsi implements Indicator {
+
+    private final int length;
+    private long prev;
+    private long avgGain;
+    private long avgLoss;
+    private int count;
+
+    public Rsi(int length) {
+        if (length <= 0) throw new IllegalArgumentException("length must be > 0");
+        this.length = length;
+    }
+
+    @Override
+    public void update(long v) {
+        if (count++ == 0) {
+            prev = v;
+            return;
+        }
+        long change = v - prev;
+        prev = v;
+        long gain = Math.max(change, 0);
+        long loss = Math.max(-change, 0);
+        if (count <= length + 1) {
+            avgGain += gain / length;
+            avgLoss += loss / length;
+        } else {
+            avgGain = (avgGain * (length - 1) + gain) / length;
+            avgLoss = (avgLoss * (length - 1) + loss) / length;
+        }
+    }
+
+    @Override
+    public boolean ready() {
+        return count > length;
+    }
+
+    @Override
+    public long value() {
+        if (avgLoss == 0) return avgGain == 0 ? FixedPoint.of(50) : FixedPoint.of(100);
+        return FixedPoint.of(100) - FixedPoint.div(FixedPoint.of(100), FixedPoint.SCALE + FixedPoint.div(avgGain, avgLoss));
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(prev);
+        out.writeLong(avgGain);
+        out.writeLong(avgLoss);
+        out.writeInt(count);
+    }
+
+    @Override
+    public void read(DataInput in) throws IOException {
+        prev = in.readLong();
+        avgGain = in.readLong();
+        avgLoss = in.readLong();
+        count = in.readInt();
+    }
+}
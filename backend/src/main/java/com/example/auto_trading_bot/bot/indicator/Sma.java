@@ -0,0 +1,49 @@
+package com.example.auto_trading_bot.bot.indicator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public final class Sma implements Indicator {
+
+    private final LongRingBuffer window;
+    private long sum;
+
+    public Sma(int length) {
+        this.window = new LongRingBuffer(length);
+    }
+
+    @Override
+    public void update(long value) {
+        sum += value - window.push(value);
+    }
+
+    @Override
+    public boolean ready() {
+        return window.full();
+    }
+
+    @Override
+    public long value() {
+        int n = window.size();
+        if (n == 0) return 0;
+        // HALF_UP, same as the BigDecimal SMA this replaced
+        return Math.floorDiv(2 * sum + n, 2L * n);
+    }
+
+    public int length() {
+        return window.capacity();
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        window.write(out);
+        out.writeLong(sum);
+    }
+
+    @Override
+    public void read(DataInput in) throws IOException {
+        window.read(in);
+        sum = in.readLong();
+    }
+}
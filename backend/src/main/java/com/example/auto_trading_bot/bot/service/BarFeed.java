@@ -0,0 +1,104 @@
+package com.example.auto_trading_bot.bot.service;
+
+import com.example.auto_trading_bot.bot.indicator.IndicatorSet;
+import com.example.auto_trading_bot.market.Candle;
+import com.example.auto_trading_bot.market.Intervals;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * The closed bars of one session on the live path: a warm-up, then the source's stream one
+ * bar at a time. Bars missed while the stream was down are fetched, page by page, before the
+ * bar after the gap and only feed the indicators; a bar whose gap cannot be backfilled is
+ * skipped, and the next one retries.
+ */
+final class BarFeed {
+
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(BarFeed.class);
+
+    static final int WARM_UP_BARS = 120;
+    private static final int PAGE = 1000;
+
+    /** Gets each bar on the feed's scheduler; {@code trade} is false for bars that only feed the indicators. */
+    interface Handler {
+        void onBarClose(Candle bar, boolean trade);
+    }
+
+    private final SessionKey key;
+    private final IndicatorSet indicators;
+    private final BarSource source;
+    private final Scheduler scheduler;
+    private final Handler handler;
+
+    /** @param indicators updated by {@code handler}; read for where the warm-up and backfills start */
+    BarFeed(SessionKey key, IndicatorSet indicators, BarSource source, Scheduler scheduler, Handler handler) {
+        this.key = key;
+        this.indicators = indicators;
+        this.source = source;
+        this.scheduler = scheduler;
+        this.handler = handler;
+    }
+
+    /** Completes only when the source runs out of bars, as a replay does. */
+    Flux<Void> bars() {
+        // restored indicators only need the bars closed since they were saved; the last one is still open
+        long restored = indicators.count() > 0 ? indicators.lastTs() : 0;
+        Mono<Void> warmUp = (restored > 0 ? source.since(restored + 1, PAGE) : source.recent(WARM_UP_BARS))
+                .publishOn(scheduler)
+                .doOnNext(kl -> {
+                    for (int i = 0; i < kl.size() - 1; i++) handler.onBarClose(kl.get(i), i == kl.size() - 2);
+                })
+                .onErrorResume(e -> {
+                    log.warn("Market data error (live warm-up) symbol={} interval={}: {}", key.symbol(), key.interval(), e.toString());
+                    return Mono.empty();
+                })
+                .then();
+        // one bar at a time, requested as the previous one is done
+        return warmUp.thenMany(source.closedBars()).concatMap(this::onStreamBar);
+    }
+
+    private Mono<Void> onStreamBar(Candle bar) {
+        return Mono.defer(() -> {
+                    long last = indicators.lastTs();
+                    long ts = bar.ts().toEpochMilli();
+                    Mono<Void> gap = last > 0 && ts > last + Intervals.millis(key.interval())
+                            ? backfill(last, ts) : Mono.empty();
+                    return gap.then(Mono.<Void>fromRunnable(() -> handler.onBarClose(bar, true)));
+                })
+                .subscribeOn(scheduler)
+                .onErrorResume(e -> {
+                    log.warn("Live bar failed symbol={} interval={}: {}", key.symbol(), key.interval(), e.toString());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Trading resumes on the newest bar; the ones before it are only fed to the indicators.
+     * Pages until a bar at or past {@code untilTs} shows up, and fails if the source runs dry
+     * first, so the bar is skipped and the next one retries.
+     */
+    private Mono<Void> backfill(long lastTs, long untilTs) {
+        return source.since(lastTs + 1, PAGE)
+                .publishOn(scheduler)
+                .flatMap(gap -> {
+                    if (gap.isEmpty()) {
+                        // the source may not list the bar itself yet; the one before it is enough
+                        if (lastTs >= untilTs - Intervals.millis(key.interval())) return Mono.<Void>empty();
+                        return Mono.<Void>error(new IllegalStateException("no bars between " + lastTs + " and " + untilTs));
+                    }
+                    long last = lastTs;
+                    for (Candle c : gap) {
+                        long ts = c.ts().toEpochMilli();
+                        if (ts >= untilTs) {
+                            log.info("Backfilled symbol={} interval={} up to={}", key.symbol(), key.interval(), last);
+                            return Mono.<Void>empty();
+                        }
+                        handler.onBarClose(c, false);
+                        last = ts;
+                    }
+                    return backfill(last, untilTs);
+                });
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.auto_trading_bot.bot.service;
+
+import com.example.auto_trading_bot.market.Candle;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/** Where a session on the live path gets its bars: the exchange, or recorded candles for REPLAY. */
+interface BarSource {
+
+    /** The latest {@code n} klines, the last of which may still be forming. */
+    Mono<List<Candle>> recent(int n);
+
+    /** Up to {@code limit} bars from {@code fromMs} on, to fill a gap in the stream. */
+    Mono<List<Candle>> since(long fromMs, int limit);
+
+    Flux<Candle> closedBars();
+}
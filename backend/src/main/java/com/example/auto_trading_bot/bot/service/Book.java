@@ -0,0 +1,28 @@
+package com.example.auto_trading_bot.bot.service;
+
+import com.example.auto_trading_bot.bot.Strategy;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * What the traded strategy of a session on the live path settles against: the ledger for
+ * LIVE, a scratch copy of its books for REPLAY. Sizing, fills and equity go through the same
+ * code either way; only where they are recorded differs.
+ */
+interface Book {
+
+    BigDecimal cash();
+
+    /** Held in the session's symbol. */
+    BigDecimal quantity();
+
+    void buy(Instant ts, BigDecimal qty, BigDecimal price, BigDecimal fee);
+
+    void sell(Instant ts, BigDecimal qty, BigDecimal price, BigDecimal fee);
+
+    /** The bar's orders are settled; called before {@link #equity}. */
+    void traded(Instant ts, Strategy.Signal signal, BigDecimal price);
+
+    void equity(Instant ts, BigDecimal equity);
+}
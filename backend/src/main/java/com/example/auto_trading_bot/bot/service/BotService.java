@@ -1,22 +1,58 @@
 package com.example.auto_trading_bot.bot.service;
 
-import com.example.auto_trading_bot.bot.TradingStrategy;
+import com.example.auto_trading_bot.backtest.BacktestEngine;
+import com.example.auto_trading_bot.backtest.BacktestResult;
+import com.example.auto_trading_bot.backtest.BacktestWriter;
+import com.example.auto_trading_bot.bot.Strategy;
+import com.example.auto_trading_bot.bot.StrategyParams;
+import com.example.auto_trading_bot.bot.StrategyRegistry;
+import com.example.auto_trading_bot.bot.indicator.IndicatorSet;
+import com.example.auto_trading_bot.common.FixedPoint;
+import com.example.auto_trading_bot.dashboard.DashboardFeed;
+import com.example.auto_trading_bot.dto.BotStatus;
 import com.example.auto_trading_bot.dto.EquityPoint;
+import com.example.auto_trading_bot.dto.RunDTO;
+import com.example.auto_trading_bot.dto.RunSummary;
+import com.example.auto_trading_bot.dto.ShadowSummary;
 import com.example.auto_trading_bot.dto.TradeDTO;
+import com.example.auto_trading_bot.execution.ExecutionParams;
+import com.example.auto_trading_bot.execution.ExecutionSimulator;
+import com.example.auto_trading_bot.journal.Journal;
+import com.example.auto_trading_bot.journal.JournalEvent;
+import com.example.auto_trading_bot.journal.Snapshot;
 import com.example.auto_trading_bot.market.Candle;
-import com.example.auto_trading_bot.market.MarketDataClient;
+import com.example.auto_trading_bot.market.CandleHistory;
+import com.example.auto_trading_bot.market.CandleSeries;
+import com.example.auto_trading_bot.market.Intervals;
+import com.example.auto_trading_bot.market.MarketDataHub;
+import com.example.auto_trading_bot.portfolio.EquityCurve;
+import com.example.auto_trading_bot.portfolio.Ledger;
+import com.example.auto_trading_bot.portfolio.LedgerPersister;
+import com.example.auto_trading_bot.portfolio.Runs;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.sql.Timestamp;
+import java.time.Clock;
 import java.time.Instant;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class BotService {
@@ -25,255 +61,518 @@ public class BotService {
             org.slf4j.LoggerFactory.getLogger(BotService.class);
 
     private final JdbcTemplate db;
-    private final MarketDataClient data;
-    private final TradingStrategy strategy;
-    private volatile Instant lastProcessedBarTs;
+    private final MarketDataHub data;
+    private final CandleHistory history;
+    private final StrategyRegistry strategies;
+    private final Ledger ledger;
+    private final LedgerPersister persister;
+    private final BacktestEngine backtests;
+    private final BacktestWriter backtestWriter;
+    private final MeterRegistry meters;
+    private final DashboardFeed feed;
+    private final EquityCurve curve;
+    private final Runs runs;
+    private final Journal journal;
+    private final Clock clock;
+    private final ExecutionParams execution;
+    private final boolean resumeSessions;
+    private final WarmStart warmStart;
+
+    private static final int PAGE = 5000;
+    /** Saved indicators further behind than this are rebuilt instead; one since= page must reach the open bar. */
+    private static final int MAX_WARM_GAP_BARS = 500;
+
+    private final int cores = Runtime.getRuntime().availableProcessors();
+    private final ScheduledExecutorService scheduler =
+            Executors.newScheduledThreadPool(Math.max(2, cores), new CustomizableThreadFactory("bot-live-"));
+    private final Scheduler liveScheduler = Schedulers.fromExecutorService(scheduler);
+    private final ExecutorService backtestExec =
+            Executors.newFixedThreadPool(Math.max(1, cores), new CustomizableThreadFactory("bot-backtest-"));
+
+    private final Map<SessionKey, TradingSession> sessions = new ConcurrentHashMap<>();
+    private volatile SessionKey current = new SessionKey("BTCUSDT", "1m");
+
+    public BotService(JdbcTemplate db, MarketDataHub data,
+                      CandleHistory history, StrategyRegistry strategies,
+                      Ledger ledger, LedgerPersister persister,
+                      BacktestEngine backtests, BacktestWriter backtestWriter,
+                      MeterRegistry meters, DashboardFeed feed, EquityCurve curve, Runs runs, Journal journal, Clock clock, ExecutionParams execution,
+                      @Value("${app.journal.resumeSessions:true}") boolean resumeSessions, WarmStart warmStart) {
+        this.db = db;
+        this.data = data;
+        this.history = history;
+        this.strategies = strategies;
+        this.ledger = ledger;
+        this.persister = persister;
+        this.backtests = backtests;
+        this.backtestWriter = backtestWriter;
+        this.meters = meters;
+        this.feed = feed;
+        this.curve = curve;
+        this.runs = runs;
+        this.journal = journal;
+        this.clock = clock;
+        this.execution = execution;
+        this.resumeSessions = resumeSessions;
+        this.warmStart = warmStart;
+    }
 
-    private final ExecutorService exec =
-            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("bot-"));
+    /** Restarts the live sessions that were running or paused when the process went down. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!resumeSessions) return;
+        for (Snapshot.SessionState st : journal.sessions()) {
+            if ("LIVE".equals(st.mode()) && !"IDLE".equals(st.status())) resumeLive(st);
+        }
+    }
 
-    private volatile String status = "IDLE";
-    private volatile String mode = "BACKTEST";
-    private volatile String symbol = "BTCUSDT";
-    private volatile String interval = "1m";
+    private synchronized void resumeLive(Snapshot.SessionState st) {
+        SessionKey key = new SessionKey(st.symbol(), st.interval());
+        IndicatorSet indicators = strategies.newIndicators(StrategyParams.DEFAULT);
+        boolean warm = warmStart.restore(key, indicators)
+                && indicators.lastTs() >= st.lastBarTs()
+                && clock.millis() - indicators.lastTs() <= MAX_WARM_GAP_BARS * Intervals.millis(st.interval());
+        if (!warm) indicators = strategies.newIndicators(StrategyParams.DEFAULT);
+        TradingSession s = replace(newSession(key, "LIVE", indicators, clock));
+        // bars up to the last one traded before the restart are only fed to the indicators
+        if (st.lastBarTs() > 0) s.lastProcessedBarTs = Instant.ofEpochMilli(st.lastBarTs());
+        if ("PAUSED".equals(st.status())) s.pause();
+        scheduler.submit(() -> runLive(s, new ExchangeSource(data, key), false));
+        published(s);
+        log.info("Resumed live session symbol={} interval={} status={} lastBar={} warm={}",
+                st.symbol(), st.interval(), st.status(), s.lastProcessedBarTs, warm);
+    }
 
-    public BotService(JdbcTemplate db, MarketDataClient data, TradingStrategy strategy) {
-        this.db = db;
-        this.data = data;
-        this.strategy = strategy;
+    public synchronized BotStatus startBacktest(String symbol, String interval, int bars) {
+        TradingSession s = replace(newSession(new SessionKey(symbol, interval), "BACKTEST", clock));
+        backtestExec.submit(() -> {
+            try {
+                runBackTest(s, bars);
+            } catch (RuntimeException e) {
+                log.warn("Backtest failed symbol={} interval={}", symbol, interval, e);
+                finish(s);
+            }
+        });
+        return published(s);
+    }
+
+    public synchronized BotStatus startLive(String symbol, String interval) {
+        TradingSession s = replace(newSession(new SessionKey(symbol, interval), "LIVE", clock));
+        scheduler.submit(() -> runLive(s, new ExchangeSource(data, s.key), true));
+        return published(s);
+    }
+
+    /**
+     * Feeds the last {@code bars} recorded candles through the live path as fast as it
+     * consumes them, on a clock that follows the bars. Sizing and fills are the live ones, settled
+     * against a {@link ScratchBook} copy of the ledger's cash and position: nothing reaches the
+     * ledger, the journal or the database, so a replay of the same candles from the same books
+     * gives the same trades.
+     */
+    public synchronized BotStatus startReplay(String symbol, String interval, int bars) {
+        TradingSession s = replace(newSession(new SessionKey(symbol, interval), "REPLAY", new ReplayClock()));
+        scheduler.submit(() -> {
+            CandleSeries candles;
+            try {
+                candles = history.lastBars(symbol, interval, bars);
+            } catch (Exception e) {
+                log.warn("Market data error (replay) symbol={} interval={}: {}", symbol, interval, e.toString());
+                finish(s);
+                return;
+            }
+            if (candles.size() > 0) ((ReplayClock) s.clock).advanceTo(candles.ts(0));
+            runLive(s, new ReplaySource(candles), true);
+        });
+        return published(s);
+    }
+
+    private TradingSession newSession(SessionKey key, String mode, Clock sessionClock) {
+        return newSession(key, mode, strategies.newIndicators(StrategyParams.DEFAULT), sessionClock);
+    }
+
+    /** Shadows start from the ledger's cash, so their results compare with the traded strategy's. */
+    private TradingSession newSession(SessionKey key, String mode, IndicatorSet indicators, Clock sessionClock) {
+        long cash = FixedPoint.of(ledger.cash());
+        List<PaperBook> shadows = "BACKTEST".equals(mode) ? List.of() : strategies.shadows().stream()
+                .map(st -> new PaperBook(st, key, execution, cash))
+                .toList();
+        Book book = switch (mode) {
+            case "LIVE" -> new LedgerBook(key);
+            case "REPLAY" -> new ScratchBook(ledger.cash(), ledger.snapshot(key.symbol()));
+            default -> null;
+        };
+        return new TradingSession(key, mode, indicators, new SessionMetrics(meters, key, mode), sessionClock,
+                new ExecutionSimulator(execution), shadows, book);
+    }
+
+    private TradingSession replace(TradingSession s) {
+        TradingSession old = sessions.put(s.key, s);
+        if (old != null) old.stop();
+        current = s.key;
+        return s;
     }
 
-    public synchronized void startBacktest(String symbol, String interval) {
-        stop();
-        this.mode = "BACKTEST";
-        this.status = "RUNNING";
-        this.symbol = symbol;
-        this.interval = interval;
-        exec.submit(this::runBackTest);
+    public BotStatus pause(String symbol, String interval) {
+        TradingSession s = session(symbol, interval);
+        if (s == null) return idle(symbol, interval);
+        s.pause();
+        return published(s);
     }
 
-    public synchronized void startLive(String symbol, String interval) {
-        stop();
-        this.mode = "LIVE";
-        this.status = "RUNNING";
-        this.symbol = symbol;
-        this.interval = interval;
-        exec.submit(this::runLive);
+    public BotStatus resume(String symbol, String interval) {
+        TradingSession s = session(symbol, interval);
+        if (s == null) return idle(symbol, interval);
+        s.resume();
+        return published(s);
     }
 
-    public synchronized void pause() {
-        this.status = "PAUSED";
+    public BotStatus stop(String symbol, String interval) {
+        TradingSession s = session(symbol, interval);
+        if (s == null) return idle(symbol, interval);
+        s.stop();
+        if ("LIVE".equals(s.mode)) persister.flush();
+        return published(s);
     }
 
-    public synchronized void resume() {
-        if ("PAUSED".equals(this.status)) this.status = "RUNNING";
+    public BotStatus status(String symbol, String interval) {
+        TradingSession s = session(symbol, interval);
+        return s == null ? idle(symbol, interval) : s.toStatus();
     }
 
-    public synchronized void stop() {
-        this.status = "IDLE";
+    public List<BotStatus> sessions() {
+        return sessions.values().stream()
+                .map(TradingSession::toStatus)
+                .sorted(Comparator.comparing(BotStatus::symbol).thenComparing(BotStatus::interval))
+                .toList();
     }
 
-    public String status() {
+    private BotStatus published(TradingSession s) {
+        BotStatus status = s.toStatus();
+        journal.append(JournalEvent.STATE, JournalEvent.statusCode(status.status()), JournalEvent.modeCode(s.mode),
+                s.symbol(), s.interval(), s.clock.millis(), 0, 0, 0);
+        feed.status(status);
         return status;
     }
 
-    public String mode() {
-        return mode;
+    private void finish(TradingSession s) {
+        s.finished();
+        published(s);
     }
 
-    public String symbol() {
-        return symbol;
+    /** A null symbol or interval means the most recently started session's. */
+    private SessionKey key(String symbol, String interval) {
+        SessionKey c = current;
+        return new SessionKey(symbol == null ? c.symbol() : symbol, interval == null ? c.interval() : interval);
     }
 
-    public String interval() {
-        return interval;
+    private TradingSession session(String symbol, String interval) {
+        return sessions.get(key(symbol, interval));
     }
 
-    private void runBackTest() {
-        resetEquity();
-        List<Candle> candles;
+    private BotStatus idle(String symbol, String interval) {
+        SessionKey k = key(symbol, interval);
+        return new BotStatus("BACKTEST", "IDLE", k.symbol(), k.interval());
+    }
+
+    private void runBackTest(TradingSession s, int bars) {
+        String symbol = s.symbol(), interval = s.interval();
+        long run = persister.startRun(symbol, interval, "BACKTEST");
+        CandleSeries candles;
         try {
-            candles = data.getNumberOfLines(symbol, interval, 1000);
+            candles = history.lastBars(symbol, interval, bars);
         } catch (Exception e) {
             log.warn("Market data error (backtest) symbol={} interval={}: {}", symbol, interval, e.toString());
-            this.status = "IDLE";
+            finish(s);
             return;
         }
-        if (candles == null || candles.size() < 2) {
+        if (candles.size() < 2) {
             log.warn("No/insufficient candles for backtest: symbol={} interval={} size={}",
-                    symbol, interval, candles == null ? 0 : candles.size());
-            this.status = "IDLE";
+                    symbol, interval, candles.size());
+            finish(s);
             return;
         }
 
-        int start = Math.min(30, candles.size() - 1);
-        for (int i = start; i < candles.size(); i++) {
-            while ("PAUSED".equals(status)) sleep(200);
-            if (!"RUNNING".equals(status)) return;
+        long t0 = System.nanoTime();
+        long startCash = FixedPoint.of(ledger.cash());
+        BacktestResult result = backtests.run(candles, StrategyParams.DEFAULT, startCash, ledger.snapshot(symbol),
+                s::awaitNotPaused);
+        long t1 = System.nanoTime();
+        meters.timer("bot.backtest.run", "symbol", symbol, "interval", interval)
+                .record(t1 - t0, TimeUnit.NANOSECONDS);
+        s.metrics.bars.increment(result.equityCount());
+        backtestWriter.write(run, symbol, interval, result, startCash);
+        log.info("Backtest symbol={} interval={} bars={} trades={} run={}ms write={}ms",
+                symbol, interval, result.equityCount(), result.tradeCount(),
+                (t1 - t0) / 1_000_000, (System.nanoTime() - t1) / 1_000_000);
+        if (result.completed()) finish(s);
+    }
+
+    private void runLive(TradingSession s, BarSource source, boolean fresh) {
+        String symbol = s.symbol(), interval = s.interval();
+        // a replay opens no run: it leaves nothing for the persister to project
+        if (!"REPLAY".equals(s.mode)) s.run = fresh ? persister.startRun(symbol, interval, s.mode) : runs.latest(symbol, interval);
+        log.info("ENTER {} symbol={} interval={}", s.mode.toLowerCase(), symbol, interval);
+        s.attach(new BarFeed(s.key, s.indicators, source, liveScheduler, (bar, trade) -> onBarClose(s, bar, trade)).bars()
+                .subscribe(v -> { },
+                        e -> log.warn("Kline stream ended symbol={} interval={}: {}", symbol, interval, e.toString()),
+                        () -> {
+                            // only a replay runs out of bars
+                            ScratchBook b = (ScratchBook) s.book;
+                            log.info("Replay done symbol={} interval={} fills={} equity={}", symbol, interval,
+                                    b.fills().size(), b.lastEquity());
+                            finish(s);
+                        }));
+    }
 
-            var window = candles.subList(0, i + 1);
-            var c = candles.get(i);
-            tick(window, c.close(), c.ts());
+    private void onBarClose(TradingSession s, Candle bar, boolean trade) {
+        long closedAt = bar.ts().toEpochMilli() + Intervals.millis(s.interval());
+        if (s.clock instanceof ReplayClock replay) replay.advanceTo(closedAt);
+        if (bar.ts().toEpochMilli() <= s.indicators.lastTs()) {
+            log.debug("SKIP already processed candle ts={}", bar.ts());
+            return;
         }
-        this.status = "IDLE";
+        s.indicators.update(bar);
+        s.metrics.bars.increment();
+        if (!trade || !s.isRunning()) return;
+        if (s.lastProcessedBarTs != null && !bar.ts().isAfter(s.lastProcessedBarTs)) return;
+        s.lastProcessedBarTs = bar.ts();
+        long t0 = System.nanoTime();
+        tick(s, bar);
+        s.metrics.tick.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        s.metrics.decisionLag.record(Math.max(0, s.clock.millis() - closedAt), TimeUnit.MILLISECONDS);
     }
 
-    private void runLive() {
-        resetEquity();
-        log.info("ENTER runLive symbol={} interval={}", symbol, interval);
-        while ("RUNNING".equals(status) || "PAUSED".equals(status)) {
-            while ("PAUSED".equals(status)) sleep(250);
-            if (!"RUNNING".equals(status)) break;
 
-            List<Candle> kl;
-            try {
-                kl = data.getNumberOfLines(symbol, interval, 120);
-            } catch (Exception e) {
-                log.warn("Market data error (live) symbol={} interval={}: {}", symbol, interval, e.toString());
-                sleep(5_000);
-                continue;
-            }
-            if (kl == null || kl.size() < 2) {
-                log.warn("No/insufficient candles (live): symbol={} interval={} size={}",
-                        symbol, interval, kl == null ? 0 : kl.size());
-                sleep(5_000);
-                continue;
-            }
+    private void tick(TradingSession s, Candle bar) {
+        int i = s.bars++;
+        long open = FixedPoint.of(bar.open()), high = FixedPoint.of(bar.high()), low = FixedPoint.of(bar.low());
+        long close = FixedPoint.of(bar.close()), volume = FixedPoint.of(bar.volume());
+        StrategyParams p = StrategyParams.DEFAULT;
+        trade(s, strategies.trading(), bar, i, open, high, low, close, volume, p);
 
-            var ctx = kl.subList(0, kl.size() - 1);
-            var closed = kl.get(kl.size() - 2);
+        if (s.shadows.isEmpty()) return;
+        long t1 = System.nanoTime();
+        for (PaperBook b : s.shadows) b.onBar(i, open, high, low, close, volume, s.indicators, p);
+        s.metrics.shadows.record(System.nanoTime() - t1, TimeUnit.NANOSECONDS);
+    }
 
-            if (lastProcessedBarTs != null && closed.ts().equals(lastProcessedBarTs)) {
-                log.debug("SKIP already processed candle ts={}", closed.ts());
-            } else {
-                lastProcessedBarTs = closed.ts();
-                tick(ctx, closed.close(), closed.ts());
-            }
+    /**
+     * The traded strategy's part of bar {@code i}, for LIVE and REPLAY alike: fills carried from
+     * earlier bars, the signal, the order sizing and the bar's equity, all settled against the
+     * session's {@link Book}.
+     */
+    static void trade(TradingSession s, Strategy strategy, Candle bar, int i, long open, long high, long low, long close,
+                      long volume, StrategyParams p) {
+        Book book = s.book;
+        BigDecimal price = bar.close();
+        Instant ts = bar.ts();
+        s.execution.onBar(i, open, high, low, close, volume, new BookAccount(book, ts));
+        long t0 = System.nanoTime();
+        Strategy.Signal sig = strategy.signal(s.indicators, p);
+        s.metrics.strategy.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+
+        BigDecimal cash = book.cash();
+        BigDecimal qty = book.quantity();
+
+        log.debug("tick symbol={} ts={} sig={} price={} cash={} qty={}", s.symbol(), ts, sig, price, cash, qty);
+
+        if (sig == Strategy.Signal.BUY && cash.compareTo(BigDecimal.valueOf(1)) > 0) {
+            BigDecimal invest = cash.multiply(p.buyFraction());
+            BigDecimal buyQty = invest.divide(price, 8, RoundingMode.DOWN);
+            if (buyQty.compareTo(BigDecimal.ZERO) > 0) s.execution.submit(true, FixedPoint.of(buyQty));
+        } else if (sig == Strategy.Signal.SELL && qty.compareTo(BigDecimal.ZERO) > 0) {
+            BigDecimal sellQty = qty.multiply(p.sellFraction()).setScale(8, RoundingMode.DOWN);
+            if (sellQty.compareTo(BigDecimal.ZERO) > 0) s.execution.submit(false, FixedPoint.of(sellQty));
+        }
+        book.traded(ts, sig, price);
+        book.equity(ts, book.cash().add(book.quantity().multiply(price)));
+    }
 
-            sleep(10_000);
+    /** Settles a session's simulated fills into its book at the bar's time. */
+    private record BookAccount(Book book, Instant ts) implements ExecutionSimulator.Account {
+
+        @Override
+        public long cash() {
+            return FixedPoint.of(book.cash());
+        }
+
+        @Override
+        public long quantity() {
+            return FixedPoint.of(book.quantity());
+        }
+
+        @Override
+        public void fill(boolean buy, long qty, long price, long fee, boolean maker) {
+            BigDecimal q = FixedPoint.toBigDecimal(qty), p = FixedPoint.toBigDecimal(price), f = FixedPoint.toBigDecimal(fee);
+            if (buy) book.buy(ts, q, p, f);
+            else book.sell(ts, q, p, f);
         }
     }
 
+    /** A LIVE session's book: the ledger, with each bar journaled and each equity point persisted. */
+    private final class LedgerBook implements Book {
+        private final SessionKey key;
 
-    private void tick(List<Candle> ctx, BigDecimal price, Instant ts) {
-        TradingStrategy.Signal sig = strategy.signal(ctx);
+        LedgerBook(SessionKey key) {
+            this.key = key;
+        }
 
-        BigDecimal cash = db.queryForObject("SELECT cash_balance FROM account LIMIT 1", BigDecimal.class);
-        BigDecimal qty = db.query((con) -> con.prepareStatement("SELECT quantity FROM holdings WHERE symbol=?"),
-                ps -> ps.setString(1, symbol),
-                rs -> rs.next() ? rs.getBigDecimal(1) : BigDecimal.ZERO);
+        @Override
+        public BigDecimal cash() {
+            return ledger.cash();
+        }
 
-        log.info("tick ts={} sig={} price={} cash={} qty={}", ts, sig, price, cash, qty);
+        @Override
+        public BigDecimal quantity() {
+            return ledger.quantity(key.symbol());
+        }
 
-        if (sig == TradingStrategy.Signal.BUY && cash.compareTo(BigDecimal.valueOf(1)) > 0) {
-            BigDecimal invest = cash.multiply(new BigDecimal("0.05"));
-            BigDecimal buyQty = invest.divide(price, 8, RoundingMode.DOWN);
-            if (buyQty.compareTo(BigDecimal.ZERO) > 0) {
-                db.update("UPDATE account SET cash_balance=cash_balance-?", buyQty.multiply(price));
-                int upd = db.update("UPDATE holdings SET quantity=quantity+? WHERE symbol=?", buyQty, symbol);
-                if (upd == 0) db.update("INSERT INTO holdings(symbol,quantity) VALUES (?,?)", symbol, buyQty);
-                int rows1 = db.update(con -> {
-                    var ps = con.prepareStatement(
-                            "INSERT INTO trades(ts,symbol,side,qty,price,fee,pnl) VALUES (?,?,?,?,?,?,NULL)"
-                    );
-                    ps.setTimestamp(1, Timestamp.from(ts));
-                    ps.setString(2, symbol);
-                    ps.setString(3, "BUY");
-                    ps.setBigDecimal(4, buyQty);
-                    ps.setBigDecimal(5, price);
-                    ps.setBigDecimal(6, BigDecimal.ZERO);
-                    return ps;
-                });
-                log.info("INSERTED TRADE BUY rows={}", rows1);
-            }
-        } else if (sig == TradingStrategy.Signal.SELL && qty.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal sellQty = qty.multiply(new BigDecimal("0.5")).setScale(8, RoundingMode.DOWN);
-            if (sellQty.compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal proceeds = sellQty.multiply(price);
-
-                BigDecimal avgEntry = averageEntryPrice();
-                if (avgEntry.compareTo(BigDecimal.ZERO) == 0) {
-                    avgEntry = price;
-                }
-                BigDecimal pnl = price.subtract(avgEntry).multiply(sellQty);
-
-                db.update("UPDATE account SET cash_balance=cash_balance+?", proceeds);
-                db.update("UPDATE holdings SET quantity=quantity-? WHERE symbol=?", sellQty, symbol);
-                int rows2 = db.update(con -> {
-                    var ps = con.prepareStatement(
-                            "INSERT INTO trades(ts,symbol,side,qty,price,fee,pnl) VALUES (?,?,?,?,?,?,?)"
-                    );
-                    ps.setTimestamp(1, Timestamp.from(ts));
-                    ps.setString(2, symbol);
-                    ps.setString(3, "SELL");
-                    ps.setBigDecimal(4, sellQty);
-                    ps.setBigDecimal(5, price);
-                    ps.setBigDecimal(6, BigDecimal.ZERO);
-                    ps.setBigDecimal(7, pnl);
-                    return ps;
-                });
-                log.info("INSERTED TRADE SELL rows={}", rows2);
+        @Override
+        public void buy(Instant ts, BigDecimal qty, BigDecimal price, BigDecimal fee) {
+            ledger.buy(ts, key.symbol(), key.interval(), qty, price, fee);
+        }
 
-            }
+        @Override
+        public void sell(Instant ts, BigDecimal qty, BigDecimal price, BigDecimal fee) {
+            ledger.sell(ts, key.symbol(), key.interval(), qty, price, fee);
         }
 
-        BigDecimal newCash = db.queryForObject("SELECT cash_balance FROM account LIMIT 1", BigDecimal.class);
-        BigDecimal newQty = db.query((con) -> con.prepareStatement("SELECT quantity FROM holdings WHERE symbol=?"),
-                ps -> ps.setString(1, symbol),
-                rs -> rs.next() ? rs.getBigDecimal(1) : BigDecimal.ZERO);
-
-        BigDecimal equity = newCash.add(newQty.multiply(price));
-        int rowsEq = db.update(con -> {
-            var ps = con.prepareStatement("INSERT INTO equity_curve(ts,equity) VALUES (?,?)");
-            ps.setTimestamp(1, Timestamp.from(ts));
-            ps.setBigDecimal(2, equity);
-            return ps;
-        });
-        log.info("INSERTED EQUITY rows={}", rowsEq);
+        @Override
+        public void traded(Instant ts, Strategy.Signal signal, BigDecimal price) {
+            // after the order's fills: a crash before this re-trades the bar on resume instead of losing the order
+            journal.append(JournalEvent.BAR, (byte) signal.ordinal(), JournalEvent.modeCode("LIVE"), key.symbol(),
+                    key.interval(), ts.toEpochMilli(), FixedPoint.of(price), 0, 0);
+        }
+
+        @Override
+        public void equity(Instant ts, BigDecimal equity) {
+            ledger.recordEquity(ts, key.symbol(), key.interval(), equity);
+            persister.afterTick();
+        }
+    }
+
+    /** Lets the bar in flight finish before saving the live sessions' indicators for the next start. */
+    @PreDestroy
+    public void shutdown() {
+        List<TradingSession> live = sessions.values().stream()
+                .filter(s -> "LIVE".equals(s.mode) && s.isActive())
+                .toList();
+        sessions.values().forEach(TradingSession::stop);
+        scheduler.shutdown();
+        backtestExec.shutdownNow();
+        try {
+            if (scheduler.awaitTermination(2, TimeUnit.SECONDS)) warmStart.save(live);
+            else log.warn("Live bars still running at shutdown; indicators will be rebuilt on start");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler.shutdownNow();
     }
 
+    private static final String TRADE_COLUMNS = "SELECT id, run_id, ts, symbol, side, qty, price, fee, pnl FROM trades";
 
-    private BigDecimal averageEntryPrice() {
-        List<BigDecimal> prices = db.query("SELECT price FROM trades WHERE side='BUY' ORDER BY ts DESC LIMIT 10",
-                (rs, i) -> rs.getBigDecimal(1));
-        if (prices.isEmpty()) return BigDecimal.ZERO;
-        BigDecimal sum = BigDecimal.ZERO;
-        for (var p : prices) sum = sum.add(p);
-        return sum.divide(BigDecimal.valueOf(prices.size()), 8, RoundingMode.HALF_UP);
+    /** The newest trades; of one run when {@code run} is not null. */
+    public List<TradeDTO> trades(Long run) {
+        if (run != null) {
+            return db.query(TRADE_COLUMNS + " WHERE run_id=? ORDER BY ts DESC LIMIT 500", BotService::trade, run);
+        }
+        return db.query(TRADE_COLUMNS + " ORDER BY ts DESC LIMIT 500", BotService::trade);
     }
 
-    private void resetEquity() {
-        db.update("DELETE FROM equity_curve");
+    /** Trades with an id above {@code sinceId}, oldest first, at most {@value #PAGE} per call. */
+    public List<TradeDTO> tradesSince(long sinceId) {
+        return db.query(TRADE_COLUMNS + " WHERE id > ? ORDER BY id ASC LIMIT " + PAGE, BotService::trade, sinceId);
     }
 
-    private static void sleep(long ms) {
-        try {
-            Thread.sleep(ms);
-        } catch (InterruptedException ignored) {
+    private static TradeDTO trade(java.sql.ResultSet rs, int i) throws java.sql.SQLException {
+        return new TradeDTO(
+                rs.getLong(1), rs.getLong(2), rs.getTimestamp(3).toInstant(),
+                rs.getString(4), rs.getString(5),
+                rs.getBigDecimal(6), rs.getBigDecimal(7),
+                rs.getBigDecimal(8), (java.math.BigDecimal) rs.getObject(9)
+        );
+    }
+
+    /** The run to read from: {@code run} if given, else the latest on the symbol and interval, or on any interval if it is null. */
+    private long run(String symbol, String interval, Long run) {
+        return run != null ? run : runs.latest(symbol, interval);
+    }
+
+    /** {@code symbol}, else the run's own symbol, else the current one. */
+    private String symbol(String symbol, Long run) {
+        if (symbol == null && run != null) {
+            String s = runs.symbol(run);
+            if (s != null) return s;
         }
+        return key(symbol, null).symbol();
     }
 
-    public List<TradeDTO> trades() {
-        return db.query("SELECT id, ts, symbol, side, qty, price, fee, pnl FROM trades ORDER BY ts DESC LIMIT 500",
-                (rs, i) -> new TradeDTO(
-                        rs.getLong(1), rs.getTimestamp(2).toInstant(),
-                        rs.getString(3), rs.getString(4),
-                        rs.getBigDecimal(5), rs.getBigDecimal(6),
-                        rs.getBigDecimal(7), (java.math.BigDecimal) rs.getObject(8)
-                )
-        );
+    /** What the sessions run: the traded strategy, its shadows and every strategy available. */
+    public Map<String, Object> strategies() {
+        Map<String, Object> out = new java.util.LinkedHashMap<>();
+        out.put("trade", strategies.trading().name());
+        out.put("shadow", strategies.shadows().stream().map(Strategy::name).toList());
+        out.put("available", strategies.names());
+        return out;
+    }
+
+    /** The paper books of the session's shadow strategies; empty without a session. */
+    public List<ShadowSummary> shadows(String symbol, String interval) {
+        TradingSession s = session(symbol, interval);
+        if (s == null) return List.of();
+        return s.shadows.stream().map(b -> b.summary(s.run)).toList();
+    }
+
+    public List<RunDTO> runs() {
+        return runs.list();
+    }
+
+    /** The run's metrics as last persisted; the latest run on the symbol and interval when {@code run} is null. */
+    public RunSummary summary(String symbol, String interval, Long run) {
+        return runs.summary(run(symbol(symbol, run), interval, run));
+    }
+
+    public void dropRun(long run) {
+        persister.dropRun(run);
+    }
+
+    public List<EquityPoint> equity(String symbol, String interval, Long run) {
+        String sym = symbol(symbol, run);
+        return db.query("SELECT ts, equity FROM equity_curve WHERE run_id=? AND symbol=? ORDER BY ts ASC",
+                (rs, i) -> new EquityPoint(rs.getTimestamp(1).toInstant(), rs.getBigDecimal(2)),
+                run(sym, interval, run), sym);
+    }
+
+    /** Downsampled to at most {@code points} points; a null bound means the curve's own end. */
+    public List<EquityPoint> equity(String symbol, String interval, Long run, Instant from, Instant to, int points) {
+        String sym = symbol(symbol, run);
+        return curve.downsample(run(sym, interval, run), sym, from, to, points);
     }
 
-    public List<EquityPoint> equity() {
-        return db.query("SELECT ts, equity FROM equity_curve ORDER BY ts ASC",
-                (rs, i) -> new EquityPoint(rs.getTimestamp(1).toInstant(), rs.getBigDecimal(2)));
+    /** Equity points after {@code since}, oldest first, at most {@value #PAGE} per call. */
+    public List<EquityPoint> equitySince(String symbol, String interval, Long run, Instant since) {
+        String sym = symbol(symbol, run);
+        return db.query("SELECT ts, equity FROM equity_curve WHERE run_id=? AND symbol=? AND ts > ? ORDER BY ts ASC LIMIT " + PAGE,
+                (rs, i) -> new EquityPoint(rs.getTimestamp(1).toInstant(), rs.getBigDecimal(2)),
+                run(sym, interval, run), sym, java.sql.Timestamp.from(since));
     }
 
-    public java.util.Map<String, Object> portfolio() {
-        BigDecimal cash = db.queryForObject("SELECT cash_balance FROM account LIMIT 1", BigDecimal.class);
-        BigDecimal qty = db.query((con) -> con.prepareStatement("SELECT quantity FROM holdings WHERE symbol=?"),
-                ps -> ps.setString(1, symbol),
-                rs -> rs.next() ? rs.getBigDecimal(1) : BigDecimal.ZERO);
-        return java.util.Map.of("cash", cash, "positionQty", qty, "symbol", symbol);
+    public java.util.Map<String, Object> portfolio(String symbol) {
+        String sym = key(symbol, null).symbol();
+        BigDecimal cash = ledger.cash();
+        BigDecimal qty = ledger.quantity(sym);
+        java.util.Map<String, Object> out = new java.util.LinkedHashMap<>();
+        out.put("symbol", sym);
+        out.put("cash", cash);
+        out.put("positionQty", qty);
+        out.put("avgEntryPrice", ledger.averageEntryPrice(sym));
+        out.put("realizedPnl", ledger.realizedPnl(sym));
+        // marked at the last close seen by a live session on the symbol, if any
+        sessions.values().stream()
+                .filter(s -> "LIVE".equals(s.mode) && s.symbol().equals(sym) && s.indicators.count() > 0)
+                .findFirst()
+                .ifPresent(s -> out.put("unrealizedPnl",
+                        ledger.unrealizedPnl(sym, FixedPoint.toBigDecimal(s.indicators.lastClose()))));
+        return out;
     }
 }
@@ -0,0 +1,47 @@
+package com.example.auto_trading_bot.bot.service;
+
+import com.example.auto_trading_bot.market.Candle;
+import com.example.auto_trading_bot.market.MarketDataHub;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/** A live session's bars from the exchange, through the shared {@link MarketDataHub}. */
+final class ExchangeSource implements BarSource {
+
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(ExchangeSource.class);
+
+    private static final int STREAM_BUFFER = 256;
+
+    private final MarketDataHub data;
+    private final String symbol;
+    private final String interval;
+
+    ExchangeSource(MarketDataHub data, SessionKey key) {
+        this.data = data;
+        this.symbol = key.symbol();
+        this.interval = key.interval();
+    }
+
+    @Override
+    public Mono<List<Candle>> recent(int n) {
+        return data.recent(symbol, interval, n);
+    }
+
+    @Override
+    public Mono<List<Candle>> since(long fromMs, int limit) {
+        return data.since(symbol, interval, fromMs, limit);
+    }
+
+    @Override
+    public Flux<Candle> closedBars() {
+        // the exchange does not wait for a stalled session: drop its oldest bars, backfill refetches them
+        return data.closedBars(symbol, interval)
+                .onBackpressureBuffer(STREAM_BUFFER,
+                        bar -> log.warn("Dropped stream bar symbol={} interval={} ts={}", symbol, interval, bar.ts()),
+                        BufferOverflowStrategy.DROP_OLDEST);
+    }
+}
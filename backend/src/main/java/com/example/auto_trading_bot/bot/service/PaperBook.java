@@ -0,0 +1,79 @@
+package com.example.auto_trading_bot.bot.service;
+
+import com.example.auto_trading_bot.bot.Strategy;
+import com.example.auto_trading_bot.bot.StrategyParams;
+import com.example.auto_trading_bot.bot.indicator.IndicatorSet;
+import com.example.auto_trading_bot.common.FixedPoint;
+import com.example.auto_trading_bot.dto.ShadowSummary;
+import com.example.auto_trading_bot.execution.ExecutionParams;
+import com.example.auto_trading_bot.execution.ExecutionSimulator;
+import com.example.auto_trading_bot.journal.JournalEvent;
+import com.example.auto_trading_bot.portfolio.Position;
+import com.example.auto_trading_bot.portfolio.RunStats;
+
+/**
+ * A shadow strategy's own cash, position and metrics. It follows the same order rules and
+ * simulated fills as the traded strategy, on the session's shared indicators, but nothing
+ * reaches the ledger or the journal; it lasts as long as its session.
+ */
+final class PaperBook implements ExecutionSimulator.Account {
+
+    final Strategy strategy;
+    private final ExecutionSimulator execution;
+    private final Position position = new Position(Position.CostBasis.FIFO);
+    private final RunStats stats;
+    private volatile long cash;
+    private volatile Strategy.Signal last = Strategy.Signal.HOLD;
+
+    PaperBook(Strategy strategy, SessionKey key, ExecutionParams execution, long cash) {
+        this.strategy = strategy;
+        this.execution = new ExecutionSimulator(execution);
+        this.stats = new RunStats(key.symbol(), key.interval());
+        this.cash = cash;
+    }
+
+    /** Called by the session's bar thread only, after the bar was added to {@code ind}. */
+    void onBar(int bar, long open, long high, long low, long close, long volume, IndicatorSet ind, StrategyParams p) {
+        execution.onBar(bar, open, high, low, close, volume, this);
+        last = strategy.signal(ind, p);
+        if (last == Strategy.Signal.BUY && cash > FixedPoint.SCALE) {
+            long buyQty = FixedPoint.div(FixedPoint.mul(cash, FixedPoint.of(p.buyFraction())), close);
+            if (buyQty > 0) execution.submit(true, buyQty);
+        } else if (last == Strategy.Signal.SELL && position.quantity() > 0) {
+            long sellQty = FixedPoint.mul(position.quantity(), FixedPoint.of(p.sellFraction()));
+            if (sellQty > 0) execution.submit(false, sellQty);
+        }
+        stats.equity(cash + FixedPoint.mul(position.quantity(), close), position.quantity() != 0);
+    }
+
+    @Override
+    public long cash() {
+        return cash;
+    }
+
+    @Override
+    public long quantity() {
+        return position.quantity();
+    }
+
+    @Override
+    public void fill(boolean buy, long qty, long price, long fee, boolean maker) {
+        if (buy) {
+            cash -= FixedPoint.mul(qty, price) + fee;
+            position.buy(qty, price);
+            position.charge(fee);
+            stats.fill(JournalEvent.NO_PNL);
+        } else {
+            long pnl = position.sell(qty, price) - fee;
+            position.charge(fee);
+            cash += FixedPoint.mul(qty, price) - fee;
+            stats.fill(pnl);
+        }
+    }
+
+    /** Read from request threads while bars run: the figures may be one bar apart. */
+    ShadowSummary summary(long run) {
+        return new ShadowSummary(strategy.name(), last.name(), FixedPoint.toBigDecimal(cash),
+                FixedPoint.toBigDecimal(position.quantity()), stats.copy().summary(run));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.auto_trading_bot.bot.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/** Market time of a replay: stands still until the next bar closes, so runs are repeatable. */
+final class ReplayClock extends Clock {
+
+    private volatile long now;
+
+    /** Moves forward only; bars replayed twice or out of order leave it where it is. */
+    void advanceTo(long millis) {
+        if (millis > now) now = millis;
+    }
+
+    @Override
+    public long millis() {
+        return now;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(now);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    /** A view of the same replay time in {@code zone}; it moves whenever this clock does. */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return ZoneOffset.UTC.equals(zone) ? this : new Zoned(this, zone);
+    }
+
+    private static final class Zoned extends Clock {
+        private final ReplayClock source;
+        private final ZoneId zone;
+
+        Zoned(ReplayClock source, ZoneId zone) {
+            this.source = source;
+            this.zone = zone;
+        }
+
+        @Override
+        public long millis() {
+            return source.millis();
+        }
+
+        @Override
+        public Instant instant() {
+            return source.instant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return source.withZone(zone);
+        }
+    }
+}
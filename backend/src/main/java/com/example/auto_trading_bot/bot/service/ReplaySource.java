@@ -0,0 +1,54 @@
+package com.example.auto_trading_bot.bot.service;
+
+import com.example.auto_trading_bot.market.Candle;
+import com.example.auto_trading_bot.market.CandleSeries;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recorded candles served the way the exchange serves them: the warm-up ends with the bar
+ * that is "still forming", and the stream starts by closing it. Emits as fast as the
+ * subscriber requests.
+ */
+final class ReplaySource implements BarSource {
+
+    private final CandleSeries series;
+    private int start;
+
+    ReplaySource(CandleSeries series) {
+        this.series = series;
+    }
+
+    @Override
+    public Mono<List<Candle>> recent(int n) {
+        return Mono.fromSupplier(() -> {
+            int k = Math.min(n, series.size());
+            start = Math.max(0, k - 1);
+            return candles(0, k);
+        });
+    }
+
+    @Override
+    public Mono<List<Candle>> since(long fromMs, int limit) {
+        return Mono.fromSupplier(() -> {
+            int i = 0;
+            while (i < series.size() && series.ts(i) < fromMs) i++;
+            return candles(i, Math.min(series.size(), i + limit));
+        });
+    }
+
+    /** Starts where the last {@link #recent} warm-up ended, so subscribe to it after that. */
+    @Override
+    public Flux<Candle> closedBars() {
+        return Flux.defer(() -> Flux.range(start, series.size() - start).map(series::candle));
+    }
+
+    private List<Candle> candles(int from, int to) {
+        List<Candle> out = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) out.add(series.candle(i));
+        return out;
+    }
+}
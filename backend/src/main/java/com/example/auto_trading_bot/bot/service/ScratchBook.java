@@ -0,0 +1,85 @@
+package com.example.auto_trading_bot.bot.service;
+
+import com.example.auto_trading_bot.bot.Strategy;
+import com.example.auto_trading_bot.common.FixedPoint;
+import com.example.auto_trading_bot.portfolio.Position;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A replay's copy of the ledger's cash and position in one symbol. Fills change them with the
+ * ledger's own arithmetic but are only kept here: nothing is journaled or persisted, so the
+ * books a replay started from are left as they were. Used by the session's bar thread only.
+ */
+final class ScratchBook implements Book {
+
+    record Fill(Instant ts, boolean buy, BigDecimal qty, BigDecimal price, BigDecimal fee) {
+    }
+
+    private final Position position;
+    private final List<Fill> fills = new ArrayList<>();
+    private BigDecimal cash;
+    private BigDecimal equity;
+
+    /** @param position owned by the book from now on; pass a copy */
+    ScratchBook(BigDecimal cash, Position position) {
+        this.cash = cash;
+        this.position = position;
+        this.equity = cash;
+    }
+
+    @Override
+    public BigDecimal cash() {
+        return cash;
+    }
+
+    @Override
+    public BigDecimal quantity() {
+        return FixedPoint.toBigDecimal(position.quantity());
+    }
+
+    @Override
+    public void buy(Instant ts, BigDecimal qty, BigDecimal price, BigDecimal fee) {
+        long q = FixedPoint.of(qty), p = FixedPoint.of(price), f = FixedPoint.of(fee);
+        position.buy(q, p);
+        position.charge(f);
+        cash = cash.subtract(FixedPoint.toBigDecimal(q).multiply(FixedPoint.toBigDecimal(p)))
+                .subtract(FixedPoint.toBigDecimal(f))
+                .setScale(8, RoundingMode.HALF_UP);
+        fills.add(new Fill(ts, true, qty, price, fee));
+    }
+
+    @Override
+    public void sell(Instant ts, BigDecimal qty, BigDecimal price, BigDecimal fee) {
+        long q = FixedPoint.of(qty), p = FixedPoint.of(price), f = FixedPoint.of(fee);
+        position.sell(q, p);
+        position.charge(f);
+        cash = cash.add(FixedPoint.toBigDecimal(q).multiply(FixedPoint.toBigDecimal(p)))
+                .subtract(FixedPoint.toBigDecimal(f))
+                .setScale(8, RoundingMode.HALF_UP);
+        fills.add(new Fill(ts, false, qty, price, fee));
+    }
+
+    @Override
+    public void traded(Instant ts, Strategy.Signal signal, BigDecimal price) {
+    }
+
+    @Override
+    public void equity(Instant ts, BigDecimal equity) {
+        this.equity = equity;
+    }
+
+    /** The fills so far, oldest first. */
+    List<Fill> fills() {
+        return List.copyOf(fills);
+    }
+
+    /** As of the last traded bar. */
+    BigDecimal lastEquity() {
+        return equity;
+    }
+}
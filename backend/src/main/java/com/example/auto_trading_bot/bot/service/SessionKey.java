@@ -0,0 +1,14 @@
+package com.example.auto_trading_bot.bot.service;
+
+import com.example.auto_trading_bot.journal.Journal;
+
+/** A session's symbol and interval; both must fit the journal's record, which carries them. */
+public record SessionKey(
+        String symbol,
+        String interval
+) {
+    public SessionKey {
+        if (symbol.length() > Journal.MAX_SYMBOL) throw new IllegalArgumentException("symbol too long: " + symbol);
+        if (interval.length() > Journal.MAX_INTERVAL) throw new IllegalArgumentException("interval too long: " + interval);
+    }
+}
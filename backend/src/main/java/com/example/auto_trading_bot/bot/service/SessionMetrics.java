@@ -0,0 +1,34 @@
+package com.example.auto_trading_bot.bot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/** Meters of one session, bound once so the per-bar path does no tag lookups. */
+final class SessionMetrics {
+
+    final Timer tick;
+    final Timer strategy;
+    final Timer shadows;
+    final Timer decisionLag;
+    final Counter bars;
+
+    SessionMetrics(MeterRegistry registry, SessionKey key, String mode) {
+        Tags tags = Tags.of("symbol", key.symbol(), "interval", key.interval(), "mode", mode);
+        tick = Timer.builder("bot.tick")
+                .description("Signal, fill and equity bookkeeping for one closed bar")
+                .tags(tags).register(registry);
+        strategy = Timer.builder("bot.strategy.eval")
+                .tags(tags).register(registry);
+        shadows = Timer.builder("bot.shadow.tick")
+                .description("Decisions and paper fills of the shadow strategies for one closed bar")
+                .tags(tags).register(registry);
+        decisionLag = Timer.builder("bot.decision.lag")
+                .description("Bar close time to the end of its tick")
+                .tags(tags).register(registry);
+        bars = Counter.builder("bot.bars")
+                .description("Closed bars fed to the indicators")
+                .tags(tags).register(registry);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.auto_trading_bot.bot.service;
+
+import com.example.auto_trading_bot.bot.indicator.IndicatorSet;
+import com.example.auto_trading_bot.dto.BotStatus;
+import com.example.auto_trading_bot.execution.ExecutionSimulator;
+import reactor.core.Disposable;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * State and lifecycle of one symbol/interval. Live sessions never own a thread: they hold a
+ * subscription to the bar-close stream whose events run on the shared scheduler.
+ */
+final class TradingSession {
+
+    final SessionKey key;
+    final String mode;
+    final IndicatorSet indicators;
+    final SessionMetrics metrics;
+    final Clock clock;
+    final ExecutionSimulator execution;
+    /** Strategies paper-trading on {@link #indicators} next to the traded one. */
+    final List<PaperBook> shadows;
+    /** What the traded strategy settles against; null for BACKTEST, which trades off the books. */
+    final Book book;
+    int bars;
+    volatile long run;
+    volatile Instant lastProcessedBarTs;
+
+    private volatile String status = "RUNNING";
+    private Disposable stream;
+
+    TradingSession(SessionKey key, String mode, IndicatorSet indicators, SessionMetrics metrics, Clock clock,
+                   ExecutionSimulator execution, List<PaperBook> shadows, Book book) {
+        this.key = key;
+        this.mode = mode;
+        this.indicators = indicators;
+        this.metrics = metrics;
+        this.clock = clock;
+        this.execution = execution;
+        this.shadows = shadows;
+        this.book = book;
+    }
+
+    String symbol() {
+        return key.symbol();
+    }
+
+    String interval() {
+        return key.interval();
+    }
+
+    String status() {
+        return status;
+    }
+
+    boolean isRunning() {
+        return "RUNNING".equals(status);
+    }
+
+    boolean isActive() {
+        return "RUNNING".equals(status) || "PAUSED".equals(status);
+    }
+
+    BotStatus toStatus() {
+        return new BotStatus(mode, status, key.symbol(), key.interval());
+    }
+
+    synchronized void attach(Disposable d) {
+        if (isActive()) stream = d;
+        else d.dispose();
+    }
+
+    synchronized void pause() {
+        if (isRunning()) status = "PAUSED";
+    }
+
+    /** @return true if the session was paused and is running again */
+    synchronized boolean resume() {
+        if (!"PAUSED".equals(status)) return false;
+        status = "RUNNING";
+        notifyAll();
+        return true;
+    }
+
+    synchronized void stop() {
+        status = "IDLE";
+        if (stream != null) stream.dispose();
+        notifyAll();
+    }
+
+    synchronized void finished() {
+        status = "IDLE";
+        notifyAll();
+    }
+
+    /** Blocks while paused; @return whether the session is still running */
+    synchronized boolean awaitNotPaused() {
+        try {
+            while ("PAUSED".equals(status)) wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return isRunning();
+    }
+}
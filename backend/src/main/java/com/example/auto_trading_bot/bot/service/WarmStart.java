@@ -0,0 +1,113 @@
+package com.example.auto_trading_bot.bot.service;
+
+import com.example.auto_trading_bot.bot.indicator.IndicatorSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Indicator state of the live sessions, written next to the journal on shutdown so that a
+ * restart continues the same windows instead of rebuilding them from exchange history. The
+ * journal already restores which sessions run and the books; this only saves the warm-up.
+ * The file is read once and removed, so a later crash never restores it.
+ */
+@Component
+class WarmStart {
+
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(WarmStart.class);
+
+    private static final int MAGIC = 0x5741524D; // "WARM"
+    private static final int VERSION = 1;
+
+    private final Path file;
+    private Map<SessionKey, byte[]> saved;
+
+    WarmStart(@Value("${app.journal.dir:data/journal}") String dir) {
+        this.file = Path.of(dir).resolve("indicators.bin");
+    }
+
+    /** Called once their bars have stopped; replaces whatever was saved before. */
+    void save(Collection<TradingSession> sessions) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        int n = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (TradingSession s : sessions) {
+                if (s.indicators.count() == 0) continue;
+                ByteArrayOutputStream state = new ByteArrayOutputStream();
+                s.indicators.write(new DataOutputStream(state));
+                out.writeBoolean(true);
+                out.writeUTF(s.symbol());
+                out.writeUTF(s.interval());
+                out.writeInt(state.size());
+                state.writeTo(out);
+                n++;
+            }
+            out.writeBoolean(false);
+        } catch (IOException e) {
+            log.warn("Could not save indicator state: {}", e.toString());
+            return;
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Saved indicator state of {} sessions", n);
+        } catch (IOException e) {
+            log.warn("Could not save indicator state: {}", e.toString());
+        }
+    }
+
+    /**
+     * Restores the session's saved indicators into {@code into}, a fresh set with the
+     * strategy's indicators registered. False if nothing usable was saved for it.
+     */
+    synchronized boolean restore(SessionKey key, IndicatorSet into) {
+        if (saved == null) saved = load();
+        byte[] state = saved.remove(key);
+        if (state == null) return false;
+        try {
+            return into.read(new DataInputStream(new ByteArrayInputStream(state)));
+        } catch (IOException e) {
+            log.warn("Unreadable indicator state for {}: {}", key, e.toString());
+            return false;
+        }
+    }
+
+    private Map<SessionKey, byte[]> load() {
+        Map<SessionKey, byte[]> out = new HashMap<>();
+        if (!Files.exists(file)) return out;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return out;
+            while (in.readBoolean()) {
+                SessionKey key = new SessionKey(in.readUTF(), in.readUTF());
+                byte[] state = new byte[in.readInt()];
+                in.readFully(state);
+                out.put(key, state);
+            }
+        } catch (IOException e) {
+            log.warn("Skipping unreadable indicator state: {}", e.toString());
+            out.clear();
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not remove indicator state: {}", e.toString());
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.auto_trading_bot.common;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Prices and quantities as longs scaled by 10^8, matching the NUMERIC(18,8) columns.
+ */
+public final class FixedPoint {
+
+    public static final int DECIMALS = 8;
+    public static final long SCALE = 100_000_000L;
+
+    private FixedPoint() {
+    }
+
+    public static long of(BigDecimal v) {
+        return v.setScale(DECIMALS, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static long of(long units) {
+        return units * SCALE;
+    }
+
+    public static BigDecimal toBigDecimal(long v) {
+        return BigDecimal.valueOf(v, DECIMALS);
+    }
+
+    /** Appends {@code v} as a plain decimal with all 8 places, the way Postgres reads a NUMERIC. */
+    public static StringBuilder append(StringBuilder out, long v) {
+        if (v == Long.MIN_VALUE) return out.append(toBigDecimal(v).toPlainString());
+        if (v < 0) {
+            out.append('-');
+            v = -v;
+        }
+        out.append(v / SCALE).append('.');
+        long frac = v % SCALE;
+        for (long d = SCALE / 10; d > frac && d > 1; d /= 10) out.append('0');
+        return out.append(frac);
+    }
+
+    public static double toDouble(long v) {
+        return v / (double) SCALE;
+    }
+
+    public static long fromDouble(double v) {
+        return Math.round(v * SCALE);
+    }
+
+    /** a * b, truncated toward zero; exact for non-negative operands without 128-bit math. */
+    public static long mul(long a, long b) {
+        long hi = Math.multiplyHigh(a, b);
+        long lo = a * b;
+        if ((hi == 0 && lo >= 0) || (hi == -1 && lo < 0)) return lo / SCALE;
+        boolean neg = (a < 0) != (b < 0);
+        a = Math.abs(a);
+        b = Math.abs(b);
+        long a1 = a / SCALE, a0 = a % SCALE;
+        long b1 = b / SCALE, b0 = b % SCALE;
+        long r = Math.multiplyExact(Math.multiplyExact(a1, b1), SCALE)
+                + a1 * b0 + a0 * b1 + (a0 * b0) / SCALE;
+        return neg ? -r : r;
+    }
+
+    /** a / b with 8 decimals, rounded down like {@code divide(b, 8, RoundingMode.DOWN)}. */
+    public static long div(long a, long b) {
+        if (b == 0) throw new ArithmeticException("division by zero");
+        boolean neg = (a < 0) != (b < 0);
+        a = Math.abs(a);
+        b = Math.abs(b);
+        if (b > Long.MAX_VALUE / 10) {
+            BigDecimal slow = BigDecimal.valueOf(a).divide(BigDecimal.valueOf(b), DECIMALS, RoundingMode.DOWN);
+            return neg ? -of(slow) : of(slow);
+        }
+        long q = a / b;
+        long r = a % b;
+        for (int i = 0; i < DECIMALS; i++) {
+            r *= 10;
+            q = q * 10 + r / b;
+            r %= b;
+        }
+        return neg ? -q : q;
+    }
+}
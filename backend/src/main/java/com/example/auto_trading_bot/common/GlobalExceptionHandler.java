@@ -1,5 +1,6 @@
 package com.example.auto_trading_bot.common;
 
+import com.example.auto_trading_bot.market.MarketDataException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
@@ -38,6 +39,13 @@ public class GlobalExceptionHandler {
                 .body(body(HttpStatus.BAD_REQUEST.value(), ex.getMessage()));
     }
 
+    @ExceptionHandler(MarketDataException.class)
+    public ResponseEntity<Map<String,Object>> handleMarketData(MarketDataException ex){
+        log.warn("Market data unavailable: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                .body(body(HttpStatus.BAD_GATEWAY.value(), "Market data unavailable"));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String,Object>> handleAny(Exception ex){
         log.error("Unhandled exception", ex);
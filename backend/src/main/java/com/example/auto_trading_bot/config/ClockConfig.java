@@ -0,0 +1,15 @@
+package com.example.auto_trading_bot.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+public class ClockConfig {
+    /** Wall time for live sessions and candle ranges; tests and replays substitute their own. */
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.auto_trading_bot.config;
+
+import com.example.auto_trading_bot.execution.ExecutionParams;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+
+@Configuration
+public class ExecutionConfig {
+    /** Fill rules shared by live, replay and backtest sessions; unset keys fill naively at the close. */
+    @Bean
+    public ExecutionParams executionParams(@Value("${app.execution.orderType:MARKET}") String orderType,
+                                           @Value("${app.execution.makerFee:0}") BigDecimal makerFee,
+                                           @Value("${app.execution.takerFee:0}") BigDecimal takerFee,
+                                           @Value("${app.execution.participation:0}") BigDecimal participation,
+                                           @Value("${app.execution.impact:0}") BigDecimal impact,
+                                           @Value("${app.execution.limitOffset:0}") BigDecimal limitOffset,
+                                           @Value("${app.execution.limitTtlBars:1}") int limitTtlBars) {
+        return new ExecutionParams(orderType, makerFee, takerFee, participation, impact, limitOffset, limitTtlBars);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.auto_trading_bot.config;
+
+import com.example.auto_trading_bot.bot.service.BotService;
+import com.example.auto_trading_bot.dashboard.DashboardFeed;
+import com.example.auto_trading_bot.journal.Journal;
+import com.example.auto_trading_bot.market.MarketDataHub;
+import com.example.auto_trading_bot.portfolio.Ledger;
+import com.example.auto_trading_bot.portfolio.LedgerPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * What starts with the application: the trading path is created eagerly so a restart resumes
+ * sessions as soon as the context is up, everything else on first use
+ * ({@code spring.main.lazy-initialization}); and {@code schema.sql} only runs when it changed
+ * since it last ran against the database.
+ */
+@Configuration
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+public class StartupConfig {
+
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(StartupConfig.class);
+
+    @Bean
+    public static LazyInitializationExcludeFilter tradingPath() {
+        return LazyInitializationExcludeFilter.forBeanTypes(SqlDataSourceScriptDatabaseInitializer.class,
+                Journal.class, Ledger.class, LedgerPersister.class, MarketDataHub.class, DashboardFeed.class, BotService.class);
+    }
+
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(
+            DataSource dataSource, SqlInitializationProperties properties,
+            @Value("${app.schema.skipUnchanged:true}") boolean skipUnchanged) {
+        return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties) {
+            @Override
+            public boolean initializeDatabase() {
+                if (properties.getMode() == DatabaseInitializationMode.NEVER) return false;
+                JdbcTemplate db = new JdbcTemplate(dataSource);
+                String hash = schemaHash();
+                if (skipUnchanged && hash.equals(applied(db))) {
+                    log.info("schema.sql unchanged since it last ran, skipping it");
+                    return false;
+                }
+                boolean ran = super.initializeDatabase();
+                if (ran) {
+                    db.update("INSERT INTO schema_version(id, hash) VALUES (1, ?) "
+                            + "ON CONFLICT (id) DO UPDATE SET hash=EXCLUDED.hash, applied_at=NOW()", hash);
+                }
+                return ran;
+            }
+        };
+    }
+
+    private static String applied(JdbcTemplate db) {
+        if (!Boolean.TRUE.equals(db.queryForObject("SELECT to_regclass('schema_version') IS NOT NULL", Boolean.class))) {
+            return null;
+        }
+        return db.query("SELECT hash FROM schema_version WHERE id=1", rs -> rs.next() ? rs.getString(1) : null);
+    }
+
+    private static String schemaHash() {
+        try (InputStream in = new ClassPathResource("schema.sql").getInputStream()) {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(in.readAllBytes()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.auto_trading_bot.dashboard;
+
+import com.example.auto_trading_bot.dto.BotStatus;
+import com.example.auto_trading_bot.dto.RunSummary;
+import com.example.auto_trading_bot.dto.TradeDTO;
+import com.example.auto_trading_bot.portfolio.EquitySample;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-sent events for open dashboards: trades, equity points and the metrics of their runs
+ * once they are persisted, and session status changes. Each event is serialized once, however
+ * many clients listen.
+ */
+@Component
+public class DashboardFeed {
+
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(DashboardFeed.class);
+
+    private static final long TIMEOUT_MS = 30 * 60_000L;
+
+    private final ObjectMapper json;
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService exec =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("dashboard-push-"));
+
+    public DashboardFeed(ObjectMapper json) {
+        this.json = json;
+        exec.scheduleWithFixedDelay(() -> send(SseEmitter.event().comment("ping").build()), 20, 20, TimeUnit.SECONDS);
+    }
+
+    /** Times out after 30 minutes; EventSource reconnects on its own. */
+    public SseEmitter subscribe() {
+        SseEmitter e = new SseEmitter(TIMEOUT_MS);
+        e.onCompletion(() -> emitters.remove(e));
+        e.onTimeout(e::complete);
+        e.onError(t -> emitters.remove(e));
+        emitters.add(e);
+        return e;
+    }
+
+    public int subscribers() {
+        return emitters.size();
+    }
+
+    public void trades(List<TradeDTO> trades) {
+        if (!trades.isEmpty()) publish("trades", trades);
+    }
+
+    public void equity(List<EquitySample> points) {
+        if (!points.isEmpty()) publish("equity", points);
+    }
+
+    public void metrics(List<RunSummary> runs) {
+        if (!runs.isEmpty()) publish("metrics", runs);
+    }
+
+    public void status(BotStatus status) {
+        publish("status", status);
+    }
+
+    private void publish(String name, Object payload) {
+        if (emitters.isEmpty()) return;
+        String data;
+        try {
+            data = json.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Dashboard event {} not serializable: {}", name, e.toString());
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> frame =
+                SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON).build();
+        exec.execute(() -> send(frame));
+    }
+
+    private void send(Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        for (SseEmitter e : emitters) {
+            try {
+                e.send(frame);
+            } catch (Exception ex) {
+                emitters.remove(e);
+                e.completeWithError(ex);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        exec.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.auto_trading_bot.dto;
+
+import java.time.Instant;
+
+public record RunDTO(
+        long id,
+        String symbol,
+        String interval,
+        String mode,
+        Instant startedAt,
+        Instant endedAt
+) {}
@@ -0,0 +1,23 @@
+package com.example.auto_trading_bot.dto;
+
+import java.math.BigDecimal;
+
+/** Percentages are of the run's first equity point or its running peak; null where not yet defined. */
+public record RunSummary(
+        long runId,
+        String symbol,
+        String interval,
+        long points,
+        BigDecimal startEquity,
+        BigDecimal equity,
+        BigDecimal returnPct,
+        BigDecimal maxDrawdownPct,
+        BigDecimal drawdownPct,
+        BigDecimal sharpe,
+        long fills,
+        long wins,
+        long losses,
+        BigDecimal winRatePct,
+        BigDecimal profitFactor,
+        BigDecimal exposurePct
+) {}
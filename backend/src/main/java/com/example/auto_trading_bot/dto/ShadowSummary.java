@@ -0,0 +1,12 @@
+package com.example.auto_trading_bot.dto;
+
+import java.math.BigDecimal;
+
+/** A shadow strategy's paper books in a session; {@code metrics.runId} is the run it shadows. */
+public record ShadowSummary(
+        String strategy,
+        String lastSignal,
+        BigDecimal cash,
+        BigDecimal positionQty,
+        RunSummary metrics
+) {}
@@ -0,0 +1,28 @@
+package com.example.auto_trading_bot.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public record SweepRange(
+        BigDecimal from,
+        BigDecimal to,
+        BigDecimal step
+) {
+    private static final int MAX_VALUES = 10_000;
+
+    public List<BigDecimal> values() {
+        if (from == null) throw new IllegalArgumentException("range needs 'from'");
+        BigDecimal end = to == null ? from : to;
+        if (end.compareTo(from) < 0) throw new IllegalArgumentException("range 'to' is below 'from'");
+        if (end.compareTo(from) > 0 && (step == null || step.signum() <= 0)) {
+            throw new IllegalArgumentException("range needs a positive 'step'");
+        }
+        List<BigDecimal> out = new ArrayList<>();
+        for (BigDecimal v = from; v.compareTo(end) <= 0; v = v.add(step == null ? BigDecimal.ONE : step)) {
+            out.add(v);
+            if (out.size() > MAX_VALUES) throw new IllegalArgumentException("range has more than " + MAX_VALUES + " values");
+        }
+        return out;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.auto_trading_bot.dto;
+
+import java.math.BigDecimal;
+
+public record SweepRequest(
+        String symbol,
+        String interval,
+        Integer bars,
+        BigDecimal initialCash,
+        SweepRange window,
+        SweepRange buyFraction,
+        SweepRange sellFraction
+) {}
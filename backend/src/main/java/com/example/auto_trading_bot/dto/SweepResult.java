@@ -0,0 +1,14 @@
+package com.example.auto_trading_bot.dto;
+
+import java.math.BigDecimal;
+
+public record SweepResult(
+        int rank,
+        int window,
+        BigDecimal buyFraction,
+        BigDecimal sellFraction,
+        BigDecimal finalEquity,
+        BigDecimal returnPct,
+        BigDecimal maxDrawdownPct,
+        int trades
+) {}
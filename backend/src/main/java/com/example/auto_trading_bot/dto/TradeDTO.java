@@ -5,6 +5,7 @@ import java.time.Instant;
 
 public record TradeDTO(
         long id,
+        long runId,
         Instant ts,
         String symbol,
         String side,
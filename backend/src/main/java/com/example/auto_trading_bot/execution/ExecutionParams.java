@@ -0,0 +1,42 @@
+package com.example.auto_trading_bot.execution;
+
+import java.math.BigDecimal;
+
+/**
+ * How simulated orders fill. Fees, participation, impact and offsets are fractions:
+ * {@code 0.001} is 10 bps.
+ *
+ * @param orderType     MARKET fills on the signal bar; LIMIT rests {@code limitOffset} away from the close
+ * @param participation share of a bar's volume our fills may take; 0 means unlimited
+ * @param impact        how far toward the bar's high (buys) or low (sells) taking the whole share moves the price
+ * @param limitTtlBars  bars a limit order rests before it is cancelled
+ */
+public record ExecutionParams(
+        String orderType,
+        BigDecimal makerFee,
+        BigDecimal takerFee,
+        BigDecimal participation,
+        BigDecimal impact,
+        BigDecimal limitOffset,
+        int limitTtlBars
+) {
+    /** Everything fills at the close, for free: the rule before execution was simulated. */
+    public static final ExecutionParams NAIVE = new ExecutionParams("MARKET",
+            BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 1);
+
+    public ExecutionParams {
+        if (!"MARKET".equals(orderType) && !"LIMIT".equals(orderType)) {
+            throw new IllegalArgumentException("orderType must be MARKET or LIMIT");
+        }
+        for (BigDecimal f : new BigDecimal[]{makerFee, takerFee, participation, impact, limitOffset}) {
+            if (f.signum() < 0 || f.compareTo(BigDecimal.ONE) > 0) {
+                throw new IllegalArgumentException("execution fractions must be in [0, 1]");
+            }
+        }
+        if (limitTtlBars < 1) throw new IllegalArgumentException("limitTtlBars must be >= 1");
+    }
+
+    public boolean limitOrders() {
+        return "LIMIT".equals(orderType);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.auto_trading_bot.execution;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+
+/**
+ * Turns one session's orders into fills, bar by bar, on fixed-point longs.
+ * <p>
+ * Market orders take the signal bar's liquidity at its close, priced toward the bar's high
+ * (buys) or low (sells) by the share of the liquidity they take; what the bar cannot absorb
+ * carries to the next bars at their open. Limit orders rest in an {@link OrderBook} from the
+ * next bar on and fill at their own price once a bar trades through it, as maker. Every bar
+ * offers {@code participation} of its volume per side, shared by all fills on it, so large
+ * orders fill partially. A new order replaces the side's resting or carried one. Not
+ * thread-safe.
+ */
+public final class ExecutionSimulator {
+
+    /** Cash and position the fills settle against. */
+    public interface Account {
+        long cash();
+
+        long quantity();
+
+        void fill(boolean buy, long qty, long price, long fee, boolean maker);
+    }
+
+    private static final int LEVELS = 1 << 16;
+    private static final int NONE = -1;
+
+    private final long makerFee, takerFee, participation, impact, limitOffset;
+    private final boolean limits;
+    private final int ttl;
+
+    private OrderBook book;
+    private int restingBuy = NONE, restingSell = NONE;
+    private int buyExpires, sellExpires;
+    private long carriedBuy, carriedSell;
+
+    private int bar = -1;
+    private long high, low, close, liquidity, buyLeft, sellLeft;
+    private Account account;
+    private final OrderBook.Fills bookFills = this::bookFill;
+
+    public ExecutionSimulator(ExecutionParams p) {
+        makerFee = FixedPoint.of(p.makerFee());
+        takerFee = FixedPoint.of(p.takerFee());
+        participation = FixedPoint.of(p.participation());
+        impact = FixedPoint.of(p.impact());
+        limitOffset = FixedPoint.of(p.limitOffset());
+        limits = p.limitOrders();
+        ttl = p.limitTtlBars();
+    }
+
+    /**
+     * Opens bar {@code i}: limits it trades through fill, then market orders carried from
+     * earlier bars. Orders submitted afterwards are on this bar.
+     */
+    public void onBar(int i, long open, long high, long low, long close, long volume, Account account) {
+        this.bar = i;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.account = account;
+        liquidity = participation == 0 ? Long.MAX_VALUE : FixedPoint.mul(volume, participation);
+        buyLeft = liquidity;
+        sellLeft = liquidity;
+        if (book != null && book.size() > 0) {
+            if (restingBuy != NONE && i > buyExpires) restingBuy = cancel(restingBuy);
+            if (restingSell != NONE && i > sellExpires) restingSell = cancel(restingSell);
+            book.match(low, high, buyLeft, sellLeft, bookFills);
+            if (!book.isLive(restingBuy)) restingBuy = NONE;
+            if (!book.isLive(restingSell)) restingSell = NONE;
+        }
+        if (carriedBuy > 0) carriedBuy = take(true, carriedBuy, open);
+        if (carriedSell > 0) carriedSell = take(false, carriedSell, open);
+    }
+
+    /** An order of the configured type on the current bar. */
+    public void submit(boolean buy, long qty) {
+        if (!limits) {
+            market(buy, qty);
+        } else {
+            long offset = FixedPoint.mul(close, limitOffset);
+            limit(buy, buy ? close - offset : close + offset, qty);
+        }
+    }
+
+    public void market(boolean buy, long qty) {
+        if (buy) carriedBuy = take(true, qty, close);
+        else carriedSell = take(false, qty, close);
+    }
+
+    /** Rests from the next bar on for the configured number of bars. */
+    public void limit(boolean buy, long price, long qty) {
+        if (qty <= 0 || price <= 0) return;
+        if (book == null) book = new OrderBook(OrderBook.tickFor(price), LEVELS, price);
+        if (buy) {
+            if (restingBuy != NONE) book.cancel(restingBuy);
+            restingBuy = book.add(true, book.align(true, price), qty);
+            buyExpires = bar + ttl;
+        } else {
+            if (restingSell != NONE) book.cancel(restingSell);
+            restingSell = book.add(false, book.align(false, price), qty);
+            sellExpires = bar + ttl;
+        }
+    }
+
+    /** Resting and carried quantity per side, buys first. */
+    public long[] pending() {
+        return new long[]{
+                carriedBuy + (book == null ? 0 : book.remaining(restingBuy)),
+                carriedSell + (book == null ? 0 : book.remaining(restingSell))};
+    }
+
+    private int cancel(int order) {
+        book.cancel(order);
+        return NONE;
+    }
+
+    /** @return what is left to carry: only a shortfall of liquidity carries, one of cash or position does not */
+    private long take(boolean buy, long qty, long ref) {
+        long q = Math.min(qty, buy ? buyLeft : sellLeft);
+        if (q <= 0) return qty;
+        long price = impactPrice(buy, q, ref);
+        long n = settle(buy, q, price, takerFee, false);
+        return n == q ? qty - q : 0;
+    }
+
+    private long bookFill(int order, boolean buy, long qty, long price) {
+        return settle(buy, qty, price, makerFee, true);
+    }
+
+    private long settle(boolean buy, long qty, long price, long feeRate, boolean maker) {
+        long n = buy ? Math.min(qty, affordable(price, feeRate)) : Math.min(qty, account.quantity());
+        if (n <= 0) return 0;
+        long fee = FixedPoint.mul(FixedPoint.mul(n, price), feeRate);
+        account.fill(buy, n, price, fee, maker);
+        if (buy) buyLeft -= n;
+        else sellLeft -= n;
+        return n;
+    }
+
+    private long affordable(long price, long feeRate) {
+        long cash = account.cash();
+        if (cash <= 0) return 0;
+        long n = FixedPoint.div(cash, price + FixedPoint.mul(price, feeRate));
+        // the fee rounds separately, so step back if the pair overshoots by a unit
+        while (n > 0 && FixedPoint.mul(n, price) + FixedPoint.mul(FixedPoint.mul(n, price), feeRate) > cash) n--;
+        return n;
+    }
+
+    private long impactPrice(boolean buy, long q, long ref) {
+        if (impact == 0 || liquidity == Long.MAX_VALUE || liquidity == 0) return ref;
+        long share = FixedPoint.div(q, liquidity);
+        long room = buy ? Math.max(0, high - ref) : Math.max(0, ref - low);
+        long move = FixedPoint.mul(FixedPoint.mul(room, impact), share);
+        return buy ? ref + move : ref - move;
+    }
+}
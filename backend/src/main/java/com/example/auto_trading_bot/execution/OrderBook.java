@@ -0,0 +1,211 @@
+package com.example.auto_trading_bot.execution;
+
+import java.util.Arrays;
+
+/**
+ * Resting simulated limit orders on fixed-point longs. Price levels are array slots of one
+ * tick each in a window around the market, every level a FIFO list threaded through a pooled
+ * order table, so add, cancel and each fill are O(1) and nothing allocates once the pool has
+ * grown. The window re-centres when the market leaves it. Not thread-safe.
+ */
+public final class OrderBook {
+
+    /** Receives fills from {@link #match}. */
+    public interface Fills {
+        /** @return how much of {@code qty} was taken; less cancels the rest of the order */
+        long fill(int order, boolean buy, long qty, long price);
+    }
+
+    private static final int NONE = -1;
+
+    private final long tick;
+    private final int levels;
+    private long base;
+
+    private final int[] bidHead, bidTail, askHead, askTail;
+    private int bestBid = NONE;
+    private int bestAsk;
+
+    private long[] price = new long[64];
+    private long[] qty = new long[64];
+    private boolean[] buy = new boolean[64];
+    private int[] next = new int[64];
+    private int[] prev = new int[64];
+    private boolean[] live = new boolean[64];
+    private int used;
+    private int free = NONE;
+    private int bids, asks;
+
+    /** @param levels price slots in the window, shared by both sides */
+    public OrderBook(long tick, int levels, long midPrice) {
+        if (tick <= 0 || levels < 2) throw new IllegalArgumentException("bad order book geometry");
+        this.tick = tick;
+        this.levels = levels;
+        bidHead = new int[levels];
+        bidTail = new int[levels];
+        askHead = new int[levels];
+        askTail = new int[levels];
+        centre(midPrice);
+    }
+
+    /** A tick of roughly five significant digits of {@code price}, at least one fixed-point unit. */
+    public static long tickFor(long price) {
+        long t = 1;
+        while (t * 100_000 <= price / 10) t *= 10;
+        return t;
+    }
+
+    public long tick() { return tick; }
+    public int size() { return bids + asks; }
+    public boolean isLive(int order) { return order >= 0 && order < used && live[order]; }
+    public long remaining(int order) { return isLive(order) ? qty[order] : 0; }
+
+    /** Price aligned to the tick: down for buys, up for sells, so rounding never makes an order more aggressive. */
+    public long align(boolean isBuy, long p) {
+        long down = Math.floorDiv(p, tick) * tick;
+        return isBuy || down == p ? down : down + tick;
+    }
+
+    /** @param p a multiple of the tick, see {@link #align} */
+    public int add(boolean isBuy, long p, long q) {
+        if (q <= 0) throw new IllegalArgumentException("order quantity must be positive");
+        if (p % tick != 0) throw new IllegalArgumentException("price " + p + " is not on the tick " + tick);
+        int l = level(p);
+        if (l < 0 || l >= levels) {
+            centre(p);
+            l = level(p);
+        }
+        int o = allocate();
+        price[o] = p;
+        qty[o] = q;
+        buy[o] = isBuy;
+        live[o] = true;
+        link(o, l);
+        return o;
+    }
+
+    public void cancel(int order) {
+        if (isLive(order)) unlink(order);
+    }
+
+    /**
+     * Fills bids priced at or above {@code low} and asks at or below {@code high}, best price
+     * and then oldest first, each side up to its liquidity. Orders fill at their own price.
+     */
+    public void match(long low, long high, long buyLiquidity, long sellLiquidity, Fills sink) {
+        long left = buyLiquidity;
+        while (left > 0 && bestBid != NONE && priceOf(bestBid) >= low) {
+            int o = bidHead[bestBid];
+            left -= take(o, left, sink);
+        }
+        left = sellLiquidity;
+        while (left > 0 && bestAsk != levels && priceOf(bestAsk) <= high) {
+            int o = askHead[bestAsk];
+            left -= take(o, left, sink);
+        }
+    }
+
+    private long take(int o, long left, Fills sink) {
+        long q = Math.min(qty[o], left);
+        long taken = Math.min(q, sink.fill(o, buy[o], q, price[o]));
+        if (taken < q || taken == qty[o]) unlink(o);
+        else qty[o] -= taken;
+        return Math.max(taken, 0);
+    }
+
+    private long priceOf(int l) {
+        return (base + l) * tick;
+    }
+
+    private int level(long p) {
+        long l = p / tick - base;
+        return l < 0 || l >= levels ? -1 : (int) l;
+    }
+
+    private int allocate() {
+        if (free != NONE) {
+            int o = free;
+            free = next[o];
+            return o;
+        }
+        if (used == price.length) {
+            int n = used * 2;
+            price = Arrays.copyOf(price, n);
+            qty = Arrays.copyOf(qty, n);
+            buy = Arrays.copyOf(buy, n);
+            next = Arrays.copyOf(next, n);
+            prev = Arrays.copyOf(prev, n);
+            live = Arrays.copyOf(live, n);
+        }
+        return used++;
+    }
+
+    private void unlink(int o) {
+        int l = level(price[o]);
+        int[] head = buy[o] ? bidHead : askHead, tail = buy[o] ? bidTail : askTail;
+        if (prev[o] == NONE) head[l] = next[o];
+        else next[prev[o]] = next[o];
+        if (next[o] == NONE) tail[l] = prev[o];
+        else prev[next[o]] = prev[o];
+        if (buy[o]) {
+            if (--bids == 0) bestBid = NONE;
+            else if (l == bestBid) while (bidHead[bestBid] == NONE) bestBid--;
+        } else {
+            if (--asks == 0) bestAsk = levels;
+            else if (l == bestAsk) while (askHead[bestAsk] == NONE) bestAsk++;
+        }
+        release(o);
+    }
+
+    private void link(int o, int l) {
+        int[] head = buy[o] ? bidHead : askHead, tail = buy[o] ? bidTail : askTail;
+        next[o] = NONE;
+        prev[o] = tail[l];
+        if (tail[l] == NONE) head[l] = o;
+        else next[tail[l]] = o;
+        tail[l] = o;
+        if (buy[o]) {
+            bids++;
+            if (l > bestBid) bestBid = l;
+        } else {
+            asks++;
+            if (l < bestAsk) bestAsk = l;
+        }
+    }
+
+    private void release(int o) {
+        live[o] = false;
+        next[o] = free;
+        free = o;
+    }
+
+    /**
+     * Moves the window to centre on {@code p}, keeping queue order. Orders that do not fit the
+     * new window are too far from the market to fill and are dropped.
+     */
+    private void centre(long p) {
+        int[] order = new int[bids + asks];
+        int k = 0;
+        if (order.length > 0) {
+            for (int l = 0; l < levels; l++) {
+                for (int o = bidHead[l]; o != NONE; o = next[o]) order[k++] = o;
+                for (int o = askHead[l]; o != NONE; o = next[o]) order[k++] = o;
+            }
+        }
+        base = p / tick - levels / 2;
+        Arrays.fill(bidHead, NONE);
+        Arrays.fill(bidTail, NONE);
+        Arrays.fill(askHead, NONE);
+        Arrays.fill(askTail, NONE);
+        bestBid = NONE;
+        bestAsk = levels;
+        bids = 0;
+        asks = 0;
+        for (int i = 0; i < k; i++) {
+            int o = order[i];
+            int l = level(price[o]);
+            if (l < 0) release(o);
+            else link(o, l);
+        }
+    }
+}
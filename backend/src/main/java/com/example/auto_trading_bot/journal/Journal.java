@@ -0,0 +1,442 @@
+package com.example.auto_trading_bot.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only event journal in memory-mapped segment files, plus snapshots of the state it
+ * describes.
+ * <p>
+ * Records are a fixed 88 bytes, little-endian: seq, ts, a, b, c, d (longs), type, flag, mode,
+ * symbol (length byte + 20 bytes), interval (length byte + 7 bytes) and a CRC32C of the
+ * first 80 bytes. Sequence numbers are dense, so a record is found by arithmetic, and the
+ * first record whose seq or checksum does not match is where a crashed writer stopped.
+ * Writes reach the page cache immediately and survive a process crash; {@link #force()}
+ * makes them durable against an OS crash too.
+ * <p>
+ * Segment names carry the record format ({@code 00000000000000000001.v2.log}); a directory
+ * holding segments of another format is refused rather than misread. Format 1 had 80-byte
+ * records and unversioned names.
+ */
+@Component
+public class Journal {
+
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(Journal.class);
+
+    static final int FORMAT = 2;
+    static final int RECORD = 88;
+    private static final String SEGMENT_SUFFIX = ".v" + FORMAT + ".log";
+    private static final int CHECKED = 80;
+    public static final int MAX_SYMBOL = 20;
+    public static final int MAX_INTERVAL = 7;
+    private static final int SNAPSHOT_MAGIC = 0x534E4150; // "SNAP"
+    /** 2 adds the body's length and a CRC32C of it; 1 is still read. */
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final int KEEP_SNAPSHOTS = 2;
+
+    private final Path dir;
+    private final int segmentRecords;
+
+    private final List<Long> segments = new ArrayList<>();
+    private MappedByteBuffer active;
+    private int activeCount;
+    private volatile long lastSeq;
+
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32C crc = new CRC32C();
+    private final Map<String, Snapshot.SessionState> sessions = new LinkedHashMap<>();
+    private volatile Snapshot latest;
+    private final Object snapshotLock = new Object();
+
+    public Journal(@Value("${app.journal.dir:data/journal}") String dir,
+                   @Value("${app.journal.segmentRecords:1000000}") int segmentRecords) {
+        this.dir = Path.of(dir);
+        this.segmentRecords = segmentRecords;
+    }
+
+    /** Finds the end of the log, loads the newest readable snapshot and replays session events after it. */
+    @PostConstruct
+    public synchronized void open() {
+        long t0 = System.nanoTime();
+        try {
+            Files.createDirectories(dir);
+            List<String> foreign = new ArrayList<>();
+            try (Stream<Path> files = Files.list(dir)) {
+                files.map(p -> p.getFileName().toString())
+                        .filter(n -> n.endsWith(".log"))
+                        .sorted()
+                        .forEach(n -> {
+                            if (!n.endsWith(SEGMENT_SUFFIX)) foreign.add(n);
+                            else segments.add(Long.parseLong(n.substring(0, n.length() - SEGMENT_SUFFIX.length())));
+                        });
+            }
+            if (!foreign.isEmpty()) {
+                throw new IllegalStateException("Journal " + dir + " holds segments of another format than "
+                        + FORMAT + ": " + foreign + "; project them and move them away before starting");
+            }
+            latest = readLatestSnapshot();
+            if (segments.isEmpty()) {
+                long next = latest == null ? 1 : latest.seq() + 1;
+                segments.add(next);
+            }
+            long first = segments.get(segments.size() - 1);
+            active = map(first);
+            activeCount = 0;
+            while (activeCount < segmentRecords && valid(active, activeCount, first + activeCount)) activeCount++;
+            lastSeq = first + activeCount - 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long from = 0;
+        if (latest != null) {
+            latest.sessions().forEach(s -> sessions.put(key(s.symbol(), s.interval()), s));
+            from = latest.seq();
+        }
+        long[] replayed = {0};
+        read(from, Integer.MAX_VALUE, e -> {
+            track(e.type(), e.flag(), e.mode(), e.symbol(), e.interval(), e.ts());
+            replayed[0]++;
+        });
+        log.info("Journal opened lastSeq={} snapshot={} replayed={} in {}ms", lastSeq,
+                latest == null ? "none" : latest.seq(), replayed[0], (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    public long lastSeq() {
+        return lastSeq;
+    }
+
+    public long append(byte type, byte flag, byte mode, String symbol, String interval, long ts, long a, long b, long c) {
+        return append(type, flag, mode, symbol, interval, ts, a, b, c, 0);
+    }
+
+    /** @return the sequence number of the new record */
+    public synchronized long append(byte type, byte flag, byte mode, String symbol, String interval,
+                                    long ts, long a, long b, long c, long d) {
+        if (activeCount == segmentRecords) roll();
+        long seq = lastSeq + 1;
+        ByteBuffer r = scratch.clear();
+        r.putLong(0, seq).putLong(8, ts).putLong(16, a).putLong(24, b).putLong(32, c).putLong(40, d)
+                .put(48, type).put(49, flag).put(50, mode);
+        putAscii(r, 51, symbol, MAX_SYMBOL);
+        putAscii(r, 72, interval, MAX_INTERVAL);
+        crc.reset();
+        crc.update(r.array(), 0, CHECKED);
+        r.putInt(CHECKED, (int) crc.getValue()).putInt(CHECKED + 4, 0);
+        active.put(activeCount * RECORD, r.array(), 0, RECORD);
+        activeCount++;
+        lastSeq = seq;
+        track(type, flag, mode, symbol, interval, ts);
+        return seq;
+    }
+
+    /**
+     * Hands events with {@code seq > afterSeq} to {@code sink}, at most {@code max} of them,
+     * oldest first. Events already removed by {@link #deleteBefore} are skipped.
+     *
+     * @return the seq of the last event delivered, or {@code afterSeq} if there was none
+     */
+    public long read(long afterSeq, int max, Consumer<JournalEvent> sink) {
+        List<Long> segs;
+        ByteBuffer tail;
+        long end;
+        synchronized (this) {
+            segs = new ArrayList<>(segments);
+            tail = active.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            end = lastSeq;
+        }
+        long seq = Math.max(afterSeq + 1, segs.get(0));
+        long last = afterSeq;
+        int n = 0;
+        for (int i = 0; i < segs.size() && seq <= end && n < max; i++) {
+            long first = segs.get(i);
+            long next = i + 1 < segs.size() ? segs.get(i + 1) : Long.MAX_VALUE;
+            if (seq >= next) continue;
+            ByteBuffer m = i == segs.size() - 1 ? tail : map(first).order(ByteOrder.LITTLE_ENDIAN);
+            for (; seq < next && seq <= end && n < max; seq++, n++) {
+                sink.accept(decode(m, (int) (seq - first)));
+                last = seq;
+            }
+        }
+        return last;
+    }
+
+    /** Status and last traded bar of every session the journal has seen. */
+    public synchronized List<Snapshot.SessionState> sessions() {
+        return new ArrayList<>(sessions.values());
+    }
+
+    public Snapshot latestSnapshot() {
+        return latest;
+    }
+
+    /**
+     * Pairs the caller's ledger state with the current seq and session table. Callers hold
+     * the lock under which they append ledger events, so the two agree.
+     */
+    public synchronized Snapshot capture(long cash, List<Snapshot.PositionState> positions) {
+        return new Snapshot(lastSeq, cash, positions, new ArrayList<>(sessions.values()));
+    }
+
+    /**
+     * Writes through a temp file and an atomic rename, keeping the newest two. The file and the
+     * rename are on disk when this returns, so segments the snapshot covers may be deleted.
+     * Callers on different threads are taken one at a time; a snapshot no newer than the latest
+     * written is dropped, since the latest already covers it.
+     */
+    public void write(Snapshot s) {
+        synchronized (snapshotLock) {
+            Snapshot l = latest;
+            if (l != null && s.seq() <= l.seq()) return;
+            byte[] body = snapshotBody(s);
+            CRC32C c = new CRC32C();
+            c.update(body);
+            Path f = dir.resolve(String.format("snapshot-%020d.bin", s.seq()));
+            Path tmp = f.resolveSibling(f.getFileName() + ".tmp");
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch)));
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(body.length);
+                out.write(body);
+                out.writeInt((int) c.getValue());
+                out.flush();
+                ch.force(true);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            try {
+                Files.move(tmp, f, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                forceDirectory();
+                List<Path> old = snapshotFiles();
+                for (int i = KEEP_SNAPSHOTS; i < old.size(); i++) Files.deleteIfExists(old.get(i));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            latest = s;
+        }
+    }
+
+    private static byte[] snapshotBody(Snapshot s) {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buf)) {
+            out.writeLong(s.seq());
+            out.writeLong(s.cash());
+            out.writeInt(s.positions().size());
+            for (Snapshot.PositionState p : s.positions()) {
+                out.writeUTF(p.symbol());
+                out.writeUTF(p.basis());
+                out.writeLong(p.cost());
+                out.writeLong(p.realized());
+                out.writeInt(p.lotQty().length);
+                for (int i = 0; i < p.lotQty().length; i++) {
+                    out.writeLong(p.lotQty()[i]);
+                    out.writeLong(p.lotPrice()[i]);
+                }
+            }
+            out.writeInt(s.sessions().size());
+            for (Snapshot.SessionState ss : s.sessions()) {
+                out.writeUTF(ss.symbol());
+                out.writeUTF(ss.interval());
+                out.writeUTF(ss.mode());
+                out.writeUTF(ss.status());
+                out.writeLong(ss.lastBarTs());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buf.toByteArray();
+    }
+
+    /** Removes whole segments holding only events up to {@code seq}; the active one always stays. */
+    public synchronized void deleteBefore(long seq) {
+        while (segments.size() > 1 && segments.get(1) <= seq + 1) {
+            long first = segments.remove(0);
+            try {
+                Files.deleteIfExists(segmentFile(first));
+            } catch (IOException e) {
+                log.warn("Could not delete journal segment {}: {}", first, e.toString());
+            }
+        }
+    }
+
+    public synchronized void force() {
+        active.force();
+    }
+
+    /** Makes renames in the journal directory durable; Windows cannot open a directory, and needs no such step. */
+    private void forceDirectory() throws IOException {
+        try (FileChannel d = FileChannel.open(dir, StandardOpenOption.READ)) {
+            d.force(true);
+        } catch (AccessDeniedException e) {
+            log.debug("Journal directory cannot be forced: {}", e.toString());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        force();
+    }
+
+    private void track(byte type, byte flag, byte mode, String symbol, String interval, long ts) {
+        if (type == JournalEvent.STATE) {
+            String k = key(symbol, interval);
+            Snapshot.SessionState prev = sessions.get(k);
+            sessions.put(k, new Snapshot.SessionState(symbol, interval, JournalEvent.mode(mode),
+                    JournalEvent.status(flag), prev == null ? 0 : prev.lastBarTs()));
+        } else if (type == JournalEvent.BAR) {
+            Snapshot.SessionState prev = sessions.get(key(symbol, interval));
+            if (prev != null) {
+                sessions.put(key(symbol, interval), new Snapshot.SessionState(symbol, interval,
+                        prev.mode(), prev.status(), ts));
+            }
+        }
+    }
+
+    private static String key(String symbol, String interval) {
+        return symbol + "|" + interval;
+    }
+
+    private void roll() {
+        active.force();
+        long first = lastSeq + 1;
+        segments.add(first);
+        active = map(first);
+        activeCount = 0;
+    }
+
+    private MappedByteBuffer map(long first) {
+        try (FileChannel ch = FileChannel.open(segmentFile(first), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return ch.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path segmentFile(long first) {
+        return dir.resolve(segmentName(first));
+    }
+
+    static String segmentName(long first) {
+        return String.format("%020d", first) + SEGMENT_SUFFIX;
+    }
+
+    private static boolean valid(ByteBuffer m, int i, long expectedSeq) {
+        int off = i * RECORD;
+        ByteBuffer r = m.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (r.getLong(off) != expectedSeq) return false;
+        byte[] bytes = new byte[CHECKED];
+        r.get(off, bytes);
+        CRC32C c = new CRC32C();
+        c.update(bytes);
+        return r.getInt(off + CHECKED) == (int) c.getValue();
+    }
+
+    private static JournalEvent decode(ByteBuffer m, int i) {
+        int off = i * RECORD;
+        return new JournalEvent(m.getLong(off), m.get(off + 48), m.get(off + 49), m.get(off + 50),
+                getAscii(m, off + 51), getAscii(m, off + 72),
+                m.getLong(off + 8), m.getLong(off + 16), m.getLong(off + 24), m.getLong(off + 32), m.getLong(off + 40));
+    }
+
+    private static void putAscii(ByteBuffer r, int off, String s, int max) {
+        int len = s == null ? 0 : s.length();
+        if (len > max) throw new IllegalArgumentException("journal field too long: " + s);
+        r.put(off, (byte) len);
+        for (int i = 0; i < max; i++) r.put(off + 1 + i, i < len ? (byte) s.charAt(i) : 0);
+    }
+
+    private static String getAscii(ByteBuffer m, int off) {
+        int len = m.get(off);
+        if (len == 0) return null;
+        byte[] b = new byte[len];
+        m.get(off + 1, b);
+        return new String(b, StandardCharsets.US_ASCII);
+    }
+
+    private List<Path> snapshotFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().matches("snapshot-\\d+\\.bin"))
+                    .sorted((x, y) -> y.getFileName().compareTo(x.getFileName()))
+                    .toList();
+        }
+    }
+
+    /** The newest snapshot that reads back whole; older ones stand in for a torn or corrupt one. */
+    private Snapshot readLatestSnapshot() throws IOException {
+        for (Path f : snapshotFiles()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(f)))) {
+                if (in.readInt() != SNAPSHOT_MAGIC) continue;
+                int version = in.readInt();
+                if (version == 1) return readSnapshot(in); // unchecked, from before the checksum
+                if (version != SNAPSHOT_VERSION) continue;
+                int len = in.readInt();
+                if (len < 0 || len > Files.size(f)) throw new IOException("bad length " + len);
+                byte[] body = new byte[len];
+                in.readFully(body);
+                CRC32C c = new CRC32C();
+                c.update(body);
+                if (in.readInt() != (int) c.getValue()) throw new IOException("checksum mismatch");
+                return readSnapshot(new DataInputStream(new ByteArrayInputStream(body)));
+            } catch (IOException e) {
+                log.warn("Skipping unreadable snapshot {}: {}", f.getFileName(), e.toString());
+            }
+        }
+        return null;
+    }
+
+    private static Snapshot readSnapshot(DataInputStream in) throws IOException {
+        long seq = in.readLong();
+        long cash = in.readLong();
+        List<Snapshot.PositionState> positions = new ArrayList<>();
+        for (int n = in.readInt(); n > 0; n--) {
+            String symbol = in.readUTF();
+            String basis = in.readUTF();
+            long cost = in.readLong();
+            long realized = in.readLong();
+            int lots = in.readInt();
+            long[] qty = new long[lots], price = new long[lots];
+            for (int i = 0; i < lots; i++) {
+                qty[i] = in.readLong();
+                price[i] = in.readLong();
+            }
+            positions.add(new Snapshot.PositionState(symbol, basis, cost, realized, qty, price));
+        }
+        List<Snapshot.SessionState> ss = new ArrayList<>();
+        for (int n = in.readInt(); n > 0; n--) {
+            ss.add(new Snapshot.SessionState(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readLong()));
+        }
+        return new Snapshot(seq, cash, positions, ss);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.auto_trading_bot.journal;
+
+/**
+ * One journal record. What {@code a} to {@code d} and {@code flag} hold depends on
+ * the type; amounts are fixed-point longs like everywhere else.
+ */
+public record JournalEvent(
+        long seq,
+        byte type,
+        byte flag,
+        byte mode,
+        String symbol,
+        String interval,
+        long ts,
+        long a,
+        long b,
+        long c,
+        long d
+) {
+
+    /** A closed bar a session traded on: a = close, flag = signal ordinal. */
+    public static final byte BAR = 1;
+    /**
+     * A ledger fill: a = qty, b = price, c = pnl net of the fee or {@link #NO_PNL}, d = fee, flag = {@link #BUY} or
+     * {@link #SELL}. The interval is the trading session's, and with the symbol picks the run.
+     */
+    public static final byte FILL = 2;
+    /** An equity point: a = equity, b = the position held in the symbol; symbol and interval pick the run. */
+    public static final byte EQUITY = 3;
+    /** A run starts on the symbol and interval, with this seq as its id: later fills and equity points on them belong to it. */
+    public static final byte RUN = 4;
+    /** A session changed status: mode and flag = status code. */
+    public static final byte STATE = 5;
+    /** The books changed without journaled fills, as a folded backtest does; the snapshot written next covers it. */
+    public static final byte BOOKS = 6;
+
+    public static final byte BUY = 0;
+    public static final byte SELL = 1;
+    public static final long NO_PNL = Long.MIN_VALUE;
+
+    // codes are stored, so new modes go at the end
+    private static final String[] MODES = {"BACKTEST", "LIVE", "REPLAY"};
+    private static final String[] STATUSES = {"IDLE", "RUNNING", "PAUSED"};
+
+    public static byte modeCode(String mode) {
+        return code(MODES, mode);
+    }
+
+    public static String mode(byte code) {
+        return MODES[code];
+    }
+
+    public static byte statusCode(String status) {
+        return code(STATUSES, status);
+    }
+
+    public static String status(byte code) {
+        return STATUSES[code];
+    }
+
+    private static byte code(String[] names, String name) {
+        for (byte i = 0; i < names.length; i++) if (names[i].equals(name)) return i;
+        throw new IllegalArgumentException("unknown journal code " + name);
+    }
+}
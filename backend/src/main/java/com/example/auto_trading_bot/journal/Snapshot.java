@@ -0,0 +1,13 @@
+package com.example.auto_trading_bot.journal;
+
+import java.util.List;
+
+/** Ledger and session state as of journal sequence {@code seq}; replay continues after it. */
+public record Snapshot(long seq, long cash, List<PositionState> positions, List<SessionState> sessions) {
+
+    public record PositionState(String symbol, String basis, long cost, long realized, long[] lotQty, long[] lotPrice) {
+    }
+
+    public record SessionState(String symbol, String interval, String mode, String status, long lastBarTs) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.auto_trading_bot.market;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import org.springframework.web.reactive.socket.client.WebSocketClient;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Kline stream over the exchange WebSocket ({@code <streamUrl>/ws/<symbol>@kline_<interval>}).
+ * Point {@code app.exchange.streamUrl} at a local server to replace the exchange in tests.
+ */
+@Component
+@ConditionalOnProperty(name = "app.exchange.stream", havingValue = "websocket", matchIfMissing = true)
+public class BinanceKlineStream implements MarketDataStream {
+
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(BinanceKlineStream.class);
+
+    private final String streamUrl;
+    private final ObjectMapper json;
+    private final WebSocketClient client = new ReactorNettyWebSocketClient();
+
+    public BinanceKlineStream(@Value("${app.exchange.streamUrl}") String streamUrl, ObjectMapper json) {
+        this.streamUrl = streamUrl;
+        this.json = json;
+    }
+
+    @Override
+    public Flux<Candle> closedBars(String symbol, String interval) {
+        URI uri = URI.create(streamUrl + "/ws/" + symbol.toLowerCase(Locale.ROOT) + "@kline_" + interval);
+        return Flux.<Candle>create(sink -> sink.onDispose(
+                        client.execute(uri, session -> session.receive()
+                                        .map(WebSocketMessage::getPayloadAsText)
+                                        .mapNotNull(this::closedBar)
+                                        .doOnNext(sink::next)
+                                        .then())
+                                .subscribe(v -> { }, sink::error, sink::complete)))
+                // the exchange drops connections after 24h: reconnect on completion as well as on error
+                .repeatWhen(done -> done.delayElements(Duration.ofSeconds(1)))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .transientErrors(true)
+                        .doBeforeRetry(r -> log.warn("Kline stream {} reconnecting: {}", uri, r.failure().toString())));
+    }
+
+    Candle closedBar(String payload) {
+        try {
+            JsonNode k = json.readTree(payload).path("k");
+            if (!k.path("x").asBoolean(false)) return null;
+            return new Candle(
+                    Instant.ofEpochMilli(k.path("t").asLong()),
+                    new BigDecimal(k.path("o").asText()),
+                    new BigDecimal(k.path("h").asText()),
+                    new BigDecimal(k.path("l").asText()),
+                    new BigDecimal(k.path("c").asText()),
+                    new BigDecimal(k.path("v").asText()));
+        } catch (Exception e) {
+            log.debug("Ignoring kline message: {}", e.toString());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.auto_trading_bot.market;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-through cache of historical candles: ranges come from {@link CandleStore}, and only
+ * the parts not stored yet are paged from the exchange and written back. Only closed bars
+ * are stored. Callers block on the fetch, so this belongs on worker threads, never on an
+ * event loop; a failed fetch throws {@link MarketDataException} and leaves the store as it was.
+ * Fills of one symbol and interval are serialized so a range is fetched once; other keys
+ * fetch in parallel.
+ */
+@Component
+public class CandleHistory {
+
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(CandleHistory.class);
+
+    private final CandleStore store;
+    private final MarketDataClient data;
+    private final Clock clock;
+    private final ConcurrentHashMap<String, Object> locks = new ConcurrentHashMap<>();
+
+    public CandleHistory(CandleStore store, MarketDataClient data, Clock clock) {
+        this.store = store;
+        this.data = data;
+        this.clock = clock;
+    }
+
+    /** The last {@code bars} closed candles. */
+    public CandleSeries lastBars(String symbol, String interval, int bars) {
+        long step = Intervals.millis(interval);
+        long lastClosed = (clock.millis() / step) * step - step;
+        CandleSeries s = range(symbol, interval, lastClosed - (long) (bars - 1) * step, lastClosed);
+        if (s.size() <= bars) return s;
+        return CandleSeries.builder(bars).appendAll(s, s.size() - bars, s.size()).build();
+    }
+
+    public CandleSeries range(String symbol, String interval, long fromMs, long toMs) {
+        long step = Intervals.millis(interval);
+        long lastClosed = (clock.millis() / step) * step - step;
+        long to = Math.min(toMs, lastClosed);
+        synchronized (locks.computeIfAbsent(symbol + "/" + interval, k -> new Object())) {
+            long[] b = store.bounds(symbol, interval);
+            if (b == null) {
+                CandleSeries first = fetch(symbol, interval, fromMs, to);
+                if (first.size() > 0) store.prepend(symbol, interval, first, fromMs);
+                log.info("Candle cache {} {}: fetched {} bars", symbol, interval, first.size());
+            } else {
+                if (fromMs < b[0]) {
+                    CandleSeries older = fetch(symbol, interval, fromMs, b[0] - 1);
+                    if (older.size() > 0) store.prepend(symbol, interval, older, fromMs);
+                    log.info("Candle cache {} {}: fetched {} older bars", symbol, interval, older.size());
+                }
+                if (to > b[1]) fetchAfter(symbol, interval, b[1] + 1, to);
+            }
+        }
+        return store.read(symbol, interval, fromMs, to);
+    }
+
+    private void fetchAfter(String symbol, String interval, long fromMs, long toMs) {
+        if (fromMs > toMs) return;
+        CandleSeries newer = fetch(symbol, interval, fromMs, toMs);
+        store.append(symbol, interval, newer);
+        log.info("Candle cache {} {}: fetched {} newer bars", symbol, interval, newer.size());
+    }
+
+    private CandleSeries fetch(String symbol, String interval, long fromMs, long toMs) {
+        return data.range(symbol, interval, fromMs, toMs).block();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.auto_trading_bot.market;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Candles stored column by column: epoch-millis timestamps and fixed-point OHLCV.
+ * Read-only once built, so one instance can be shared between threads.
+ */
+public final class CandleSeries {
+
+    private final long[] ts;
+    private final long[] open;
+    private final long[] high;
+    private final long[] low;
+    private final long[] close;
+    private final long[] volume;
+    private final int size;
+
+    private CandleSeries(long[] ts, long[] open, long[] high, long[] low, long[] close, long[] volume, int size) {
+        this.ts = ts;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+        this.size = size;
+    }
+
+    public static CandleSeries of(List<Candle> candles) {
+        Builder b = builder(candles.size());
+        for (Candle c : candles) b.append(c);
+        return b.build();
+    }
+
+    public static Builder builder(int capacity) {
+        return new Builder(capacity);
+    }
+
+    public int size() { return size; }
+    public long ts(int i) { return ts[i]; }
+    public long open(int i) { return open[i]; }
+    public long high(int i) { return high[i]; }
+    public long low(int i) { return low[i]; }
+    public long close(int i) { return close[i]; }
+    public long volume(int i) { return volume[i]; }
+
+    public Candle candle(int i) {
+        return new Candle(Instant.ofEpochMilli(ts[i]),
+                FixedPoint.toBigDecimal(open[i]), FixedPoint.toBigDecimal(high[i]),
+                FixedPoint.toBigDecimal(low[i]), FixedPoint.toBigDecimal(close[i]),
+                FixedPoint.toBigDecimal(volume[i]));
+    }
+
+    public static final class Builder {
+        private long[] ts, open, high, low, close, volume;
+        private int size;
+
+        private Builder(int capacity) {
+            int n = Math.max(capacity, 16);
+            ts = new long[n];
+            open = new long[n];
+            high = new long[n];
+            low = new long[n];
+            close = new long[n];
+            volume = new long[n];
+        }
+
+        public Builder append(Candle c) {
+            return append(c.ts().toEpochMilli(), FixedPoint.of(c.open()), FixedPoint.of(c.high()),
+                    FixedPoint.of(c.low()), FixedPoint.of(c.close()), FixedPoint.of(c.volume()));
+        }
+
+        public Builder append(long t, long o, long h, long l, long c, long v) {
+            if (size == ts.length) grow();
+            ts[size] = t;
+            open[size] = o;
+            high[size] = h;
+            low[size] = l;
+            close[size] = c;
+            volume[size] = v;
+            size++;
+            return this;
+        }
+
+        public Builder appendAll(CandleSeries s) {
+            return appendAll(s, 0, s.size);
+        }
+
+        public Builder appendAll(CandleSeries s, int from, int to) {
+            for (int i = from; i < to; i++) append(s.ts[i], s.open[i], s.high[i], s.low[i], s.close[i], s.volume[i]);
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long lastTs() {
+            return ts[size - 1];
+        }
+
+        private void grow() {
+            int n = ts.length * 2;
+            ts = Arrays.copyOf(ts, n);
+            open = Arrays.copyOf(open, n);
+            high = Arrays.copyOf(high, n);
+            low = Arrays.copyOf(low, n);
+            close = Arrays.copyOf(close, n);
+            volume = Arrays.copyOf(volume, n);
+        }
+
+        public CandleSeries build() {
+            return new CandleSeries(Arrays.copyOf(ts, size), Arrays.copyOf(open, size), Arrays.copyOf(high, size),
+                    Arrays.copyOf(low, size), Arrays.copyOf(close, size), Arrays.copyOf(volume, size), size);
+        }
+    }
+}
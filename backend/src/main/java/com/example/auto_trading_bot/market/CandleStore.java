@@ -0,0 +1,180 @@
+package com.example.auto_trading_bot.market;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only candle files, one per symbol/interval, read through memory maps.
+ * <p>
+ * Layout: a 16-byte header (magic, version, {@code coveredFrom}) followed by fixed 48-byte
+ * records of six longs (ts, open, high, low, close, volume in fixed point) sorted by ts.
+ * Everything from {@code coveredFrom} to the last record has been fetched, so a missing
+ * bar inside that span is an exchange gap rather than a hole in the cache.
+ */
+@Component
+public class CandleStore {
+
+    private static final int MAGIC = 0x434E444C; // "CNDL"
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+    private static final int FIELDS = 6;
+    private static final int RECORD = FIELDS * Long.BYTES;
+
+    private final Path dir;
+
+    public CandleStore(@Value("${app.candles.dir:data/candles}") String dir) {
+        this.dir = Path.of(dir);
+    }
+
+    /** First and last covered timestamps, or null if nothing is stored yet. */
+    public synchronized long[] bounds(String symbol, String interval) {
+        Path f = file(symbol, interval);
+        if (!Files.exists(f)) return null;
+        try (FileChannel ch = FileChannel.open(f, StandardOpenOption.READ)) {
+            int n = count(ch);
+            if (n == 0) return null;
+            ByteBuffer head = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            ch.read(head, 0);
+            ByteBuffer last = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            ch.read(last, HEADER + (long) (n - 1) * RECORD);
+            return new long[]{head.getLong(8), last.getLong(0)};
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Stored candles with {@code fromMs <= ts <= toMs}, copied in bulk from the mapped file. */
+    public synchronized CandleSeries read(String symbol, String interval, long fromMs, long toMs) {
+        Path f = file(symbol, interval);
+        if (!Files.exists(f)) return CandleSeries.builder(0).build();
+        try (FileChannel ch = FileChannel.open(f, StandardOpenOption.READ)) {
+            int n = count(ch);
+            if (n == 0) return CandleSeries.builder(0).build();
+            LongBuffer records = ch.map(FileChannel.MapMode.READ_ONLY, HEADER, (long) n * RECORD)
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            int lo = lowerBound(records, n, fromMs);
+            int hi = lowerBound(records, n, toMs == Long.MAX_VALUE ? toMs : toMs + 1);
+            CandleSeries.Builder b = CandleSeries.builder(hi - lo);
+            long[] row = new long[FIELDS];
+            for (int i = lo; i < hi; i++) {
+                records.get(i * FIELDS, row);
+                b.append(row[0], row[1], row[2], row[3], row[4], row[5]);
+            }
+            return b.build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Appends the candles newer than the last stored one. */
+    public synchronized void append(String symbol, String interval, CandleSeries s) {
+        long[] b = bounds(symbol, interval);
+        long last = b == null ? Long.MIN_VALUE : b[1];
+        int from = 0;
+        while (from < s.size() && s.ts(from) <= last) from++;
+        if (from == s.size()) return;
+        Path f = file(symbol, interval);
+        try {
+            Files.createDirectories(dir);
+            try (FileChannel ch = FileChannel.open(f, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                if (b == null) writeHeader(ch, s.ts(from));
+                long pos = HEADER + (long) count(ch) * RECORD;
+                ByteBuffer buf = records(s, from, s.size());
+                while (buf.hasRemaining()) pos += ch.write(buf, pos);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adds history older than what is stored; the file is rewritten, which only happens when
+     * a run reaches further back than any run before it.
+     *
+     * @param coveredFrom earliest timestamp the fetch asked for, kept even if the exchange had no data there
+     */
+    public synchronized void prepend(String symbol, String interval, CandleSeries older, long coveredFrom) {
+        long[] b = bounds(symbol, interval);
+        if (b == null) {
+            append(symbol, interval, older);
+            if (older.size() > 0) setCoveredFrom(symbol, interval, coveredFrom);
+            return;
+        }
+        int to = 0;
+        while (to < older.size() && older.ts(to) < b[0]) to++;
+        Path f = file(symbol, interval);
+        Path tmp = f.resolveSibling(f.getFileName() + ".tmp");
+        try (FileChannel src = FileChannel.open(f, StandardOpenOption.READ);
+             FileChannel dst = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(dst, Math.min(coveredFrom, b[0]));
+            ByteBuffer head = records(older, 0, to);
+            long pos = HEADER;
+            while (head.hasRemaining()) pos += dst.write(head, pos);
+            long len = src.size() - HEADER;
+            long done = 0;
+            while (done < len) done += src.transferTo(HEADER + done, len - done, dst.position(pos + done));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(tmp, f, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void setCoveredFrom(String symbol, String interval, long coveredFrom) {
+        try (FileChannel ch = FileChannel.open(file(symbol, interval), StandardOpenOption.WRITE)) {
+            ByteBuffer v = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(0, coveredFrom);
+            ch.write(v, 8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path file(String symbol, String interval) {
+        return dir.resolve(symbol + "-" + interval + ".bin");
+    }
+
+    private static int count(FileChannel ch) throws IOException {
+        long size = ch.size();
+        return size <= HEADER ? 0 : (int) ((size - HEADER) / RECORD);
+    }
+
+    private static void writeHeader(FileChannel ch, long coveredFrom) throws IOException {
+        ByteBuffer h = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+        h.putInt(MAGIC).putInt(VERSION).putLong(coveredFrom).flip();
+        ch.write(h, 0);
+    }
+
+    private static ByteBuffer records(CandleSeries s, int from, int to) {
+        ByteBuffer buf = ByteBuffer.allocate((to - from) * RECORD).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = from; i < to; i++) {
+            buf.putLong(s.ts(i)).putLong(s.open(i)).putLong(s.high(i))
+                    .putLong(s.low(i)).putLong(s.close(i)).putLong(s.volume(i));
+        }
+        return buf.flip();
+    }
+
+    private static int lowerBound(LongBuffer records, int n, long ts) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (records.get(mid * FIELDS) < ts) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
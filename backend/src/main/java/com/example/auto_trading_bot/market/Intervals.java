@@ -0,0 +1,22 @@
+package com.example.auto_trading_bot.market;
+
+public final class Intervals {
+
+    private Intervals() {
+    }
+
+    /** Length of a kline interval such as {@code 1m}, {@code 4h} or {@code 1w}, in milliseconds. */
+    public static long millis(String interval) {
+        if (interval == null || !interval.matches("[0-9]+[smhdw]")) {
+            throw new IllegalArgumentException("invalid interval: " + interval);
+        }
+        long n = Long.parseLong(interval.substring(0, interval.length() - 1));
+        return switch (interval.charAt(interval.length() - 1)) {
+            case 's' -> n * 1_000L;
+            case 'm' -> n * 60_000L;
+            case 'h' -> n * 3_600_000L;
+            case 'd' -> n * 86_400_000L;
+            default -> n * 604_800_000L;
+        };
+    }
+}
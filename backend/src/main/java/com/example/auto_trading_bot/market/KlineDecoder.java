@@ -0,0 +1,120 @@
+package com.example.auto_trading_bot.market;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token-by-token decoder for the /api/v3/klines response
+ * ({@code [[openTime,"open","high","low","close","volume",closeTime,...],...]}).
+ * Prices are read straight from the parser's character buffer, without building a
+ * generic List/Map tree or intermediate Strings.
+ */
+public final class KlineDecoder {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private KlineDecoder() {
+    }
+
+    public static List<Candle> decode(byte[] body) {
+        List<Candle> out = new ArrayList<>();
+        try (JsonParser p = open(body)) {
+            if (p == null) return out;
+            while (p.nextToken() == JsonToken.START_ARRAY) {
+                p.nextToken();
+                Instant ts = Instant.ofEpochMilli(p.getLongValue());
+                BigDecimal open = decimal(p);
+                BigDecimal high = decimal(p);
+                BigDecimal low = decimal(p);
+                BigDecimal close = decimal(p);
+                BigDecimal vol = decimal(p);
+                skipRest(p);
+                out.add(new Candle(ts, open, high, low, close, vol));
+            }
+            return out;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Appends every kline in {@code body} to {@code out} as fixed point; returns how many were read. */
+    public static int decodeInto(byte[] body, CandleSeries.Builder out) {
+        int n = 0;
+        try (JsonParser p = open(body)) {
+            if (p == null) return 0;
+            while (p.nextToken() == JsonToken.START_ARRAY) {
+                p.nextToken();
+                long ts = p.getLongValue();
+                long open = fixed(p);
+                long high = fixed(p);
+                long low = fixed(p);
+                long close = fixed(p);
+                long vol = fixed(p);
+                skipRest(p);
+                out.append(ts, open, high, low, close, vol);
+                n++;
+            }
+            return n;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static JsonParser open(byte[] body) throws IOException {
+        if (body == null || body.length == 0) return null;
+        JsonParser p = JSON.createParser(body);
+        if (p.nextToken() != JsonToken.START_ARRAY) {
+            p.close();
+            throw new IOException("klines response is not an array");
+        }
+        return p;
+    }
+
+    private static void skipRest(JsonParser p) throws IOException {
+        while (p.nextToken() != JsonToken.END_ARRAY) p.skipChildren();
+    }
+
+    private static BigDecimal decimal(JsonParser p) throws IOException {
+        p.nextToken();
+        return new BigDecimal(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+    }
+
+    private static long fixed(JsonParser p) throws IOException {
+        p.nextToken();
+        return parseFixed(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+    }
+
+    /** Parses a plain decimal such as {@code "27123.45000000"} into fixed point. */
+    static long parseFixed(char[] c, int off, int len) {
+        int i = off, end = off + len;
+        boolean neg = i < end && c[i] == '-';
+        if (neg) i++;
+        long units = 0;
+        int decimals = -1;
+        for (; i < end; i++) {
+            char ch = c[i];
+            if (ch == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (ch >= '0' && ch <= '9' && decimals < FixedPoint.DECIMALS && units < Long.MAX_VALUE / 100) {
+                units = units * 10 + (ch - '0');
+                if (decimals >= 0) decimals++;
+            } else {
+                // more than 8 decimals, exponents or huge values: take the exact route
+                return FixedPoint.of(new BigDecimal(c, off, len));
+            }
+        }
+        long factor = 1;
+        for (int d = Math.max(decimals, 0); d < FixedPoint.DECIMALS; d++) factor *= 10;
+        if (units > Long.MAX_VALUE / factor) return FixedPoint.of(new BigDecimal(c, off, len));
+        return neg ? -units * factor : units * factor;
+    }
+}
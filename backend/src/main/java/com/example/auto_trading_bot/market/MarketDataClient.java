@@ -1,65 +1,173 @@
 package com.example.auto_trading_bot.market;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.time.Instant;
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Non-blocking REST client for klines and prices. Requests share one bounded connection
+ * pool: at most {@code maxConnections} are in flight and up to {@code maxPending} more wait
+ * for a connection; past that an attempt fails at once instead of queueing without bound.
+ * Each attempt times out after {@code timeoutMillis}; timeouts, connection errors, 429 and 5xx
+ * are retried with jittered exponential backoff. What still fails reaches the subscriber as a
+ * {@link MarketDataException}. Every attempt first spends its request weight from a
+ * {@link WeightBudget} of {@code weightPerMinute}, so the exchange's rate limit is kept no
+ * matter how many callers there are; callers that want shared results go through
+ * {@link MarketDataHub}.
+ */
 @Component
 public class MarketDataClient {
 
+    static final int MAX_LIMIT = 1000;
+    /** Pages of one range fetched at once. */
+    static final int PAGE_CONCURRENCY = 4;
+    /** Request weights of /api/v3/klines and /api/v3/ticker/price for one symbol. */
+    static final int KLINES_WEIGHT = 2, TICKER_WEIGHT = 2;
+
     private final WebClient http;
+    private final MeterRegistry meters;
+    private final Duration timeout;
+    private final int retries;
+    private final Duration backoff;
+    private final WeightBudget budget;
 
     public MarketDataClient(@Value("${app.exchange.baseUrl}") String baseUrl,
-                            WebClient.Builder builder) {
-        this.http = builder.baseUrl(baseUrl).build();
+                            @Value("${app.exchange.timeoutMillis:10000}") long timeoutMillis,
+                            @Value("${app.exchange.retries:3}") int retries,
+                            @Value("${app.exchange.retryBackoffMillis:200}") long backoffMillis,
+                            @Value("${app.exchange.maxConnections:8}") int maxConnections,
+                            @Value("${app.exchange.maxPending:256}") int maxPending,
+                            @Value("${app.exchange.weightPerMinute:1200}") int weightPerMinute,
+                            @Value("${app.exchange.weightBurst:300}") int weightBurst,
+                            WebClient.Builder builder, MeterRegistry meters) {
+        ConnectionProvider pool = ConnectionProvider.builder("exchange")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxPending)
+                .pendingAcquireTimeout(Duration.ofMillis(timeoutMillis))
+                .build();
+        this.http = builder.clone()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(pool)))
+                .build();
+        this.meters = meters;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.retries = retries;
+        this.backoff = Duration.ofMillis(backoffMillis);
+        this.budget = new WeightBudget(weightPerMinute, weightBurst, System.nanoTime());
+        meters.gauge("market.weight.available", budget, WeightBudget::available);
+    }
+
+    /** The latest {@code limit} klines, the last of which may still be forming. */
+    public Mono<List<Candle>> recent(String symbol, String interval, int limit) {
+        return fetch(symbol, interval, limit, null, null).map(KlineDecoder::decode);
     }
 
+    /** Up to {@code limit} candles opening at or after {@code startTimeMs}, oldest first. */
+    public Mono<List<Candle>> since(String symbol, String interval, long startTimeMs, int limit) {
+        return fetch(symbol, interval, Math.min(limit, MAX_LIMIT), startTimeMs, null).map(KlineDecoder::decode);
+    }
+
+    /**
+     * Candles opening in {@code [startMs, endMs]}, in pages of {@value #MAX_LIMIT} bars
+     * fetched {@value #PAGE_CONCURRENCY} at a time and decoded in order.
+     */
+    public Mono<CandleSeries> range(String symbol, String interval, long startMs, long endMs) {
+        long page = MAX_LIMIT * Intervals.millis(interval);
+        long bars = Math.max(0, (endMs - startMs) / Intervals.millis(interval) + 1);
+        return Flux.range(0, (int) ((bars + MAX_LIMIT - 1) / MAX_LIMIT))
+                .flatMapSequential(k -> {
+                    long from = startMs + k * page;
+                    return fetch(symbol, interval, MAX_LIMIT, from, Math.min(endMs, from + page - 1));
+                }, PAGE_CONCURRENCY)
+                .collect(() -> CandleSeries.builder((int) Math.min(bars, MAX_LIMIT)),
+                        (b, body) -> KlineDecoder.decodeInto(body, b))
+                .map(CandleSeries.Builder::build);
+    }
 
-    public List<Candle> getNumberOfLines(String symbol, String interval, int limit) {
-        List<List<Object>> raw = http.get()
+    public Mono<BigDecimal> lastPrice(String symbol) {
+        Mono<Map<?, ?>> req = http.get()
+                .uri(uri -> uri.path("/api/v3/ticker/price")
+                        .queryParam("symbol", symbol)
+                        .build())
+                .retrieve()
+                .bodyToMono(Map.class)
+                .map(m -> (Map<?, ?>) m);
+        return call("ticker", symbol, null, TICKER_WEIGHT, req).map(m -> new BigDecimal(m.get("price").toString()));
+    }
+
+    private Mono<byte[]> fetch(String symbol, String interval, int limit, Long startTime, Long endTime) {
+        Mono<byte[]> req = http.get()
                 .uri(uri -> uri.path("/api/v3/klines")
                         .queryParam("symbol", symbol)
                         .queryParam("interval", interval)
                         .queryParam("limit", limit)
+                        .queryParamIfPresent("startTime", Optional.ofNullable(startTime))
+                        .queryParamIfPresent("endTime", Optional.ofNullable(endTime))
                         .build())
                 .accept(MediaType.APPLICATION_JSON)
                 .retrieve()
-                .bodyToMono(List.class)
-                .onErrorReturn(List.of())
-                .block();
+                .bodyToMono(byte[].class)
+                .defaultIfEmpty(new byte[0]);
+        return call("klines", symbol, interval, KLINES_WEIGHT, req);
+    }
 
-        List<Candle> out = new ArrayList<>();
-        if (raw == null) return out;
+    /** Timed from the first attempt to the last, tagged by whether the call succeeded in the end. */
+    private <T> Mono<T> call(String endpoint, String symbol, String interval, int weight, Mono<T> req) {
+        return Mono.defer(() -> {
+            long t0 = System.nanoTime();
+            return budget.acquire(weight)
+                    .then(req.timeout(timeout))
+                    .doOnError(e -> countError(endpoint, e))
+                    .retryWhen(Retry.backoff(retries, backoff)
+                            .jitter(0.5)
+                            .filter(MarketDataClient::retryable)
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                    .onErrorMap(e -> new MarketDataException(endpoint + " " + symbol
+                            + (interval == null ? "" : " " + interval) + ": " + e, e))
+                    // recorded before the result reaches the subscriber
+                    .doOnSuccess(v -> timeFetch(endpoint, symbol, interval, "success", t0))
+                    .doOnError(e -> timeFetch(endpoint, symbol, interval, "error", t0))
+                    .doOnCancel(() -> timeFetch(endpoint, symbol, interval, "cancelled", t0));
+        });
+    }
 
-        for (List<?> k : raw) {
-            Instant ts = Instant.ofEpochMilli(((Number) k.get(0)).longValue());
-            BigDecimal open = new BigDecimal(k.get(1).toString());
-            BigDecimal high = new BigDecimal(k.get(2).toString());
-            BigDecimal low = new BigDecimal(k.get(3).toString());
-            BigDecimal close = new BigDecimal(k.get(4).toString());
-            BigDecimal vol = new BigDecimal(k.get(5).toString());
-            out.add(new Candle(ts, open, high, low, close, vol));
-        }
-        return out;
+    private void timeFetch(String endpoint, String symbol, String interval, String outcome, long t0) {
+        Timer.builder("market.fetch")
+                .tags("endpoint", endpoint, "symbol", symbol, "interval", interval == null ? "none" : interval,
+                        "outcome", outcome)
+                .register(meters)
+                .record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
     }
 
-    public BigDecimal getLastPrice(String symbol) {
-        var map = http.get()
-                .uri(uri -> uri.path("/api/v3/ticker/price")
-                        .queryParam("symbol", symbol)
-                        .build())
-                .retrieve()
-                .bodyToMono(java.util.Map.class)
-                .onErrorResume(e -> Mono.just(java.util.Map.of("price", "0")))
-                .block();
+    static boolean retryable(Throwable e) {
+        if (e instanceof WebClientResponseException r) {
+            return r.getStatusCode().is5xxServerError() || r.getStatusCode().value() == 429;
+        }
+        return e instanceof TimeoutException || e instanceof WebClientRequestException || e instanceof IOException;
+    }
 
-        return new BigDecimal(map.get("price").toString());
+    private void countError(String endpoint, Throwable e) {
+        meters.counter("market.fetch.errors", "endpoint", endpoint, "exception", e.getClass().getSimpleName())
+                .increment();
     }
 }
@@ -0,0 +1,9 @@
+package com.example.auto_trading_bot.market;
+
+/** A market data request that failed after its retries, or could not be queued. */
+public class MarketDataException extends RuntimeException {
+
+    public MarketDataException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
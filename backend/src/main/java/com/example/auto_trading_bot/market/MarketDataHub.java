@@ -0,0 +1,95 @@
+package com.example.auto_trading_bot.market;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * One view of the exchange for every session and dashboard. Identical concurrent requests
+ * share a single in-flight call, and its result is served to later callers for
+ * {@code app.exchange.cacheMillis}; failures are shared but not cached. Each symbol/interval
+ * stream is opened once and fanned out to its subscribers, and closed with the last of them.
+ * Exchange traffic so grows with the symbols watched, not with the sessions watching them.
+ */
+@Component
+public class MarketDataHub {
+
+    private static final int MAX_KEYS = 1024;
+
+    private record Key(String kind, String symbol, String interval, long from, int limit) {
+    }
+
+    private static final class Shared {
+        final Mono<?> call;
+        volatile long usedAt;
+
+        Shared(Mono<?> call) {
+            this.call = call;
+        }
+    }
+
+    private final MarketDataClient client;
+    private final MarketDataStream stream;
+    private final Duration ttl;
+    private final long idleNanos;
+    private final Counter requests;
+    private final Counter fetches;
+    private final Map<Key, Shared> calls = new ConcurrentHashMap<>();
+    private final Map<Key, Flux<Candle>> streams = new ConcurrentHashMap<>();
+
+    public MarketDataHub(MarketDataClient client, MarketDataStream stream,
+                         @Value("${app.exchange.cacheMillis:1000}") long cacheMillis, MeterRegistry meters) {
+        this.client = client;
+        this.stream = stream;
+        this.ttl = Duration.ofMillis(cacheMillis);
+        this.idleNanos = Math.max(ttl.toNanos(), Duration.ofMinutes(1).toNanos());
+        this.requests = meters.counter("market.hub.requests");
+        this.fetches = meters.counter("market.hub.fetches");
+    }
+
+    /** @see MarketDataClient#recent */
+    public Mono<List<Candle>> recent(String symbol, String interval, int limit) {
+        return shared(new Key("recent", symbol, interval, 0, limit), () -> client.recent(symbol, interval, limit));
+    }
+
+    /** @see MarketDataClient#since */
+    public Mono<List<Candle>> since(String symbol, String interval, long fromMs, int limit) {
+        return shared(new Key("since", symbol, interval, fromMs, limit), () -> client.since(symbol, interval, fromMs, limit));
+    }
+
+    public Mono<BigDecimal> lastPrice(String symbol) {
+        return shared(new Key("price", symbol, null, 0, 0), () -> client.lastPrice(symbol));
+    }
+
+    /** Closed bars from when the caller subscribes; one upstream stream per symbol and interval. */
+    public Flux<Candle> closedBars(String symbol, String interval) {
+        return streams.computeIfAbsent(new Key("stream", symbol, interval, 0, 0),
+                k -> stream.closedBars(symbol, interval).publish().refCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> shared(Key key, Supplier<Mono<T>> fetch) {
+        return Mono.defer(() -> {
+            requests.increment();
+            long now = System.nanoTime();
+            Shared s = calls.computeIfAbsent(key, k -> new Shared(Mono.defer(() -> {
+                        fetches.increment();
+                        return fetch.get();
+                    })
+                    .cache(v -> ttl, e -> Duration.ZERO, () -> Duration.ZERO)));
+            s.usedAt = now;
+            if (calls.size() > MAX_KEYS) calls.values().removeIf(e -> now - e.usedAt > idleNanos);
+            return (Mono<T>) s.call;
+        });
+    }
+}
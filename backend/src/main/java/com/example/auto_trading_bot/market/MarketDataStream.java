@@ -0,0 +1,12 @@
+package com.example.auto_trading_bot.market;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Push source of closed candles. Implementations reconnect on their own, so the returned
+ * flux only ends when the subscriber cancels it. Selected with {@code app.exchange.stream}.
+ */
+public interface MarketDataStream {
+
+    Flux<Candle> closedBars(String symbol, String interval);
+}
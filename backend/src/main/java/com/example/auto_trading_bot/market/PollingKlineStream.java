@@ -0,0 +1,53 @@
+package com.example.auto_trading_bot.market;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * REST fallback for {@link MarketDataStream} ({@code app.exchange.stream=polling}), for
+ * environments where the WebSocket endpoint is unreachable.
+ */
+@Component
+@ConditionalOnProperty(name = "app.exchange.stream", havingValue = "polling")
+public class PollingKlineStream implements MarketDataStream {
+
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(PollingKlineStream.class);
+
+    private final MarketDataClient data;
+    private final Duration period;
+
+    public PollingKlineStream(MarketDataClient data,
+                              @Value("${app.exchange.pollMillis:10000}") long pollMillis) {
+        this.data = data;
+        this.period = Duration.ofMillis(pollMillis);
+    }
+
+    @Override
+    public Flux<Candle> closedBars(String symbol, String interval) {
+        return Flux.defer(() -> {
+            long[] lastTs = {Long.MIN_VALUE};
+            return Flux.interval(Duration.ZERO, period)
+                    .onBackpressureDrop()
+                    .concatMap(t -> data.recent(symbol, interval, 2)
+                            .onErrorResume(e -> {
+                                log.warn("Kline poll failed symbol={} interval={}: {}", symbol, interval, e.toString());
+                                return Mono.just(List.of());
+                            }))
+                    .filter(kl -> kl.size() >= 2)
+                    .map(kl -> kl.get(kl.size() - 2))
+                    .filter(c -> {
+                        long ts = c.ts().toEpochMilli();
+                        if (ts <= lastTs[0]) return false;
+                        lastTs[0] = ts;
+                        return true;
+                    });
+        });
+    }
+}
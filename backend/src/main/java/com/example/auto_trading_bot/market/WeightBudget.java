@@ -0,0 +1,54 @@
+package com.example.auto_trading_bot.market;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Token bucket over the exchange's request weight: {@code perMinute} refills evenly, at
+ * most {@code burst} accumulates. A request that finds the bucket short reserves its weight
+ * anyway and waits until the refill covers it, so waiting requests go out in arrival order
+ * and never beyond the rate.
+ */
+final class WeightBudget {
+
+    private final double perNano;
+    private final double burst;
+    private double tokens;
+    private long last;
+
+    WeightBudget(int perMinute, int burst, long now) {
+        if (perMinute <= 0 || burst <= 0) throw new IllegalArgumentException("weight budget must be positive");
+        this.perNano = perMinute / 60e9;
+        this.burst = burst;
+        this.tokens = burst;
+        this.last = now;
+    }
+
+    /** Completes once {@code weight} is spent from the budget. */
+    Mono<Void> acquire(int weight) {
+        return Mono.defer(() -> {
+            long wait = reserve(weight, System.nanoTime());
+            return wait == 0 ? Mono.empty() : Mono.delay(Duration.ofNanos(wait)).then();
+        });
+    }
+
+    /** @return nanos to wait before the reserved weight may be used */
+    synchronized long reserve(int weight, long now) {
+        refill(now);
+        tokens -= weight;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / perNano);
+    }
+
+    synchronized double available() {
+        refill(System.nanoTime());
+        return tokens;
+    }
+
+    private void refill(long now) {
+        if (now > last) {
+            tokens = Math.min(burst, tokens + (now - last) * perNano);
+            last = now;
+        }
+    }
+}
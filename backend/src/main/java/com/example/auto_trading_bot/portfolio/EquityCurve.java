@@ -0,0 +1,277 @@
+package com.example.auto_trading_bot.portfolio;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+import com.example.auto_trading_bot.dto.EquityPoint;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chart-sized reads of the equity curve. Every written point is also rolled up into
+ * first/last/min/max buckets at a few fixed resolutions, so wide ranges are answered from
+ * the rollups and the cost of a read depends on the requested point count, not the run length.
+ */
+@Component
+public class EquityCurve {
+
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(EquityCurve.class);
+
+    static final long[] RESOLUTIONS = {5 * 60_000L, 3_600_000L, 86_400_000L};
+    private static final int MAX_BUFFERED = 10_000;
+
+    private final JdbcTemplate db;
+    private volatile boolean backfilled;
+
+    public EquityCurve(JdbcTemplate db) {
+        this.db = db;
+    }
+
+    /**
+     * Builds the rollups once for equity rows written before they existed. Runs on first use,
+     * before the persister's first flush or the first downsampled read, so starting the context
+     * does not touch the database.
+     */
+    void backfill() {
+        if (backfilled) return;
+        synchronized (this) {
+            if (backfilled) return;
+            Boolean missing = db.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM equity_rollup) " +
+                    "AND EXISTS (SELECT 1 FROM equity_curve)", Boolean.class);
+            if (Boolean.TRUE.equals(missing)) rebuild();
+            backfilled = true;
+        }
+    }
+
+    private void rebuild() {
+        Rollup[] r = {rollup()};
+        db.query("SELECT run_id, symbol, ts, equity FROM equity_curve ORDER BY run_id, symbol, ts", rs -> {
+            r[0].add(rs.getLong(1), rs.getString(2), rs.getTimestamp(3).getTime(), FixedPoint.of(rs.getBigDecimal(4)));
+            if (r[0].size() >= MAX_BUFFERED) {
+                write(r[0]);
+                r[0] = rollup();
+            }
+        });
+        write(r[0]);
+        log.info("Equity rollups rebuilt from existing equity_curve rows");
+    }
+
+    public Rollup rollup() {
+        return new Rollup();
+    }
+
+    /** Merges the buckets into the stored rollups; joins the caller's transaction, if any. */
+    public void write(Rollup r) {
+        List<Bucket> rows = r.rows();
+        if (rows.isEmpty()) return;
+        db.batchUpdate("INSERT INTO equity_rollup(run_id,symbol,res_ms,bucket,first_ts,first_equity,last_ts,last_equity," +
+                        "min_ts,min_equity,max_ts,max_equity,points) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?) " +
+                        "ON CONFLICT (run_id,symbol,res_ms,bucket) DO UPDATE SET " +
+                        "first_ts=LEAST(equity_rollup.first_ts,EXCLUDED.first_ts), " +
+                        "first_equity=CASE WHEN EXCLUDED.first_ts<equity_rollup.first_ts THEN EXCLUDED.first_equity ELSE equity_rollup.first_equity END, " +
+                        "last_ts=GREATEST(equity_rollup.last_ts,EXCLUDED.last_ts), " +
+                        "last_equity=CASE WHEN EXCLUDED.last_ts>=equity_rollup.last_ts THEN EXCLUDED.last_equity ELSE equity_rollup.last_equity END, " +
+                        "min_ts=CASE WHEN EXCLUDED.min_equity<equity_rollup.min_equity THEN EXCLUDED.min_ts ELSE equity_rollup.min_ts END, " +
+                        "min_equity=LEAST(equity_rollup.min_equity,EXCLUDED.min_equity), " +
+                        "max_ts=CASE WHEN EXCLUDED.max_equity>equity_rollup.max_equity THEN EXCLUDED.max_ts ELSE equity_rollup.max_ts END, " +
+                        "max_equity=GREATEST(equity_rollup.max_equity,EXCLUDED.max_equity), " +
+                        "points=equity_rollup.points+EXCLUDED.points",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Bucket b = rows.get(i);
+                        ps.setLong(1, b.run);
+                        ps.setString(2, b.symbol);
+                        ps.setLong(3, b.res);
+                        ps.setTimestamp(4, new Timestamp(b.start));
+                        ps.setTimestamp(5, new Timestamp(b.firstTs));
+                        ps.setBigDecimal(6, FixedPoint.toBigDecimal(b.first));
+                        ps.setTimestamp(7, new Timestamp(b.lastTs));
+                        ps.setBigDecimal(8, FixedPoint.toBigDecimal(b.last));
+                        ps.setTimestamp(9, new Timestamp(b.minTs));
+                        ps.setBigDecimal(10, FixedPoint.toBigDecimal(b.min));
+                        ps.setTimestamp(11, new Timestamp(b.maxTs));
+                        ps.setBigDecimal(12, FixedPoint.toBigDecimal(b.max));
+                        ps.setInt(13, b.n);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                });
+    }
+
+    /**
+     * At most {@code points} points of the run's curve for the symbol in {@code [from, to]} (the
+     * whole curve where null): the lowest and highest point of each of {@code (points - 2) / 2}
+     * buckets, plus both ends.
+     */
+    public List<EquityPoint> downsample(long run, String symbol, Instant from, Instant to, int points) {
+        backfill();
+        long fromMs, toMs;
+        if (from == null || to == null) {
+            long[] bounds = db.queryForObject("SELECT min(ts), max(ts) FROM equity_curve WHERE run_id=? AND symbol=?",
+                    (rs, i) -> rs.getTimestamp(1) == null ? null
+                            : new long[]{rs.getTimestamp(1).getTime(), rs.getTimestamp(2).getTime()}, run, symbol);
+            if (bounds == null) return List.of();
+            fromMs = from == null ? bounds[0] : from.toEpochMilli();
+            toMs = to == null ? bounds[1] : to.toEpochMilli();
+        } else {
+            fromMs = from.toEpochMilli();
+            toMs = to.toEpochMilli();
+        }
+        if (toMs < fromMs) return List.of();
+
+        Sampler s = new Sampler(fromMs, toMs, points);
+        long res = 0;
+        for (long r : RESOLUTIONS) if (r <= s.width) res = r;
+        if (res == 0) {
+            db.query("SELECT ts, equity FROM equity_curve WHERE run_id=? AND symbol=? AND ts BETWEEN ? AND ? ORDER BY ts",
+                    rs -> { s.add(rs.getTimestamp(1).getTime(), FixedPoint.of(rs.getBigDecimal(2))); },
+                    run, symbol, new Timestamp(fromMs), new Timestamp(toMs));
+        } else {
+            db.query("SELECT first_ts, first_equity, last_ts, last_equity, min_ts, min_equity, max_ts, max_equity " +
+                            "FROM equity_rollup WHERE run_id=? AND symbol=? AND res_ms=? AND bucket BETWEEN ? AND ? ORDER BY bucket",
+                    rs -> {
+                        for (int c = 1; c <= 7; c += 2) {
+                            s.add(rs.getTimestamp(c).getTime(), FixedPoint.of(rs.getBigDecimal(c + 1)));
+                        }
+                    },
+                    run, symbol, res, new Timestamp(Math.floorDiv(fromMs, res) * res), new Timestamp(toMs));
+        }
+        return s.points();
+    }
+
+    /** Points of one write, bucketed per run, symbol and resolution; expects them roughly in time order. */
+    public static final class Rollup {
+
+        private final List<Bucket> done = new ArrayList<>();
+        private final Map<String, Bucket[]> open = new HashMap<>();
+        private long lastRun = -1;
+        private String lastSymbol;
+        private Bucket[] last;
+
+        public void add(long run, String symbol, long ts, long equity) {
+            if (run != lastRun || !symbol.equals(lastSymbol)) {
+                last = open.computeIfAbsent(run + "/" + symbol, k -> new Bucket[RESOLUTIONS.length]);
+                lastRun = run;
+                lastSymbol = symbol;
+            }
+            Bucket[] cur = last;
+            for (int l = 0; l < RESOLUTIONS.length; l++) {
+                long res = RESOLUTIONS[l];
+                long start = Math.floorDiv(ts, res) * res;
+                if (cur[l] == null || cur[l].start != start) {
+                    if (cur[l] != null) done.add(cur[l]);
+                    cur[l] = new Bucket(run, symbol, res, start);
+                }
+                cur[l].add(ts, equity);
+            }
+        }
+
+        int size() {
+            return done.size() + open.size() * RESOLUTIONS.length;
+        }
+
+        List<Bucket> rows() {
+            List<Bucket> rows = new ArrayList<>(done);
+            for (Bucket[] cur : open.values()) {
+                for (Bucket b : cur) if (b != null) rows.add(b);
+            }
+            return rows;
+        }
+    }
+
+    static final class Bucket {
+        final long run;
+        final String symbol;
+        final long res;
+        final long start;
+        long firstTs = Long.MAX_VALUE, first, lastTs = Long.MIN_VALUE, last;
+        long minTs, min = Long.MAX_VALUE, maxTs, max = Long.MIN_VALUE;
+        int n;
+
+        Bucket(long run, String symbol, long res, long start) {
+            this.run = run;
+            this.symbol = symbol;
+            this.res = res;
+            this.start = start;
+        }
+
+        void add(long ts, long eq) {
+            if (ts < firstTs) { firstTs = ts; first = eq; }
+            if (ts >= lastTs) { lastTs = ts; last = eq; }
+            if (eq < min) { min = eq; minTs = ts; }
+            if (eq > max) { max = eq; maxTs = ts; }
+            n++;
+        }
+    }
+
+    /** Min/max per bucket over a fixed range; input order does not matter. */
+    static final class Sampler {
+        final long from, to, width;
+        private final long[] minTs, min, maxTs, max;
+        private long firstTs = Long.MAX_VALUE, first, lastTs = Long.MIN_VALUE, last;
+
+        Sampler(long from, long to, int points) {
+            int n = Math.max(1, (points - 2) / 2);
+            this.from = from;
+            this.to = to;
+            this.width = Math.max(1, (to - from) / n + 1);
+            minTs = new long[n];
+            min = new long[n];
+            maxTs = new long[n];
+            max = new long[n];
+            java.util.Arrays.fill(minTs, Long.MIN_VALUE);
+        }
+
+        void add(long ts, long eq) {
+            if (ts < from || ts > to) return;
+            if (ts < firstTs) { firstTs = ts; first = eq; }
+            if (ts > lastTs) { lastTs = ts; last = eq; }
+            int i = (int) ((ts - from) / width);
+            if (minTs[i] == Long.MIN_VALUE) {
+                minTs[i] = maxTs[i] = ts;
+                min[i] = max[i] = eq;
+                return;
+            }
+            if (eq < min[i]) { min[i] = eq; minTs[i] = ts; }
+            if (eq > max[i]) { max[i] = eq; maxTs[i] = ts; }
+        }
+
+        List<EquityPoint> points() {
+            List<EquityPoint> out = new ArrayList<>(2 * minTs.length + 2);
+            if (lastTs == Long.MIN_VALUE) return out;
+            long prev = Long.MIN_VALUE;
+            prev = emit(out, prev, firstTs, first);
+            for (int i = 0; i < minTs.length; i++) {
+                if (minTs[i] == Long.MIN_VALUE) continue;
+                if (minTs[i] <= maxTs[i]) {
+                    prev = emit(out, prev, minTs[i], min[i]);
+                    prev = emit(out, prev, maxTs[i], max[i]);
+                } else {
+                    prev = emit(out, prev, maxTs[i], max[i]);
+                    prev = emit(out, prev, minTs[i], min[i]);
+                }
+            }
+            emit(out, prev, lastTs, last);
+            return out;
+        }
+
+        private static long emit(List<EquityPoint> out, long prev, long ts, long eq) {
+            if (ts <= prev) return prev;
+            out.add(new EquityPoint(Instant.ofEpochMilli(ts), FixedPoint.toBigDecimal(eq)));
+            return ts;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.auto_trading_bot.portfolio;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record EquitySample(
+        long runId,
+        Instant ts,
+        String symbol,
+        BigDecimal equity
+) {}
@@ -0,0 +1,15 @@
+package com.example.auto_trading_bot.portfolio;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record Fill(
+        long runId,
+        Instant ts,
+        String symbol,
+        String side,
+        BigDecimal qty,
+        BigDecimal price,
+        BigDecimal fee,
+        BigDecimal pnl
+) {}
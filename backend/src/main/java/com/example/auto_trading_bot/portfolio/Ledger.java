@@ -0,0 +1,298 @@
+package com.example.auto_trading_bot.portfolio;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+import com.example.auto_trading_bot.journal.Journal;
+import com.example.auto_trading_bot.journal.JournalEvent;
+import com.example.auto_trading_bot.journal.Snapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Authoritative account and position state. Every fill and equity point is appended to the
+ * {@link Journal} before it is applied in memory; on startup the state is rebuilt from the
+ * latest snapshot plus the fills journaled after it. {@link LedgerPersister} projects the
+ * journal into Postgres behind, including a checkpoint of each changed position's lots.
+ */
+@Component
+public class Ledger {
+
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(Ledger.class);
+
+    private final JdbcTemplate db;
+    private final Journal journal;
+    private final Clock clock;
+    private final Position.CostBasis costBasis;
+
+    private boolean loaded;
+    private BigDecimal cash = BigDecimal.ZERO;
+    private final Map<String, Position> positions = new HashMap<>();
+
+    private Set<String> dirtyPositions = new HashSet<>();
+    private boolean cashDirty;
+
+    public Ledger(JdbcTemplate db, Journal journal, Clock clock,
+                  @Value("${app.ledger.costBasis:FIFO}") Position.CostBasis costBasis) {
+        this.db = db;
+        this.journal = journal;
+        this.clock = clock;
+        this.costBasis = costBasis;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        Snapshot snap = journal.latestSnapshot();
+        if (snap != null) {
+            restore(snap);
+        } else {
+            loadFromDatabase();
+        }
+        loaded = true;
+        if (snap == null) {
+            // the database is the only source this once; from here on the journal is
+            db.update("UPDATE journal_offset SET seq=? WHERE id=1", journal.lastSeq());
+            journal.write(journal.capture(FixedPoint.of(cash), positionStates()));
+        }
+    }
+
+    private void restore(Snapshot snap) {
+        cash = FixedPoint.toBigDecimal(snap.cash());
+        for (Snapshot.PositionState ps : snap.positions()) {
+            Position pos = new Position(costBasis);
+            for (int i = 0; i < ps.lotQty().length; i++) pos.buy(ps.lotQty()[i], ps.lotPrice()[i]);
+            pos.restore(ps.cost(), ps.realized());
+            positions.put(ps.symbol(), pos);
+        }
+        long[] fills = {0};
+        journal.read(snap.seq(), Integer.MAX_VALUE, e -> {
+            if (e.type() != JournalEvent.FILL) return;
+            if (e.flag() == JournalEvent.BUY) applyBuy(e.symbol(), e.a(), e.b(), e.d());
+            else applySell(e.symbol(), e.a(), e.b(), e.d());
+            fills[0]++;
+        });
+        log.info("Ledger restored from snapshot seq={} plus {} journaled fills", snap.seq(), fills[0]);
+    }
+
+    private void loadFromDatabase() {
+        cash = db.queryForObject("SELECT cash_balance FROM account LIMIT 1", BigDecimal.class);
+        db.query("SELECT symbol, qty, price FROM position_lots ORDER BY symbol, seq",
+                rs -> { position(rs.getString(1)).buy(FixedPoint.of(rs.getBigDecimal(2)), FixedPoint.of(rs.getBigDecimal(3))); });
+        db.query("SELECT symbol, cost, realized_pnl FROM positions",
+                rs -> { position(rs.getString(1)).restore(FixedPoint.of(rs.getBigDecimal(2)), FixedPoint.of(rs.getBigDecimal(3))); });
+        Map<String, BigDecimal> holdings = new HashMap<>();
+        db.query("SELECT symbol, quantity FROM holdings",
+                rs -> { holdings.put(rs.getString(1), rs.getBigDecimal(2)); });
+        holdings.forEach(this::adoptUncheckpointed);
+    }
+
+    /**
+     * Holdings written before lots were checkpointed become one lot priced at the mean of
+     * the symbol's last ten buys, the rule SELL pnl used back then.
+     */
+    private void adoptUncheckpointed(String symbol, BigDecimal qty) {
+        long q = FixedPoint.of(qty);
+        Position pos = position(symbol);
+        if (q <= 0 || pos.quantity() == q) return;
+        BigDecimal price = db.queryForObject("SELECT COALESCE(AVG(price), 0) FROM (SELECT price FROM trades " +
+                "WHERE symbol=? AND side='BUY' ORDER BY ts DESC LIMIT 10) t", BigDecimal.class, symbol);
+        Position fresh = new Position(costBasis);
+        fresh.buy(q, FixedPoint.of(price));
+        positions.put(symbol, fresh);
+        dirtyPositions.add(symbol);
+    }
+
+    private Position position(String symbol) {
+        return positions.computeIfAbsent(symbol, k -> new Position(costBasis));
+    }
+
+    public synchronized BigDecimal cash() {
+        ensureLoaded();
+        return cash;
+    }
+
+    public synchronized BigDecimal quantity(String symbol) {
+        ensureLoaded();
+        Position pos = positions.get(symbol);
+        return pos == null ? BigDecimal.ZERO : FixedPoint.toBigDecimal(pos.quantity());
+    }
+
+    /** A copy of the symbol's lots, for runs that trade it off the books. */
+    public synchronized Position snapshot(String symbol) {
+        ensureLoaded();
+        return position(symbol).copy();
+    }
+
+    /** The fee is paid from cash and booked as realized loss; {@code interval} is the session's, for its run. */
+    public synchronized void buy(Instant ts, String symbol, String interval, BigDecimal qty, BigDecimal price, BigDecimal fee) {
+        ensureLoaded();
+        long q = FixedPoint.of(qty), p = FixedPoint.of(price), f = FixedPoint.of(fee);
+        // journaled before the books change, under the same lock: a record the journal refuses leaves
+        // them as they were, and no reader sees the fill before it is journaled
+        journal.append(JournalEvent.FILL, JournalEvent.BUY, (byte) 0, symbol, interval, ts.toEpochMilli(), q, p, JournalEvent.NO_PNL, f);
+        applyBuy(symbol, q, p, f);
+    }
+
+    /** @return the pnl realized against the position's cost basis, net of the fee */
+    public synchronized BigDecimal sell(Instant ts, String symbol, String interval, BigDecimal qty, BigDecimal price, BigDecimal fee) {
+        ensureLoaded();
+        long q = FixedPoint.of(qty), p = FixedPoint.of(price), f = FixedPoint.of(fee);
+        // the pnl the record carries is worked out on a copy, so the books only change once it is journaled
+        Position next = position(symbol).copy();
+        long pnl = next.sell(q, p) - f;
+        next.charge(f);
+        journal.append(JournalEvent.FILL, JournalEvent.SELL, (byte) 0, symbol, interval, ts.toEpochMilli(), q, p, pnl, f);
+        positions.put(symbol, next);
+        settle(false, q, p, f);
+        dirtyPositions.add(symbol);
+        return FixedPoint.toBigDecimal(pnl);
+    }
+
+    private void applyBuy(String symbol, long qty, long price, long fee) {
+        Position pos = position(symbol);
+        pos.buy(qty, price);
+        pos.charge(fee);
+        settle(true, qty, price, fee);
+        dirtyPositions.add(symbol);
+    }
+
+    private void applySell(String symbol, long qty, long price, long fee) {
+        Position pos = position(symbol);
+        pos.sell(qty, price);
+        pos.charge(fee);
+        settle(false, qty, price, fee);
+        dirtyPositions.add(symbol);
+    }
+
+    /** Moves cash by a fill's notional and fee. */
+    private void settle(boolean buy, long qty, long price, long fee) {
+        BigDecimal notional = FixedPoint.toBigDecimal(qty).multiply(FixedPoint.toBigDecimal(price));
+        cash = (buy ? cash.subtract(notional) : cash.add(notional))
+                .subtract(FixedPoint.toBigDecimal(fee))
+                .setScale(8, RoundingMode.HALF_UP);
+        cashDirty = true;
+    }
+
+    public synchronized void recordEquity(Instant ts, String symbol, String interval, BigDecimal equity) {
+        ensureLoaded();
+        Position pos = positions.get(symbol);
+        journal.append(JournalEvent.EQUITY, (byte) 0, (byte) 0, symbol, interval, ts.toEpochMilli(),
+                FixedPoint.of(equity), pos == null ? 0 : pos.quantity(), 0);
+    }
+
+    /** Starts a new run on the symbol and interval, with a fresh equity curve; returns its id. */
+    public synchronized long startRun(String symbol, String interval, String mode) {
+        return journal.append(JournalEvent.RUN, (byte) 0, JournalEvent.modeCode(mode), symbol, interval, clock.millis(), 0, 0, 0);
+    }
+
+    /**
+     * Folds a finished backtest into the live books. Cash moves by the backtest's net change
+     * and its fills and fees are replayed into the position (positive quantities buy, negative
+     * sell), so fills booked by other sessions while it ran are kept. A sell of more than other
+     * sessions left in the position only sells what is there, and the proceeds of the rest come
+     * back out of cash; the fee stays booked. The fills are not journaled one by one; a snapshot
+     * taken right after covers them, at the seq of a {@link JournalEvent#BOOKS} event so that it
+     * is newer than any snapshot taken before them.
+     */
+    public void applyBacktest(String symbol, BigDecimal cashDelta, long[] fillQty, long[] fillPrice, long[] fillFee) {
+        synchronized (this) {
+            ensureLoaded();
+            Position pos = position(symbol);
+            long unsold = 0;
+            for (int i = 0; i < fillQty.length; i++) {
+                if (fillQty[i] > 0) {
+                    pos.buy(fillQty[i], fillPrice[i]);
+                } else {
+                    long q = Math.min(-fillQty[i], pos.quantity());
+                    if (q > 0) pos.sell(q, fillPrice[i]);
+                    unsold += FixedPoint.mul(-fillQty[i] - q, fillPrice[i]);
+                }
+                pos.charge(fillFee[i]);
+            }
+            cash = cash.add(cashDelta).subtract(FixedPoint.toBigDecimal(unsold)).setScale(8, RoundingMode.HALF_UP);
+            if (unsold > 0) {
+                log.warn("Backtest on {} sold more than the books held; {} of proceeds not booked",
+                        symbol, FixedPoint.toBigDecimal(unsold));
+            }
+            dirtyPositions.add(symbol);
+            cashDirty = true;
+            journal.append(JournalEvent.BOOKS, (byte) 0, JournalEvent.modeCode("BACKTEST"), symbol, null,
+                    clock.millis(), 0, 0, 0);
+        }
+        writeSnapshot();
+    }
+
+    /** Snapshots the books at the current journal position, so replay can start there. */
+    public void writeSnapshot() {
+        Snapshot s;
+        synchronized (this) {
+            ensureLoaded();
+            s = journal.capture(FixedPoint.of(cash), positionStates());
+        }
+        journal.write(s);
+    }
+
+    private List<Snapshot.PositionState> positionStates() {
+        List<Snapshot.PositionState> out = new ArrayList<>(positions.size());
+        positions.forEach((symbol, p) -> {
+            long[] qty = new long[p.lots()], price = new long[p.lots()];
+            for (int i = 0; i < p.lots(); i++) {
+                qty[i] = p.lotQty(i);
+                price[i] = p.lotPrice(i);
+            }
+            out.add(new Snapshot.PositionState(symbol, p.basis().name(), p.cost(), p.realizedPnl(), qty, price));
+        });
+        return out;
+    }
+
+    public synchronized BigDecimal averageEntryPrice(String symbol) {
+        ensureLoaded();
+        Position pos = positions.get(symbol);
+        return pos == null ? BigDecimal.ZERO : FixedPoint.toBigDecimal(pos.averageCost());
+    }
+
+    public synchronized BigDecimal realizedPnl(String symbol) {
+        ensureLoaded();
+        Position pos = positions.get(symbol);
+        return pos == null ? BigDecimal.ZERO : FixedPoint.toBigDecimal(pos.realizedPnl());
+    }
+
+    public synchronized BigDecimal unrealizedPnl(String symbol, BigDecimal price) {
+        ensureLoaded();
+        Position pos = positions.get(symbol);
+        return pos == null ? BigDecimal.ZERO : FixedPoint.toBigDecimal(pos.unrealizedPnl(FixedPoint.of(price)));
+    }
+
+    /** Cash and copies of the positions changed since the last drain, for the checkpoint. */
+    synchronized Batch drain() {
+        ensureLoaded();
+        Map<String, Position> changed = new HashMap<>();
+        for (String s : dirtyPositions) changed.put(s, positions.get(s).copy());
+        Batch b = new Batch(cashDirty ? cash : null, changed);
+        dirtyPositions = new HashSet<>();
+        cashDirty = false;
+        return b;
+    }
+
+    synchronized void requeue(Batch b) {
+        dirtyPositions.addAll(b.positions().keySet());
+        cashDirty |= b.cash() != null;
+    }
+
+    record Batch(BigDecimal cash, Map<String, Position> positions) {
+        boolean isEmpty() {
+            return cash == null && positions.isEmpty();
+        }
+    }
+}
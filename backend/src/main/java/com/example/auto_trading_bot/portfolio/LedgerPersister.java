@@ -0,0 +1,392 @@
+package com.example.auto_trading_bot.portfolio;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+import com.example.auto_trading_bot.dashboard.DashboardFeed;
+import com.example.auto_trading_bot.dto.RunSummary;
+import com.example.auto_trading_bot.dto.TradeDTO;
+import com.example.auto_trading_bot.journal.Journal;
+import com.example.auto_trading_bot.journal.JournalEvent;
+import com.example.auto_trading_bot.journal.Snapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Projects the {@link Journal} into Postgres: trades and equity points journaled after the
+ * stored offset go in as JDBC batches, together with the balances, the changed positions and
+ * the new offset, in one transaction per flush. A failed flush is retried from the same
+ * offset, so each event is written once. Rows go to the run their symbol and interval were
+ * on when they were journaled; a {@link JournalEvent#RUN} event opens the next one, see {@link Runs}.
+ */
+@Component
+public class LedgerPersister {
+
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(LedgerPersister.class);
+
+    private static final int MAX_EVENTS = 50_000;
+
+    private final JdbcTemplate db;
+    private final TransactionTemplate tx;
+    private final Ledger ledger;
+    private final Journal journal;
+    private final DashboardFeed feed;
+    private final EquityCurve curve;
+    private final Runs runs;
+    private final int batchSize;
+    private final long snapshotEvery;
+    private final Timer flushTimer;
+    private final DistributionSummary flushRows;
+    private final Counter roundTrips;
+
+    private volatile long projected = -1;
+    private long forced;
+    /** The run each symbol and interval is on, by {@link Runs#key}, as of {@code projected}. */
+    private Map<String, Long> current;
+    /** Metrics of the current runs and run 0, as of {@code projected}. */
+    private Map<Long, RunStats> stats;
+
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final ScheduledExecutorService exec =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("ledger-flush-"));
+
+    public LedgerPersister(JdbcTemplate db, TransactionTemplate tx, Ledger ledger, Journal journal,
+                           DashboardFeed feed, EquityCurve curve, Runs runs,
+                           @Value("${app.persist.batchSize:500}") int batchSize,
+                           @Value("${app.persist.flushMillis:1000}") long flushMillis,
+                           @Value("${app.journal.snapshotEvery:50000}") long snapshotEvery,
+                           MeterRegistry meters) {
+        this.db = db;
+        this.tx = tx;
+        this.ledger = ledger;
+        this.journal = journal;
+        this.feed = feed;
+        this.curve = curve;
+        this.runs = runs;
+        this.batchSize = batchSize;
+        this.snapshotEvery = snapshotEvery;
+        // a flush writes whatever every session journaled since the last one, so these have no symbol or interval
+        this.flushTimer = meters.timer("ledger.flush");
+        this.flushRows = DistributionSummary.builder("ledger.flush.rows").register(meters);
+        this.roundTrips = Counter.builder("ledger.jdbc.roundtrips")
+                .description("Statements and batches sent for persisted ticks; divide by bot.bars for per-tick cost")
+                .register(meters);
+        meters.gauge("ledger.pending", this, LedgerPersister::pendingCount);
+        exec.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Journal events not yet in the database. */
+    public long pendingCount() {
+        long p = projected;
+        return p < 0 ? 0 : journal.lastSeq() - p;
+    }
+
+    /** Called after each tick; schedules an async flush once a full batch is pending. */
+    public void afterTick() {
+        if (pendingCount() >= batchSize && flushQueued.compareAndSet(false, true)) {
+            exec.execute(() -> {
+                flushQueued.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    /** Blocks until everything recorded so far is in the database. */
+    public void flush() {
+        try {
+            exec.submit(this::write).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            throw new IllegalStateException("ledger flush failed", e.getCause());
+        }
+    }
+
+    /** Starts a run on the symbol and waits until its partitions exist; returns its id. */
+    public long startRun(String symbol, String interval, String mode) {
+        long run = ledger.startRun(symbol, interval, mode);
+        flush();
+        return run;
+    }
+
+    /**
+     * Stores metrics computed off the journal, as a backtest does for the rows it bulk-loads,
+     * and pushes them.
+     */
+    public void recordStats(long run, RunStats s) {
+        try {
+            exec.submit(() -> {
+                write();
+                tx.executeWithoutResult(status -> runs.saveStats(Map.of(run, s)));
+                if (stats.containsKey(run)) stats.put(run, s);
+                feed.metrics(List.of(s.summary(run)));
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            throw new IllegalStateException("storing metrics of run " + run + " failed", e.getCause());
+        }
+    }
+
+    /** Drops a finished run's trades and equity; run 0 and runs a symbol and interval are still on are kept. */
+    public void dropRun(long run) {
+        try {
+            exec.submit(() -> {
+                write();
+                if (run == 0 || current.containsValue(run)) {
+                    throw new IllegalArgumentException("run " + run + " is in use");
+                }
+                tx.executeWithoutResult(status -> runs.drop(run));
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (java.util.concurrent.ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException iae) throw iae;
+            throw new IllegalStateException("dropping run " + run + " failed", e.getCause());
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            write();
+        } catch (Exception e) {
+            log.warn("Ledger flush failed: {}", e.toString());
+        }
+    }
+
+    private synchronized void write() {
+        if (projected < 0) {
+            curve.backfill(); // before this flush adds rollups of its own
+            ledger.cash(); // loading the ledger may move the offset
+            projected = db.queryForObject("SELECT seq FROM journal_offset WHERE id=1", Long.class);
+            current = runs.current();
+            Set<Long> live = new HashSet<>(current.values());
+            live.add(0L);
+            stats = runs.stats(live);
+        }
+        while (true) {
+            Projection p = new Projection(current, stats);
+            long to = journal.read(projected, MAX_EVENTS, p::add);
+            Ledger.Batch b = ledger.drain();
+            if (to == projected && b.isEmpty()) break;
+            long t0 = System.nanoTime();
+            List<TradeDTO> trades;
+            try {
+                trades = writeBatch(p, b, to);
+            } catch (RuntimeException e) {
+                ledger.requeue(b);
+                throw e;
+            }
+            projected = to;
+            current = p.current;
+            stats.putAll(p.stats);
+            if (!p.runs.isEmpty()) stats.keySet().removeIf(run -> run != 0 && !current.containsValue(run));
+            flushTimer.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+            flushRows.record(p.fills.size() + p.equity.size());
+            roundTrips.increment(5 * p.runs.size() + (p.stats.isEmpty() ? 0 : 1) + (p.fills.isEmpty() ? 0 : 1) + batches(p.equity.size())
+                    + (p.equity.isEmpty() ? 0 : 1) + (b.cash() != null ? 1 : 0) + (b.positions().isEmpty() ? 0 : 4)
+                    + 2); // the offset and the commit
+            log.debug("Flushed ledger fills={} equity={} offset={}", p.fills.size(), p.equity.size(), to);
+            // only committed rows are pushed, so a client catching up with since= never sees them twice
+            feed.trades(trades);
+            feed.equity(p.equity);
+            feed.metrics(summaries(p.stats));
+        }
+        long last = journal.lastSeq();
+        if (last != forced) {
+            journal.force();
+            forced = last;
+        }
+        Snapshot snap = journal.latestSnapshot();
+        if (snap == null || last - snap.seq() >= snapshotEvery) {
+            ledger.writeSnapshot();
+            snap = journal.latestSnapshot();
+        }
+        journal.deleteBefore(Math.min(snap.seq(), projected));
+    }
+
+    private int batches(int rows) {
+        return (rows + batchSize - 1) / batchSize;
+    }
+
+    private List<TradeDTO> writeBatch(Projection p, Ledger.Batch b, long offset) {
+        return tx.execute(status -> {
+            for (JournalEvent r : p.runs) {
+                runs.open(r.seq(), r.symbol(), r.interval(), JournalEvent.mode(r.mode()), Instant.ofEpochMilli(r.ts()));
+            }
+            List<TradeDTO> trades = p.fills.isEmpty() ? List.of() : insertTrades(p.fills);
+            if (!p.equity.isEmpty()) {
+                db.batchUpdate("INSERT INTO equity_curve(run_id,ts,symbol,equity) VALUES (?,?,?,?)",
+                        p.equity, batchSize, (ps, e) -> {
+                            ps.setLong(1, e.runId());
+                            ps.setTimestamp(2, Timestamp.from(e.ts()));
+                            ps.setString(3, e.symbol());
+                            ps.setBigDecimal(4, e.equity());
+                        });
+                EquityCurve.Rollup rollup = curve.rollup();
+                for (EquitySample e : p.equity) {
+                    rollup.add(e.runId(), e.symbol(), e.ts().toEpochMilli(), FixedPoint.of(e.equity()));
+                }
+                curve.write(rollup);
+            }
+            runs.saveStats(p.stats);
+            if (b.cash() != null) db.update("UPDATE account SET cash_balance=?", b.cash());
+            if (!b.positions().isEmpty()) checkpoint(b.positions());
+            db.update("UPDATE journal_offset SET seq=? WHERE id=1", offset);
+            if (!p.runs.isEmpty()) runs.retire(p.current.values());
+            return trades;
+        });
+    }
+
+    private static List<RunSummary> summaries(Map<Long, RunStats> stats) {
+        List<RunSummary> out = new ArrayList<>(stats.size());
+        stats.forEach((run, s) -> out.add(s.summary(run)));
+        return out;
+    }
+
+    /**
+     * Trade and equity rows of a stretch of journal events, each tagged with the run of its
+     * symbol and interval, and the metrics of the runs they touched, updated on copies until
+     * the batch commits.
+     */
+    static final class Projection {
+        final List<Fill> fills = new ArrayList<>();
+        final List<EquitySample> equity = new ArrayList<>();
+        final List<JournalEvent> runs = new ArrayList<>();
+        final Map<String, Long> current;
+        final Map<Long, RunStats> stats = new HashMap<>();
+        private final Map<Long, RunStats> committed;
+
+        Projection(Map<String, Long> current, Map<Long, RunStats> committed) {
+            this.current = new HashMap<>(current);
+            this.committed = committed;
+        }
+
+        private RunStats stats(long run) {
+            return stats.computeIfAbsent(run, r -> {
+                RunStats s = committed.get(r);
+                return s == null ? new RunStats(null, null) : s.copy();
+            });
+        }
+
+        /** Events journaled before fills and equity carried an interval go to the symbol's newest run. */
+        private long run(JournalEvent e) {
+            if (e.interval() != null) return current.getOrDefault(Runs.key(e.symbol(), e.interval()), 0L);
+            String prefix = Runs.key(e.symbol(), "");
+            long run = 0;
+            for (Map.Entry<String, Long> c : current.entrySet()) {
+                if (c.getKey().startsWith(prefix)) run = Math.max(run, c.getValue());
+            }
+            return run;
+        }
+
+        void add(JournalEvent e) {
+            long run = run(e);
+            switch (e.type()) {
+                case JournalEvent.FILL -> {
+                    fills.add(new Fill(run, Instant.ofEpochMilli(e.ts()), e.symbol(),
+                            e.flag() == JournalEvent.BUY ? "BUY" : "SELL",
+                            FixedPoint.toBigDecimal(e.a()), FixedPoint.toBigDecimal(e.b()), FixedPoint.toBigDecimal(e.d()),
+                            e.c() == JournalEvent.NO_PNL ? null : FixedPoint.toBigDecimal(e.c())));
+                    stats(run).fill(e.c());
+                }
+                case JournalEvent.EQUITY -> {
+                    equity.add(new EquitySample(run, Instant.ofEpochMilli(e.ts()), e.symbol(),
+                            FixedPoint.toBigDecimal(e.a())));
+                    stats(run).equity(e.a(), e.b() != 0);
+                }
+                case JournalEvent.RUN -> {
+                    runs.add(e);
+                    current.put(Runs.key(e.symbol(), e.interval()), e.seq());
+                    stats.put(e.seq(), new RunStats(e.symbol(), e.interval()));
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    /** Holdings plus the full lot list of each changed position; lots are rewritten, not diffed. */
+    private void checkpoint(Map<String, Position> positions) {
+        List<Object[]> holdings = new ArrayList<>();
+        List<Object[]> totals = new ArrayList<>();
+        List<Object[]> lots = new ArrayList<>();
+        positions.forEach((symbol, p) -> {
+            holdings.add(new Object[]{symbol, FixedPoint.toBigDecimal(p.quantity())});
+            totals.add(new Object[]{symbol, FixedPoint.toBigDecimal(p.cost()), FixedPoint.toBigDecimal(p.realizedPnl())});
+            for (int i = 0; i < p.lots(); i++) {
+                lots.add(new Object[]{symbol, i, FixedPoint.toBigDecimal(p.lotQty(i)), FixedPoint.toBigDecimal(p.lotPrice(i))});
+            }
+        });
+        db.batchUpdate("INSERT INTO holdings(symbol,quantity) VALUES (?,?) " +
+                "ON CONFLICT (symbol) DO UPDATE SET quantity=EXCLUDED.quantity", holdings);
+        db.batchUpdate("INSERT INTO positions(symbol,cost,realized_pnl) VALUES (?,?,?) " +
+                "ON CONFLICT (symbol) DO UPDATE SET cost=EXCLUDED.cost, realized_pnl=EXCLUDED.realized_pnl", totals);
+        db.batchUpdate("DELETE FROM position_lots WHERE symbol=?", holdings.stream().map(h -> new Object[]{h[0]}).toList());
+        if (!lots.isEmpty()) db.batchUpdate("INSERT INTO position_lots(symbol,seq,qty,price) VALUES (?,?,?,?)", lots);
+    }
+
+    /** One batch; the generated ids become the trades' {@code since=} cursor. */
+    private List<TradeDTO> insertTrades(List<Fill> fills) {
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        db.batchUpdate(con -> con.prepareStatement(
+                        "INSERT INTO trades(run_id,ts,symbol,side,qty,price,fee,pnl) VALUES (?,?,?,?,?,?,?,?)", new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws java.sql.SQLException {
+                        Fill f = fills.get(i);
+                        ps.setLong(1, f.runId());
+                        ps.setTimestamp(2, Timestamp.from(f.ts()));
+                        ps.setString(3, f.symbol());
+                        ps.setString(4, f.side());
+                        ps.setBigDecimal(5, f.qty());
+                        ps.setBigDecimal(6, f.price());
+                        ps.setBigDecimal(7, f.fee());
+                        ps.setBigDecimal(8, f.pnl());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return fills.size();
+                    }
+                }, keys);
+        List<TradeDTO> out = new ArrayList<>(fills.size());
+        List<java.util.Map<String, Object>> ids = keys.getKeyList();
+        for (int i = 0; i < fills.size(); i++) {
+            Fill f = fills.get(i);
+            out.add(new TradeDTO(((Number) ids.get(i).get("id")).longValue(), f.runId(), f.ts(), f.symbol(), f.side(),
+                    f.qty(), f.price(), f.fee(), f.pnl()));
+        }
+        return out;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushQuietly();
+        exec.shutdown();
+    }
+}
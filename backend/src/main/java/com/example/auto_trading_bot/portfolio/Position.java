@@ -0,0 +1,140 @@
+package com.example.auto_trading_bot.portfolio;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+
+import java.util.Arrays;
+
+/**
+ * Open lots of one symbol on fixed-point longs, oldest first, with running cost and realized
+ * pnl. Buys append a lot; FIFO sells consume the oldest lots, AVERAGE sells remove cost at the
+ * current average. Both are O(1) amortized. Not thread-safe; {@link Ledger} guards its own.
+ */
+public final class Position {
+
+    public enum CostBasis { FIFO, AVERAGE }
+
+    private final CostBasis basis;
+    private long[] lotQty = new long[8];
+    private long[] lotPrice = new long[8];
+    private int head;
+    private int size;
+
+    private long quantity;
+    private long cost;
+    private long realized;
+
+    public Position(CostBasis basis) {
+        this.basis = basis;
+    }
+
+    public CostBasis basis() { return basis; }
+    public long quantity() { return quantity; }
+    public long cost() { return cost; }
+    public long realizedPnl() { return realized; }
+
+    public long averageCost() {
+        return quantity == 0 ? 0 : FixedPoint.div(cost, quantity);
+    }
+
+    public long unrealizedPnl(long price) {
+        return FixedPoint.mul(quantity, price) - cost;
+    }
+
+    public int lots() { return size; }
+    public long lotQty(int i) { return lotQty[(head + i) & (lotQty.length - 1)]; }
+    public long lotPrice(int i) { return lotPrice[(head + i) & (lotQty.length - 1)]; }
+
+    public void buy(long qty, long price) {
+        if (qty <= 0) throw new IllegalArgumentException("buy quantity must be positive");
+        if (size == lotQty.length) grow();
+        int t = (head + size) & (lotQty.length - 1);
+        lotQty[t] = qty;
+        lotPrice[t] = price;
+        size++;
+        quantity += qty;
+        cost += FixedPoint.mul(qty, price);
+    }
+
+    /** @return the pnl realized by this sale */
+    public long sell(long qty, long price) {
+        if (qty <= 0 || qty > quantity) {
+            throw new IllegalArgumentException("sell quantity " + qty + " outside position " + quantity);
+        }
+        long removed = basis == CostBasis.FIFO ? consumeOldest(qty) : consumeAverage(qty);
+        quantity -= qty;
+        cost -= removed;
+        long pnl = FixedPoint.mul(qty, price) - removed;
+        realized += pnl;
+        return pnl;
+    }
+
+    private long consumeOldest(long qty) {
+        int mask = lotQty.length - 1;
+        long removed = 0;
+        long left = qty;
+        while (left > 0) {
+            long q = lotQty[head], p = lotPrice[head];
+            if (q <= left) {
+                removed += FixedPoint.mul(q, p);
+                left -= q;
+                head = (head + 1) & mask;
+                size--;
+            } else {
+                // keeps cost equal to the sum of the remaining lots' own products
+                removed += FixedPoint.mul(q, p) - FixedPoint.mul(q - left, p);
+                lotQty[head] = q - left;
+                left = 0;
+            }
+        }
+        return removed;
+    }
+
+    /** Collapses the lots into one at the average cost, so checkpoints stay small. */
+    private long consumeAverage(long qty) {
+        long removed = qty == quantity ? cost : FixedPoint.mul(cost, FixedPoint.div(qty, quantity));
+        long rest = quantity - qty;
+        head = 0;
+        size = 0;
+        if (rest > 0) {
+            lotQty[0] = rest;
+            lotPrice[0] = FixedPoint.div(cost - removed, rest);
+            size = 1;
+        }
+        return removed;
+    }
+
+    private void grow() {
+        int n = lotQty.length;
+        long[] q = new long[n * 2], p = new long[n * 2];
+        for (int i = 0; i < size; i++) {
+            q[i] = lotQty[(head + i) & (n - 1)];
+            p[i] = lotPrice[(head + i) & (n - 1)];
+        }
+        lotQty = q;
+        lotPrice = p;
+        head = 0;
+    }
+
+    /** Books a fee as realized loss; the lots keep their trade prices. */
+    public void charge(long fee) {
+        realized -= fee;
+    }
+
+    /** Restores checkpointed totals after the lots have been re-added with {@link #buy}. */
+    void restore(long cost, long realized) {
+        this.cost = cost;
+        this.realized = realized;
+    }
+
+    public Position copy() {
+        Position c = new Position(basis);
+        c.lotQty = Arrays.copyOf(lotQty, lotQty.length);
+        c.lotPrice = Arrays.copyOf(lotPrice, lotPrice.length);
+        c.head = head;
+        c.size = size;
+        c.quantity = quantity;
+        c.cost = cost;
+        c.realized = realized;
+        return c;
+    }
+}
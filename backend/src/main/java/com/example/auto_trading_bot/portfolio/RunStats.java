@@ -0,0 +1,123 @@
+package com.example.auto_trading_bot.portfolio;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+import com.example.auto_trading_bot.dto.RunSummary;
+import com.example.auto_trading_bot.journal.JournalEvent;
+import com.example.auto_trading_bot.market.Intervals;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Risk and performance figures of one run, updated in O(1) per equity point and per fill:
+ * running peak and drawdown, Welford's mean and variance of the point-to-point returns,
+ * closed-trade wins and losses, and how many points were spent holding a position. The raw
+ * accumulators are stored with the run, so nothing is rescanned to report or resume them.
+ */
+public final class RunStats {
+
+    private static final double YEAR_MS = 365 * 86_400_000d; // crypto trades every day
+
+    final String symbol;
+    final String interval;
+
+    long points;
+    long exposed;
+    long first;
+    long last;
+    long peak;
+    double maxDrawdown;
+
+    long returns;
+    double mean;
+    double m2;
+
+    long fills;
+    long wins;
+    long losses;
+    long grossProfit;
+    long grossLoss;
+
+    public RunStats(String symbol, String interval) {
+        this.symbol = symbol;
+        this.interval = interval;
+    }
+
+    /** @param holding whether the run held a position at this point */
+    public void equity(long equity, boolean holding) {
+        if (points == 0) {
+            first = equity;
+            peak = equity;
+        } else if (last > 0) {
+            double r = (equity - last) / (double) last;
+            returns++;
+            double d = r - mean;
+            mean += d / returns;
+            m2 += d * (r - mean);
+        }
+        points++;
+        if (holding) exposed++;
+        last = equity;
+        if (equity > peak) peak = equity;
+        else if (peak > 0) maxDrawdown = Math.max(maxDrawdown, (peak - equity) / (double) peak);
+    }
+
+    /** @param pnl realized pnl net of the fee, or {@link JournalEvent#NO_PNL} for an opening fill */
+    public void fill(long pnl) {
+        fills++;
+        if (pnl == JournalEvent.NO_PNL) return;
+        if (pnl > 0) {
+            wins++;
+            grossProfit += pnl;
+        } else {
+            losses++;
+            grossLoss -= pnl;
+        }
+    }
+
+    public RunStats copy() {
+        RunStats c = new RunStats(symbol, interval);
+        c.points = points;
+        c.exposed = exposed;
+        c.first = first;
+        c.last = last;
+        c.peak = peak;
+        c.maxDrawdown = maxDrawdown;
+        c.returns = returns;
+        c.mean = mean;
+        c.m2 = m2;
+        c.fills = fills;
+        c.wins = wins;
+        c.losses = losses;
+        c.grossProfit = grossProfit;
+        c.grossLoss = grossLoss;
+        return c;
+    }
+
+    /** Per-point Sharpe ratio annualized by the run's bar length, with no risk-free rate; null until defined. */
+    Double sharpe() {
+        if (returns < 2 || interval == null) return null;
+        double sd = Math.sqrt(m2 / (returns - 1));
+        if (sd == 0) return null;
+        return mean / sd * Math.sqrt(YEAR_MS / Intervals.millis(interval));
+    }
+
+    public RunSummary summary(long run) {
+        Double sharpe = sharpe();
+        long closed = wins + losses;
+        return new RunSummary(run, symbol, interval, points,
+                FixedPoint.toBigDecimal(first), FixedPoint.toBigDecimal(last),
+                points == 0 || first == 0 ? null : pct((last - first) / (double) first),
+                pct(maxDrawdown),
+                peak == 0 ? null : pct((peak - last) / (double) peak),
+                sharpe == null ? null : BigDecimal.valueOf(sharpe).setScale(4, RoundingMode.HALF_UP),
+                fills, wins, losses,
+                closed == 0 ? null : pct(wins / (double) closed),
+                grossLoss == 0 ? null : BigDecimal.valueOf(grossProfit).divide(BigDecimal.valueOf(grossLoss), 4, RoundingMode.HALF_UP),
+                points == 0 ? null : pct(exposed / (double) points));
+    }
+
+    private static BigDecimal pct(double fraction) {
+        return BigDecimal.valueOf(fraction * 100).setScale(4, RoundingMode.HALF_UP);
+    }
+}
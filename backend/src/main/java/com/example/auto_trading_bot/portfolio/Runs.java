@@ -0,0 +1,157 @@
+package com.example.auto_trading_bot.portfolio;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+import com.example.auto_trading_bot.dto.RunDTO;
+import com.example.auto_trading_bot.dto.RunSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code runs} table and the per-run partitions of trades, equity and rollups. A run is
+ * identified by the journal sequence number of the event that started it. Only the newest
+ * {@code app.runs.keep} runs are kept, plus whatever run a symbol and interval are currently on; older ones
+ * are dropped a partition at a time instead of deleted row by row. Each row also keeps the
+ * run's {@link RunStats}. Writes join the caller's transaction.
+ */
+@Component
+public class Runs {
+
+    private static final org.slf4j.Logger log =
+            org.slf4j.LoggerFactory.getLogger(Runs.class);
+
+    /** Tables partitioned by run, each with a {@code <table>_r<id>} partition per run. */
+    static final String[] PARTITIONED = {"trades", "equity_curve", "equity_rollup"};
+
+    private final JdbcTemplate db;
+    private final int keep;
+
+    public Runs(JdbcTemplate db, @Value("${app.runs.keep:50}") int keep) {
+        if (keep < 1) throw new IllegalArgumentException("app.runs.keep must be at least 1");
+        this.db = db;
+        this.keep = keep;
+    }
+
+    public static String partition(String table, long run) {
+        return table + "_r" + run;
+    }
+
+    /** What {@link #current()} is keyed by. */
+    static String key(String symbol, String interval) {
+        return symbol + "|" + interval;
+    }
+
+    /** The run each symbol and interval is on, as stored, by {@link #key}. */
+    Map<String, Long> current() {
+        Map<String, Long> out = new HashMap<>();
+        db.query("SELECT DISTINCT ON (symbol, interval) symbol, interval, id FROM runs WHERE symbol IS NOT NULL "
+                        + "ORDER BY symbol, interval, id DESC",
+                rs -> { out.put(key(rs.getString(1), rs.getString(2)), rs.getLong(3)); });
+        return out;
+    }
+
+    /** Adds the run and its partitions, and ends the run its symbol and interval were on before. */
+    void open(long run, String symbol, String interval, String mode, Instant startedAt) {
+        Timestamp ts = Timestamp.from(startedAt);
+        db.update("UPDATE runs SET ended_at=? WHERE symbol=? AND interval=? AND ended_at IS NULL", ts, symbol, interval);
+        db.update("INSERT INTO runs(id,symbol,interval,mode,started_at) VALUES (?,?,?,?,?) ON CONFLICT DO NOTHING",
+                run, symbol, interval, mode, ts);
+        for (String t : PARTITIONED) {
+            db.execute("CREATE TABLE IF NOT EXISTS " + partition(t, run) + " PARTITION OF " + t
+                    + " FOR VALUES IN (" + run + ")");
+        }
+    }
+
+    /** Drops the runs past the newest {@code keep}, except run 0 and the ones in {@code active}. */
+    void retire(Collection<Long> active) {
+        List<Long> old = db.queryForList("SELECT id FROM runs WHERE id > 0 ORDER BY id DESC OFFSET ?", Long.class, keep);
+        for (long run : old) {
+            if (!active.contains(run)) drop(run);
+        }
+    }
+
+    void drop(long run) {
+        for (String t : PARTITIONED) db.execute("DROP TABLE IF EXISTS " + partition(t, run));
+        db.update("DELETE FROM runs WHERE id=?", run);
+        log.info("Dropped run {}", run);
+    }
+
+    private static final String STATS = "symbol, interval, points, exposed, first_equity, last_equity, peak_equity, "
+            + "max_drawdown, returns, return_mean, return_m2, fills, wins, losses, gross_profit, gross_loss";
+
+    /** The stored metrics of these runs; runs that do not exist are left out. */
+    Map<Long, RunStats> stats(Collection<Long> ids) {
+        Map<Long, RunStats> out = new HashMap<>();
+        if (ids.isEmpty()) return out;
+        db.query("SELECT id, " + STATS + " FROM runs WHERE id = ANY(?)",
+                rs -> { out.put(rs.getLong(1), stats(rs)); }, (Object) ids.toArray(new Long[0]));
+        return out;
+    }
+
+    private static RunStats stats(java.sql.ResultSet rs) throws java.sql.SQLException {
+        RunStats s = new RunStats(rs.getString(2), rs.getString(3));
+        s.points = rs.getLong(4);
+        s.exposed = rs.getLong(5);
+        s.first = FixedPoint.of(rs.getBigDecimal(6));
+        s.last = FixedPoint.of(rs.getBigDecimal(7));
+        s.peak = FixedPoint.of(rs.getBigDecimal(8));
+        s.maxDrawdown = rs.getDouble(9);
+        s.returns = rs.getLong(10);
+        s.mean = rs.getDouble(11);
+        s.m2 = rs.getDouble(12);
+        s.fills = rs.getLong(13);
+        s.wins = rs.getLong(14);
+        s.losses = rs.getLong(15);
+        s.grossProfit = FixedPoint.of(rs.getBigDecimal(16));
+        s.grossLoss = FixedPoint.of(rs.getBigDecimal(17));
+        return s;
+    }
+
+    void saveStats(Map<Long, RunStats> stats) {
+        if (stats.isEmpty()) return;
+        db.batchUpdate("UPDATE runs SET points=?, exposed=?, first_equity=?, last_equity=?, peak_equity=?, max_drawdown=?, "
+                        + "returns=?, return_mean=?, return_m2=?, fills=?, wins=?, losses=?, gross_profit=?, gross_loss=? WHERE id=?",
+                stats.entrySet().stream().map(e -> {
+                    RunStats s = e.getValue();
+                    return new Object[]{s.points, s.exposed, FixedPoint.toBigDecimal(s.first), FixedPoint.toBigDecimal(s.last),
+                            FixedPoint.toBigDecimal(s.peak), s.maxDrawdown, s.returns, s.mean, s.m2, s.fills, s.wins, s.losses,
+                            FixedPoint.toBigDecimal(s.grossProfit), FixedPoint.toBigDecimal(s.grossLoss), e.getKey()};
+                }).toList());
+    }
+
+    /** One row read, whatever the run's size. */
+    public RunSummary summary(long run) {
+        List<RunStats> s = db.query("SELECT 0, " + STATS + " FROM runs WHERE id=?", (rs, i) -> stats(rs), run);
+        if (s.isEmpty()) throw new IllegalArgumentException("no run " + run);
+        return s.get(0).summary(run);
+    }
+
+    public List<RunDTO> list() {
+        return db.query("SELECT id, symbol, interval, mode, started_at, ended_at FROM runs ORDER BY id DESC",
+                (rs, i) -> new RunDTO(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getTimestamp(5).toInstant(),
+                        rs.getTimestamp(6) == null ? null : rs.getTimestamp(6).toInstant()));
+    }
+
+    /** The latest stored run on the symbol and interval, or on any interval if it is null; 0 if there is none. */
+    public long latest(String symbol, String interval) {
+        Long run = interval == null
+                ? db.queryForObject("SELECT max(id) FROM runs WHERE symbol=?", Long.class, symbol)
+                : db.queryForObject("SELECT max(id) FROM runs WHERE symbol=? AND interval=?", Long.class, symbol, interval);
+        return run == null ? 0 : run;
+    }
+
+    /** The run's symbol; null for run 0, which may hold several. */
+    public String symbol(long run) {
+        List<String> s = db.queryForList("SELECT symbol FROM runs WHERE id=?", String.class, run);
+        if (s.isEmpty()) throw new IllegalArgumentException("no run " + run);
+        return s.get(0);
+    }
+}
@@ -15,24 +15,143 @@ quantity NUMERIC(18,8) NOT NULL DEFAULT 0
 CREATE UNIQUE INDEX IF NOT EXISTS ux_holdings_symbol ON holdings(symbol);
 
 
+-- checkpoint of the ledger's per-symbol positions: open lots oldest first, running cost and realized pnl
+CREATE TABLE IF NOT EXISTS positions (
+symbol VARCHAR(20) PRIMARY KEY,
+cost NUMERIC(18,8) NOT NULL DEFAULT 0,
+realized_pnl NUMERIC(18,8) NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS position_lots (
+symbol VARCHAR(20) NOT NULL,
+seq INT NOT NULL,
+qty NUMERIC(18,8) NOT NULL,
+price NUMERIC(18,8) NOT NULL,
+PRIMARY KEY (symbol, seq)
+);
+
+
+-- one row per trading run, keyed by the journal sequence number that started it. Trades, equity
+-- and rollups of a run live in its own partitions (<table>_r<id>), so a run is dropped as a
+-- whole; run 0 holds rows written before runs existed.
+CREATE TABLE IF NOT EXISTS runs (
+id BIGINT PRIMARY KEY,
+symbol VARCHAR(20),
+interval VARCHAR(8),
+mode VARCHAR(8),
+started_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+ended_at TIMESTAMPTZ
+);
+INSERT INTO runs (id) VALUES (0)
+ON CONFLICT DO NOTHING;
+
+-- a run's streaming metrics, as the raw accumulators they are updated from (see RunStats)
+ALTER TABLE runs
+ADD COLUMN IF NOT EXISTS points BIGINT NOT NULL DEFAULT 0,
+ADD COLUMN IF NOT EXISTS exposed BIGINT NOT NULL DEFAULT 0,
+ADD COLUMN IF NOT EXISTS first_equity NUMERIC(18,8) NOT NULL DEFAULT 0,
+ADD COLUMN IF NOT EXISTS last_equity NUMERIC(18,8) NOT NULL DEFAULT 0,
+ADD COLUMN IF NOT EXISTS peak_equity NUMERIC(18,8) NOT NULL DEFAULT 0,
+ADD COLUMN IF NOT EXISTS max_drawdown DOUBLE PRECISION NOT NULL DEFAULT 0,
+ADD COLUMN IF NOT EXISTS returns BIGINT NOT NULL DEFAULT 0,
+ADD COLUMN IF NOT EXISTS return_mean DOUBLE PRECISION NOT NULL DEFAULT 0,
+ADD COLUMN IF NOT EXISTS return_m2 DOUBLE PRECISION NOT NULL DEFAULT 0,
+ADD COLUMN IF NOT EXISTS fills BIGINT NOT NULL DEFAULT 0,
+ADD COLUMN IF NOT EXISTS wins BIGINT NOT NULL DEFAULT 0,
+ADD COLUMN IF NOT EXISTS losses BIGINT NOT NULL DEFAULT 0,
+ADD COLUMN IF NOT EXISTS gross_profit NUMERIC(18,8) NOT NULL DEFAULT 0,
+ADD COLUMN IF NOT EXISTS gross_loss NUMERIC(18,8) NOT NULL DEFAULT 0;
+
+-- trades and equity_curve used to be plain tables: set them aside to be copied into run 0
+DO '
+BEGIN
+  IF (SELECT relkind FROM pg_class WHERE oid = to_regclass(''trades'')) = ''r'' THEN
+    ALTER TABLE trades RENAME TO trades_unpartitioned;
+    ALTER TABLE trades_unpartitioned RENAME CONSTRAINT trades_pkey TO trades_unpartitioned_pkey;
+    ALTER TABLE trades_unpartitioned RENAME CONSTRAINT trades_side_check TO trades_unpartitioned_side_check;
+  END IF;
+  IF (SELECT relkind FROM pg_class WHERE oid = to_regclass(''equity_curve'')) = ''r'' THEN
+    ALTER TABLE equity_curve RENAME TO equity_curve_unpartitioned;
+  END IF;
+  IF (SELECT relkind FROM pg_class WHERE oid = to_regclass(''equity_rollup'')) = ''r'' THEN
+    DROP TABLE equity_rollup;
+  END IF;
+END';
+
+
+-- ids stay global and increasing across runs: they are the trades' since= cursor
+CREATE SEQUENCE IF NOT EXISTS trades_id_seq;
 CREATE TABLE IF NOT EXISTS trades (
-id BIGSERIAL PRIMARY KEY,
+id BIGINT NOT NULL DEFAULT nextval('trades_id_seq'),
+run_id BIGINT NOT NULL,
 ts TIMESTAMPTZ NOT NULL DEFAULT NOW(),
 symbol VARCHAR(20) NOT NULL,
 side VARCHAR(4) NOT NULL CHECK (side IN ('BUY','SELL')),
 qty NUMERIC(18,8) NOT NULL,
 price NUMERIC(18,8) NOT NULL,
 fee NUMERIC(18,8) NOT NULL DEFAULT 0,
-pnl NUMERIC(18,8)
-);
-CREATE INDEX IF NOT EXISTS ix_trades_symbol_ts ON trades(symbol, ts);
+pnl NUMERIC(18,8),
+PRIMARY KEY (run_id, id)
+) PARTITION BY LIST (run_id);
+CREATE INDEX IF NOT EXISTS ix_trades_id ON trades(id);
+CREATE INDEX IF NOT EXISTS ix_trades_ts ON trades(ts);
+CREATE TABLE IF NOT EXISTS trades_r0 PARTITION OF trades FOR VALUES IN (0);
 
 
 CREATE TABLE IF NOT EXISTS equity_curve (
+run_id BIGINT NOT NULL,
 ts TIMESTAMPTZ NOT NULL,
+symbol VARCHAR(20) NOT NULL,
 equity NUMERIC(18,8) NOT NULL
+) PARTITION BY LIST (run_id);
+CREATE INDEX IF NOT EXISTS ix_equity_curve_symbol_ts ON equity_curve(symbol, ts);
+CREATE TABLE IF NOT EXISTS equity_curve_r0 PARTITION OF equity_curve FOR VALUES IN (0);
+
+
+-- first/last/min/max of equity_curve per run, symbol and fixed bucket size, kept up to date on write
+CREATE TABLE IF NOT EXISTS equity_rollup (
+run_id BIGINT NOT NULL,
+symbol VARCHAR(20) NOT NULL,
+res_ms BIGINT NOT NULL,
+bucket TIMESTAMPTZ NOT NULL,
+first_ts TIMESTAMPTZ NOT NULL,
+first_equity NUMERIC(18,8) NOT NULL,
+last_ts TIMESTAMPTZ NOT NULL,
+last_equity NUMERIC(18,8) NOT NULL,
+min_ts TIMESTAMPTZ NOT NULL,
+min_equity NUMERIC(18,8) NOT NULL,
+max_ts TIMESTAMPTZ NOT NULL,
+max_equity NUMERIC(18,8) NOT NULL,
+points INT NOT NULL,
+PRIMARY KEY (run_id, symbol, res_ms, bucket)
+) PARTITION BY LIST (run_id);
+CREATE TABLE IF NOT EXISTS equity_rollup_r0 PARTITION OF equity_rollup FOR VALUES IN (0);
+
+
+DO '
+BEGIN
+  IF to_regclass(''trades_unpartitioned'') IS NOT NULL THEN
+    INSERT INTO trades (id, run_id, ts, symbol, side, qty, price, fee, pnl)
+    SELECT id, 0, ts, symbol, side, qty, price, fee, pnl FROM trades_unpartitioned;
+    ALTER SEQUENCE trades_id_seq OWNED BY NONE;
+    DROP TABLE trades_unpartitioned;
+  END IF;
+  IF to_regclass(''equity_curve_unpartitioned'') IS NOT NULL THEN
+    INSERT INTO equity_curve (run_id, ts, symbol, equity)
+    SELECT 0, ts, symbol, equity FROM equity_curve_unpartitioned WHERE symbol IS NOT NULL;
+    DROP TABLE equity_curve_unpartitioned;
+  END IF;
+END';
+
+
+-- last journal sequence number projected into the tables above
+CREATE TABLE IF NOT EXISTS journal_offset (
+id INT PRIMARY KEY,
+seq BIGINT NOT NULL
 );
-CREATE INDEX IF NOT EXISTS ix_equity_ts ON equity_curve(ts);
+INSERT INTO journal_offset (id, seq) VALUES (1, 0)
+ON CONFLICT DO NOTHING;
+
 
 
 
@@ -43,4 +162,11 @@ ON CONFLICT DO NOTHING;
 
 
 INSERT INTO holdings (symbol, quantity) VALUES ('BTCUSDT', 0)
-ON CONFLICT (symbol) DO NOTHING;
\ No newline at end of file
+ON CONFLICT (symbol) DO NOTHING;
+
+-- hash of the schema.sql that last ran here; startup skips this script while it matches
+CREATE TABLE IF NOT EXISTS schema_version (
+id INT PRIMARY KEY,
+hash VARCHAR(64) NOT NULL,
+applied_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
@@ -3,7 +3,7 @@ package com.example.auto_trading_bot;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {"app.journal.dir=build/test-journal", "app.journal.resumeSessions=false"})
 class AutoTradingBotApplicationTests {
 
 	@Test
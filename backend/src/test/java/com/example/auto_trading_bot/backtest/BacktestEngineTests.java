@@ -0,0 +1,75 @@
+package com.example.auto_trading_bot.backtest;
+
+import com.example.auto_trading_bot.bot.StrategyParams;
+import com.example.auto_trading_bot.bot.StrategyRegistry;
+import com.example.auto_trading_bot.bot.TradingStrategy;
+import com.example.auto_trading_bot.execution.ExecutionParams;
+import com.example.auto_trading_bot.market.CandleSeries;
+import com.example.auto_trading_bot.portfolio.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.example.auto_trading_bot.common.FixedPoint.of;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BacktestEngineTests {
+
+	static final BacktestEngine ENGINE = new BacktestEngine(
+			new StrategyRegistry(List.of(new TradingStrategy()), "sma", List.of()), ExecutionParams.NAIVE);
+
+	/** The warm-up and one more bar at 100, then 125, 125 and 80: a hold, two buys and a sell. */
+	static CandleSeries rally() {
+		CandleSeries.Builder b = CandleSeries.builder(34);
+		for (int i = 0; i < 34; i++) {
+			long c = of(i <= 30 ? 100 : i <= 32 ? 125 : 80);
+			b.append(i * 60_000L, c, c, c, c, of(1));
+		}
+		return b.build();
+	}
+
+	@Test
+	void tradesTheLiveRuleOnTheBarsAfterTheWarmUp() {
+		Position pos = new Position(Position.CostBasis.FIFO);
+		BacktestResult r = ENGINE.run(rally(), StrategyParams.DEFAULT, of(10_000), pos, () -> true);
+
+		assertThat(r.completed()).isTrue();
+		assertThat(r.start()).isEqualTo(BacktestEngine.WARMUP_BARS);
+		assertThat(r.equityCount()).isEqualTo(4);
+		assertThat(r.tradeCount()).isEqualTo(3);
+		// 5% of 10000 at 125, 5% of the 9500 left at 125, then half of the 7.8 held at 80 out of the first lot
+		assertThat(r.tradeIsBuy(0)).isTrue();
+		assertThat(r.tradeQty(0)).isEqualTo(of(4));
+		assertThat(r.tradePnl(0)).isEqualTo(BacktestResult.NO_PNL);
+		assertThat(r.tradeQty(1)).isEqualTo(3_80000000L);
+		assertThat(r.tradeIsBuy(2)).isFalse();
+		assertThat(r.tradeQty(2)).isEqualTo(3_90000000L);
+		assertThat(r.tradePrice(2)).isEqualTo(of(80));
+		assertThat(r.tradePnl(2)).isEqualTo(-175_50000000L);
+		assertThat(r.tradeTs(2)).isEqualTo(33 * 60_000L);
+
+		assertThat(r.finalCash()).isEqualTo(of(9_337));
+		assertThat(r.finalQty()).isEqualTo(3_90000000L);
+		assertThat(pos.quantity()).isEqualTo(r.finalQty());
+		assertThat(r.equity(0)).isEqualTo(of(10_000));
+		assertThat(r.equity(2)).isEqualTo(of(10_000));
+		assertThat(r.finalEquity()).isEqualTo(of(9_649));
+	}
+
+	@Test
+	void stopsAtTheNextCheckOnceKeepRunningSaysSo() {
+		int n = BacktestEngine.WARMUP_BARS + BacktestEngine.CHECK_EVERY + 100;
+		CandleSeries.Builder b = CandleSeries.builder(n);
+		for (int i = 0; i < n; i++) b.append(i * 60_000L, of(100), of(100), of(100), of(100), of(1));
+		int[] checks = {0};
+
+		BacktestResult r = ENGINE.run(b.build(), StrategyParams.DEFAULT, of(10_000),
+				new Position(Position.CostBasis.FIFO), () -> checks[0]++ == 0);
+
+		assertThat(r.completed()).isFalse();
+		assertThat(checks[0]).isEqualTo(2);
+		assertThat(r.equityCount()).isEqualTo(BacktestEngine.CHECK_EVERY);
+		assertThat(r.tradeCount()).isZero();
+		assertThat(r.finalCash()).isEqualTo(of(10_000));
+	}
+}
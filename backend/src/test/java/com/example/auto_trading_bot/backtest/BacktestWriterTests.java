@@ -0,0 +1,43 @@
+package com.example.auto_trading_bot.backtest;
+
+import com.example.auto_trading_bot.bot.StrategyParams;
+import com.example.auto_trading_bot.dto.RunSummary;
+import com.example.auto_trading_bot.portfolio.Position;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static com.example.auto_trading_bot.common.FixedPoint.of;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BacktestWriterTests {
+
+	@Test
+	void statsCountATradeFromItsBarsEquityPointOn() {
+		BacktestResult r = BacktestEngineTests.ENGINE.run(BacktestEngineTests.rally(), StrategyParams.DEFAULT,
+				of(10_000), new Position(Position.CostBasis.FIFO), () -> true);
+
+		RunSummary s = BacktestWriter.stats("BTCUSDT", "1m", r).summary(3);
+		assertThat(s.points()).isEqualTo(4);
+		assertThat(s.startEquity()).isEqualByComparingTo("10000");
+		assertThat(s.equity()).isEqualByComparingTo("9649");
+		assertThat(s.returnPct()).isEqualByComparingTo("-3.51");
+		assertThat(s.maxDrawdownPct()).isEqualByComparingTo("3.51");
+		// flat on the first point, holding from the first buy on
+		assertThat(s.exposurePct()).isEqualByComparingTo(new BigDecimal("75"));
+		assertThat(s.fills()).isEqualTo(3);
+		assertThat(s.wins()).isZero();
+		assertThat(s.losses()).isEqualTo(1);
+	}
+
+	@Test
+	void statsOfAnEmptyRunHaveNoPoints() {
+		BacktestResult r = BacktestEngineTests.ENGINE.run(BacktestEngineTests.rally(), StrategyParams.DEFAULT,
+				of(10_000), new Position(Position.CostBasis.FIFO), () -> false);
+
+		RunSummary s = BacktestWriter.stats("BTCUSDT", "1m", r).summary(3);
+		assertThat(s.points()).isZero();
+		assertThat(s.fills()).isZero();
+		assertThat(s.returnPct()).isNull();
+	}
+}
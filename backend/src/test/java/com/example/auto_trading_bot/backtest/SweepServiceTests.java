@@ -0,0 +1,74 @@
+package com.example.auto_trading_bot.backtest;
+
+import com.example.auto_trading_bot.bot.StrategyParams;
+import com.example.auto_trading_bot.dto.SweepRange;
+import com.example.auto_trading_bot.dto.SweepRequest;
+import com.example.auto_trading_bot.dto.SweepResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.example.auto_trading_bot.common.FixedPoint.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SweepServiceTests {
+
+	// run() and the combination check never reach the candle history
+	private final SweepService sweeps = new SweepService(null, BacktestEngineTests.ENGINE);
+
+	@AfterEach
+	void stop() {
+		sweeps.shutdown();
+	}
+
+	@Test
+	void ranksEveryCombinationByFinalEquity() {
+		StrategyParams greedy = new StrategyParams(5, new BigDecimal("0.1"), new BigDecimal("0.5"));
+		List<SweepResult> out = sweeps.run(BacktestEngineTests.rally(), List.of(greedy, StrategyParams.DEFAULT), of(10_000));
+
+		assertThat(out).extracting(SweepResult::rank).containsExactly(1, 2);
+		SweepResult best = out.get(0);
+		assertThat(best.buyFraction()).isEqualByComparingTo("0.05");
+		assertThat(best.finalEquity()).isEqualByComparingTo("9649");
+		assertThat(best.returnPct()).isEqualByComparingTo("-3.51");
+		assertThat(best.maxDrawdownPct()).isEqualByComparingTo("3.51");
+		assertThat(best.trades()).isEqualTo(3);
+		// buys 8 then 7.2 at 125 and sells 7.6 at 80
+		assertThat(out.get(1).buyFraction()).isEqualByComparingTo("0.1");
+		assertThat(out.get(1).finalEquity()).isEqualByComparingTo("9316");
+	}
+
+	@Test
+	void rejectsSweepsPastTheCombinationLimit() {
+		SweepRange fractions = new SweepRange(new BigDecimal("0.01"), BigDecimal.ONE, new BigDecimal("0.01"));
+		SweepRequest req = new SweepRequest("BTCUSDT", "1m", null, null,
+				new SweepRange(BigDecimal.ONE, new BigDecimal("20"), BigDecimal.ONE), fractions, fractions);
+
+		assertThatThrownBy(() -> sweeps.sweep(req))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("combinations");
+	}
+
+	@Test
+	void rejectsWindowsTheBarsCannotFillBeforeFetching() {
+		SweepRequest req = new SweepRequest("BTCUSDT", "1m", 500, null,
+				new SweepRange(new BigDecimal("490"), new BigDecimal("510"), BigDecimal.TEN), null, null);
+
+		assertThatThrownBy(() -> sweeps.sweep(req))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("window 500 must be below bars 500");
+	}
+
+	@Test
+	void rejectsWindowsPastTheCap() {
+		SweepRequest req = new SweepRequest("BTCUSDT", "1m", null, null,
+				new SweepRange(new BigDecimal(1 << 24), null, null), null, null);
+
+		assertThatThrownBy(() -> sweeps.sweep(req))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("window must be between 1 and " + StrategyParams.MAX_WINDOW);
+	}
+}
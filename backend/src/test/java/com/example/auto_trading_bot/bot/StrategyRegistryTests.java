@@ -0,0 +1,63 @@
+package com.example.auto_trading_bot.bot;
+
+import com.example.auto_trading_bot.bot.indicator.IndicatorSet;
+import com.example.auto_trading_bot.common.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StrategyRegistryTests {
+
+	private static final List<Strategy> ALL = List.of(new TradingStrategy(), new SmaRsiStrategy(), new BollingerStrategy());
+
+	@Test
+	void shadowsShareTheIndicatorsTheyHaveInCommon() throws IOException {
+		StrategyRegistry r = new StrategyRegistry(ALL, "sma", List.of("sma-rsi", "vote(sma+sma-rsi)"));
+		IndicatorSet shared = r.newIndicators(StrategyParams.DEFAULT);
+		IndicatorSet expected = new IndicatorSet();
+		expected.sma(StrategyParams.DEFAULT.window());
+		expected.rsi(14);
+
+		Random rnd = new Random(3);
+		for (int i = 0; i < 200; i++) {
+			long close = FixedPoint.of(30_000 + rnd.nextInt(1_000));
+			shared.update(i, close);
+			expected.update(i, close);
+		}
+		assertThat(bytes(shared)).isEqualTo(bytes(expected));
+	}
+
+	@Test
+	void votesNeedAMajority() {
+		StrategyRegistry r = new StrategyRegistry(ALL, "vote(sma+sma-rsi+bollinger)", List.of());
+		IndicatorSet ind = r.newIndicators(StrategyParams.DEFAULT);
+		for (int i = 0; i < 30; i++) ind.update(i, FixedPoint.of(100 + i));
+
+		// a steady climb: sma buys, sma-rsi sells the overbought market, bollinger stays inside its bands
+		assertThat(r.trading().name()).isEqualTo("vote(sma+sma-rsi+bollinger)");
+		assertThat(r.trading().signal(ind, StrategyParams.DEFAULT)).isEqualTo(Strategy.Signal.HOLD);
+	}
+
+	@Test
+	void rejectsUnknownAndRepeatedStrategies() {
+		assertThatThrownBy(() -> new StrategyRegistry(ALL, "macd", List.of()))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new StrategyRegistry(ALL, "sma", List.of("bollinger", "sma")))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new StrategyRegistry(List.of(new TradingStrategy(), new TradingStrategy()), "sma", List.of()))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	private static byte[] bytes(IndicatorSet ind) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ind.write(new DataOutputStream(out));
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,88 @@
+package com.example.auto_trading_bot.bot.indicator;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndicatorSetTests {
+
+	@Test
+	void smaMatchesBigDecimalRecomputation() {
+		IndicatorSet ind = new IndicatorSet();
+		Sma sma = ind.sma(5);
+		List<BigDecimal> closes = new ArrayList<>();
+		Random rnd = new Random(42);
+
+		for (int i = 0; i < 1_000; i++) {
+			BigDecimal close = BigDecimal.valueOf(20_000 + rnd.nextInt(50_000_000), 3);
+			closes.add(close);
+			ind.update(i * 60_000L, FixedPoint.of(close));
+			if (closes.size() < 5) continue;
+
+			BigDecimal sum = BigDecimal.ZERO;
+			for (int j = closes.size() - 5; j < closes.size(); j++) sum = sum.add(closes.get(j));
+			BigDecimal expected = sum.divide(BigDecimal.valueOf(5), 8, RoundingMode.HALF_UP);
+			assertThat(FixedPoint.toBigDecimal(sma.value())).isEqualByComparingTo(expected);
+		}
+	}
+
+	@Test
+	void sameIndicatorIsRegisteredOnce() {
+		IndicatorSet ind = new IndicatorSet();
+		assertThat(ind.sma(20)).isSameAs(ind.sma(20));
+	}
+
+	@Test
+	void restoredSetContinuesExactly() throws Exception {
+		IndicatorSet a = registered(), b = registered();
+		Random rnd = new Random(7);
+		for (int i = 0; i < 300; i++) a.update(i * 60_000L, FixedPoint.of(20_000 + rnd.nextInt(1_000)));
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		a.write(new DataOutputStream(bytes));
+		assertThat(b.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())))).isTrue();
+
+		for (int i = 300; i < 400; i++) {
+			long close = FixedPoint.of(20_000 + rnd.nextInt(1_000));
+			a.update(i * 60_000L, close);
+			b.update(i * 60_000L, close);
+		}
+		assertThat(b.lastTs()).isEqualTo(a.lastTs());
+		assertThat(b.ema(50).value()).isEqualTo(a.ema(50).value());
+		assertThat(b.rsi(14).value()).isEqualTo(a.rsi(14).value());
+		assertThat(b.sma(20).value()).isEqualTo(a.sma(20).value());
+		assertThat(b.bollinger(20, 2).upper()).isEqualTo(a.bollinger(20, 2).upper());
+	}
+
+	@Test
+	void refusesStateOfOtherIndicators() throws Exception {
+		IndicatorSet a = new IndicatorSet();
+		a.sma(10);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		a.write(new DataOutputStream(bytes));
+
+		IndicatorSet b = new IndicatorSet();
+		b.sma(20);
+		assertThat(b.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())))).isFalse();
+	}
+
+	private static IndicatorSet registered() {
+		IndicatorSet ind = new IndicatorSet();
+		ind.sma(20);
+		ind.ema(50);
+		ind.rsi(14);
+		ind.bollinger(20, 2);
+		return ind;
+	}
+}
@@ -0,0 +1,151 @@
+package com.example.auto_trading_bot.bot.service;
+
+import com.example.auto_trading_bot.bot.indicator.IndicatorSet;
+import com.example.auto_trading_bot.market.Candle;
+import com.example.auto_trading_bot.market.MarketDataClient;
+import com.example.auto_trading_bot.market.MarketDataHub;
+import com.example.auto_trading_bot.market.MarketDataStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BarFeedTests {
+
+	private static final long MIN = 60_000L;
+
+	private final List<String> requests = new CopyOnWriteArrayList<>();
+	private DisposableServer server;
+
+	@AfterEach
+	void stop() {
+		if (server != null) server.disposeNow();
+	}
+
+	/** Klines 0 to 5 of a 1m series: the latest three, the last still forming, or all from startTime on. */
+	private MarketDataHub hub(MarketDataStream stream) {
+		server = HttpServer.create().port(0)
+				.route(r -> r.get("/api/v3/klines", (req, res) -> {
+					requests.add(req.uri());
+					Map<String, List<String>> q = new QueryStringDecoder(req.uri()).parameters();
+					boolean since = q.containsKey("startTime");
+					long from = since ? Long.parseLong(q.get("startTime").get(0)) : 0;
+					StringJoiner body = new StringJoiner(",", "[", "]");
+					for (int i = 0; i < (since ? 6 : 3); i++) {
+						if (i * MIN >= from) body.add("[" + i * MIN + ",\"1\",\"1\",\"1\",\"" + (100 + i) + "\",\"1\"," + (i * MIN + MIN - 1) + "]");
+					}
+					return res.sendString(Mono.just(body.toString()));
+				}))
+				.bindNow();
+		MarketDataClient client = new MarketDataClient("http://127.0.0.1:" + server.port(), 2_000, 0, 10, 4, 16, 6000, 100,
+				WebClient.builder(), new SimpleMeterRegistry());
+		return new MarketDataHub(client, stream, 0, new SimpleMeterRegistry());
+	}
+
+	private static Candle candle(int i) {
+		return new Candle(Instant.ofEpochMilli(i * MIN), BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE,
+				BigDecimal.valueOf(100 + i), BigDecimal.ONE);
+	}
+
+	@Test
+	void warmsUpThenTradesStreamedBarsAndBackfillsAGap() {
+		Sinks.Many<Candle> stream = Sinks.many().replay().all();
+		stream.tryEmitNext(candle(2)); // closes the bar the warm-up saw forming
+		stream.tryEmitNext(candle(5)); // the stream missed 3 and 4
+		stream.tryEmitComplete();
+		SessionKey key = new SessionKey("BTCUSDT", "1m");
+		IndicatorSet ind = new IndicatorSet();
+		List<String> seen = new ArrayList<>();
+		Scheduler scheduler = Schedulers.newSingle("feed-test");
+
+		try {
+			new BarFeed(key, ind, new ExchangeSource(hub((s, i) -> stream.asFlux()), key), scheduler, (bar, trade) -> {
+				ind.update(bar);
+				seen.add(bar.ts().toEpochMilli() / MIN + (trade ? " traded" : ""));
+			}).bars().blockLast(Duration.ofSeconds(5));
+		} finally {
+			scheduler.dispose();
+		}
+
+		assertThat(seen).containsExactly("0", "1 traded", "2 traded", "3", "4", "5 traded");
+		assertThat(requests).hasSize(2);
+		assertThat(requests.get(1)).contains("startTime=" + (2 * MIN + 1));
+		assertThat(ind.lastClose()).isEqualTo(105_00000000L);
+	}
+
+	/** Bars 0 to {@code served} in pages of two whatever the limit, the stream as given. */
+	private static BarSource pages(int served, Flux<Candle> stream) {
+		return new BarSource() {
+			@Override
+			public Mono<List<Candle>> recent(int n) {
+				return Mono.just(List.of(candle(0), candle(1), candle(2)));
+			}
+
+			@Override
+			public Mono<List<Candle>> since(long fromMs, int limit) {
+				requests.add("since " + fromMs / MIN);
+				List<Candle> page = new ArrayList<>();
+				for (int i = (int) ((fromMs + MIN - 1) / MIN); i <= served && page.size() < 2; i++) page.add(candle(i));
+				return Mono.just(page);
+			}
+
+			@Override
+			public Flux<Candle> closedBars() {
+				return stream;
+			}
+		};
+	}
+
+	private List<String> feed(BarSource source, IndicatorSet ind) {
+		List<String> seen = new ArrayList<>();
+		Scheduler scheduler = Schedulers.newSingle("feed-test");
+		try {
+			new BarFeed(new SessionKey("BTCUSDT", "1m"), ind, source, scheduler, (bar, trade) -> {
+				ind.update(bar);
+				seen.add(bar.ts().toEpochMilli() / MIN + (trade ? " traded" : ""));
+			}).bars().blockLast(Duration.ofSeconds(5));
+		} finally {
+			scheduler.dispose();
+		}
+		return seen;
+	}
+
+	@Test
+	void pagesABackfillUntilItReachesTheBar() {
+		IndicatorSet ind = new IndicatorSet();
+		List<String> seen = feed(pages(20, Flux.just(candle(2), candle(8))), ind);
+
+		assertThat(seen).containsExactly("0", "1 traded", "2 traded", "3", "4", "5", "6", "7", "8 traded");
+		assertThat(requests).containsExactly("since 2", "since 4", "since 6");
+		assertThat(ind.lastClose()).isEqualTo(108_00000000L);
+	}
+
+	@Test
+	void skipsTheBarAfterAGapTheSourceCannotFillAndRetriesOnTheNext() {
+		// the source stops at 4: 8 is skipped, and 9 pages the same gap again
+		IndicatorSet ind = new IndicatorSet();
+		List<String> seen = feed(pages(4, Flux.just(candle(2), candle(8), candle(9))), ind);
+
+		assertThat(seen).containsExactly("0", "1 traded", "2 traded", "3", "4");
+		assertThat(requests).containsExactly("since 2", "since 4", "since 4");
+	}
+}
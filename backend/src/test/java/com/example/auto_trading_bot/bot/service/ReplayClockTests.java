@@ -0,0 +1,43 @@
+package com.example.auto_trading_bot.bot.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplayClockTests {
+
+	@Test
+	void movesForwardOnlyAndStandsStillBetweenBars() {
+		ReplayClock clock = new ReplayClock();
+		assertThat(clock.millis()).isZero();
+
+		clock.advanceTo(120_000);
+		assertThat(clock.millis()).isEqualTo(120_000);
+		assertThat(clock.millis()).isEqualTo(120_000);
+
+		// a bar replayed twice, then one out of order
+		clock.advanceTo(120_000);
+		clock.advanceTo(60_000);
+		assertThat(clock.instant().toEpochMilli()).isEqualTo(120_000);
+		assertThat(clock.getZone()).isEqualTo(ZoneOffset.UTC);
+	}
+
+	@Test
+	void aZonedViewFollowsTheSameReplayTime() {
+		ReplayClock clock = new ReplayClock();
+		Clock paris = clock.withZone(ZoneId.of("Europe/Paris"));
+		assertThat(clock.withZone(ZoneOffset.UTC)).isSameAs(clock);
+		assertThat(paris.getZone()).isEqualTo(ZoneId.of("Europe/Paris"));
+
+		clock.advanceTo(3_600_000);
+
+		assertThat(paris.millis()).isEqualTo(3_600_000);
+		assertThat(LocalTime.now(paris)).isEqualTo(LocalTime.of(2, 0));
+		assertThat(paris.withZone(ZoneOffset.UTC)).isSameAs(clock);
+	}
+}
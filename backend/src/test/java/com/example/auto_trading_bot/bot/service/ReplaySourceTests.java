@@ -0,0 +1,97 @@
+package com.example.auto_trading_bot.bot.service;
+
+import com.example.auto_trading_bot.bot.StrategyParams;
+import com.example.auto_trading_bot.bot.TradingStrategy;
+import com.example.auto_trading_bot.common.FixedPoint;
+import com.example.auto_trading_bot.execution.ExecutionParams;
+import com.example.auto_trading_bot.execution.ExecutionSimulator;
+import com.example.auto_trading_bot.market.Candle;
+import com.example.auto_trading_bot.market.CandleSeries;
+import com.example.auto_trading_bot.portfolio.Position;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplaySourceTests {
+
+	private static final long MIN = 60_000L;
+	private static final SessionKey KEY = new SessionKey("BTCUSDT", "1m");
+
+	/** A seeded random walk around 30000, one unit of volume a bar. */
+	private static CandleSeries walk(int n) {
+		Random rnd = new Random(7);
+		CandleSeries.Builder b = CandleSeries.builder(n);
+		long c = FixedPoint.of(30_000);
+		for (int i = 0; i < n; i++) {
+			long next = c + FixedPoint.of(rnd.nextInt(201) - 100);
+			b.append(i * MIN, c, Math.max(c, next), Math.min(c, next), next, FixedPoint.of(1));
+			c = next;
+		}
+		return b.build();
+	}
+
+	private static List<Long> ts(List<Candle> candles) {
+		return candles.stream().map(c -> c.ts().toEpochMilli() / MIN).toList();
+	}
+
+	@Test
+	void warmUpEndsWithTheFormingBarAndTheStreamClosesIt() {
+		ReplaySource source = new ReplaySource(walk(5));
+
+		assertThat(ts(source.recent(3).block())).containsExactly(0L, 1L, 2L);
+		assertThat(ts(source.closedBars().collectList().block())).containsExactly(2L, 3L, 4L);
+		assertThat(ts(source.since(3 * MIN, 10).block())).containsExactly(3L, 4L);
+		assertThat(ts(source.since(1, 2).block())).containsExactly(1L, 2L);
+		assertThat(source.recent(10).block()).hasSize(5);
+	}
+
+	/** Drives a REPLAY session's bars the way BotService does, through its trade step, onto a scratch book. */
+	private static List<ScratchBook.Fill> replay(CandleSeries candles, Position books) {
+		ExecutionParams execution = new ExecutionParams("MARKET", new BigDecimal("0.001"), new BigDecimal("0.001"),
+				new BigDecimal("0.1"), new BigDecimal("0.01"), BigDecimal.ZERO, 1);
+		ScratchBook book = new ScratchBook(new BigDecimal("10000"), books.copy());
+		TradingStrategy strategy = new TradingStrategy();
+		ReplayClock clock = new ReplayClock();
+		TradingSession s = new TradingSession(KEY, "REPLAY", strategy.newIndicators(),
+				new SessionMetrics(new SimpleMeterRegistry(), KEY, "REPLAY"), clock, new ExecutionSimulator(execution),
+				List.of(), book);
+		Scheduler scheduler = Schedulers.newSingle("replay-test");
+		try {
+			new BarFeed(KEY, s.indicators, new ReplaySource(candles), scheduler, (bar, trade) -> {
+				clock.advanceTo(bar.ts().toEpochMilli() + MIN);
+				if (bar.ts().toEpochMilli() <= s.indicators.lastTs()) return;
+				s.indicators.update(bar);
+				if (!trade) return;
+				BotService.trade(s, strategy, bar, s.bars++, FixedPoint.of(bar.open()), FixedPoint.of(bar.high()),
+						FixedPoint.of(bar.low()), FixedPoint.of(bar.close()), FixedPoint.of(bar.volume()), StrategyParams.DEFAULT);
+			}).bars().blockLast(Duration.ofSeconds(5));
+		} finally {
+			scheduler.dispose();
+		}
+		assertThat(clock.millis()).isEqualTo(candles.ts(candles.size() - 1) + MIN);
+		return book.fills();
+	}
+
+	@Test
+	void replayingTheSameCandlesFromTheSameBooksGivesTheSameTrades() {
+		CandleSeries candles = walk(400);
+		Position books = new Position(Position.CostBasis.FIFO);
+		books.buy(FixedPoint.of(1), FixedPoint.of(29_000));
+
+		List<ScratchBook.Fill> first = replay(candles, books);
+		List<ScratchBook.Fill> second = replay(candles, books);
+
+		assertThat(first).isNotEmpty();
+		assertThat(second).isEqualTo(first);
+		// the books it started from are untouched
+		assertThat(books.quantity()).isEqualTo(FixedPoint.of(1));
+	}
+}
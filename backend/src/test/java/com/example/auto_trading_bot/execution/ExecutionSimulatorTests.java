@@ -0,0 +1,117 @@
+package com.example.auto_trading_bot.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutionSimulatorTests {
+
+	/** Fills as {qty, price, fee, maker} on plain units. */
+	private static final class Account implements ExecutionSimulator.Account {
+		long cash;
+		long qty;
+		final List<long[]> fills = new ArrayList<>();
+
+		Account(long cash, long qty) {
+			this.cash = cash;
+			this.qty = qty;
+		}
+
+		@Override
+		public long cash() {
+			return cash;
+		}
+
+		@Override
+		public long quantity() {
+			return qty;
+		}
+
+		@Override
+		public void fill(boolean buy, long q, long price, long fee, boolean maker) {
+			fills.add(new long[]{buy ? q : -q, price, fee, maker ? 1 : 0});
+			cash += (buy ? -1 : 1) * q * price / 100_000_000L - fee;
+			qty += buy ? q : -q;
+		}
+	}
+
+	private static ExecutionParams params(String type, String participation, String impact) {
+		return new ExecutionParams(type, new BigDecimal("0.001"), new BigDecimal("0.002"),
+				new BigDecimal(participation), new BigDecimal(impact), new BigDecimal("0.01"), 2);
+	}
+
+	@Test
+	void naiveFillsEverythingAtTheClose() {
+		ExecutionSimulator sim = new ExecutionSimulator(ExecutionParams.NAIVE);
+		Account a = new Account(1_000_000_00000000L, 0);
+		sim.onBar(0, 100_00000000L, 110_00000000L, 90_00000000L, 105_00000000L, 1_00000000L, a);
+		sim.market(true, 50_00000000L);
+
+		assertThat(a.fills).hasSize(1);
+		assertThat(a.fills.get(0)).containsExactly(50_00000000L, 105_00000000L, 0, 0);
+	}
+
+	@Test
+	void marketOrdersLargerThanTheBarFillPartiallyWithImpactAndCarry() {
+		ExecutionSimulator sim = new ExecutionSimulator(params("MARKET", "0.1", "1"));
+		Account a = new Account(1_000_000_00000000L, 0);
+		// 10% of 100 = 10 per bar
+		sim.onBar(0, 100_00000000L, 110_00000000L, 90_00000000L, 100_00000000L, 100_00000000L, a);
+		sim.market(true, 15_00000000L);
+		assertThat(a.fills.get(0)[0]).isEqualTo(10_00000000L);
+		assertThat(a.fills.get(0)[1]).isEqualTo(110_00000000L); // took the whole share: priced at the high
+		assertThat(a.fills.get(0)[2]).isEqualTo(2_20000000L);   // taker fee on 1100
+		assertThat(sim.pending()[0]).isEqualTo(5_00000000L);
+
+		sim.onBar(1, 100_00000000L, 104_00000000L, 99_00000000L, 102_00000000L, 100_00000000L, a);
+		assertThat(a.fills.get(1)[0]).isEqualTo(5_00000000L);
+		assertThat(a.fills.get(1)[1]).isEqualTo(102_00000000L); // half the share from the open toward 104
+		assertThat(sim.pending()[0]).isZero();
+	}
+
+	@Test
+	void limitOrdersRestFromTheNextBarAndExpire() {
+		ExecutionSimulator sim = new ExecutionSimulator(params("LIMIT", "0", "0"));
+		Account a = new Account(0, 10_00000000L);
+		sim.onBar(0, 100_00000000L, 101_00000000L, 99_00000000L, 100_00000000L, 1_00000000L, a);
+		sim.submit(false, 4_00000000L); // sell limit at 101
+		assertThat(a.fills).isEmpty();
+
+		sim.onBar(1, 100_00000000L, 101_00000000L, 98_00000000L, 99_00000000L, 1_00000000L, a);
+		assertThat(a.fills).hasSize(1);
+		assertThat(a.fills.get(0)).containsExactly(-4_00000000L, 101_00000000L, 40400000L, 1);
+
+		sim.submit(false, 4_00000000L); // at 99.99, alive for bars 2 and 3
+		sim.onBar(2, 99_00000000L, 99_50000000L, 98_00000000L, 99_00000000L, 1_00000000L, a);
+		sim.onBar(3, 99_00000000L, 99_50000000L, 98_00000000L, 99_00000000L, 1_00000000L, a);
+		sim.onBar(4, 99_00000000L, 120_00000000L, 98_00000000L, 99_00000000L, 1_00000000L, a);
+		assertThat(a.fills).hasSize(1);
+		assertThat(sim.pending()[1]).isZero();
+	}
+
+	@Test
+	void bookFillsBestPriceThenOldestFirst() {
+		OrderBook book = new OrderBook(1, 64, 1_000);
+		int a = book.add(true, 990, 5);
+		int b = book.add(true, 995, 5);
+		int c = book.add(true, 995, 5);
+		book.add(false, 1_010, 5);
+		List<Integer> filled = new ArrayList<>();
+		book.match(990, 1_000, 12, 12, (order, buy, qty, price) -> {
+			filled.add(order);
+			return qty;
+		});
+
+		assertThat(filled).containsExactly(b, c, a);
+		assertThat(book.remaining(a)).isEqualTo(3);
+		assertThat(book.size()).isEqualTo(2);
+		book.add(true, 5_000, 1); // outside the window: re-centres and drops what no longer fits
+		assertThat(book.isLive(a)).isFalse();
+		assertThat(book.size()).isEqualTo(1);
+	}
+
+}
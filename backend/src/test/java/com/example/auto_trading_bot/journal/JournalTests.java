@@ -0,0 +1,113 @@
+package com.example.auto_trading_bot.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournalTests {
+
+	@TempDir
+	Path dir;
+
+	private static Journal open(Path dir) {
+		Journal j = new Journal(dir.toString(), 4);
+		j.open();
+		return j;
+	}
+
+	@Test
+	void readsAcrossSegmentsAndReopensAtTheEnd() {
+		Journal j = open(dir);
+		j.append(JournalEvent.STATE, JournalEvent.statusCode("RUNNING"), JournalEvent.modeCode("LIVE"), "BTCUSDT", "1m", 0, 0, 0, 0);
+		for (int i = 1; i <= 9; i++) {
+			j.append(JournalEvent.BAR, (byte) 0, JournalEvent.modeCode("LIVE"), "BTCUSDT", "1m", i * 60_000L, i, 0, 0);
+		}
+		j.close();
+
+		Journal r = open(dir);
+		assertThat(r.lastSeq()).isEqualTo(10);
+		List<JournalEvent> events = new ArrayList<>();
+		assertThat(r.read(3, 100, events::add)).isEqualTo(10);
+		assertThat(events).extracting(JournalEvent::seq).containsExactly(4L, 5L, 6L, 7L, 8L, 9L, 10L);
+		assertThat(events.get(0).symbol()).isEqualTo("BTCUSDT");
+		assertThat(events.get(6).a()).isEqualTo(9);
+		assertThat(r.sessions()).containsExactly(new Snapshot.SessionState("BTCUSDT", "1m", "LIVE", "RUNNING", 9 * 60_000L));
+		assertThat(r.append(JournalEvent.EQUITY, (byte) 0, (byte) 0, "BTCUSDT", null, 0, 1, 0, 0)).isEqualTo(11);
+	}
+
+	@Test
+	void stopsAtATornRecord() throws Exception {
+		Journal j = open(dir);
+		for (int i = 0; i < 3; i++) j.append(JournalEvent.EQUITY, (byte) 0, (byte) 0, "ETHUSDT", null, i, i, 0, 0);
+		j.close();
+		try (RandomAccessFile f = new RandomAccessFile(dir.resolve(Journal.segmentName(1)).toFile(), "rw")) {
+			f.seek(2L * Journal.RECORD + 20);
+			f.write(0x7f);
+		}
+
+		Journal r = open(dir);
+		assertThat(r.lastSeq()).isEqualTo(2);
+		assertThat(r.append(JournalEvent.EQUITY, (byte) 0, (byte) 0, "ETHUSDT", null, 9, 9, 0, 0)).isEqualTo(3);
+	}
+
+	@Test
+	void snapshotSurvivesTrimmedSegments() {
+		Journal j = open(dir);
+		for (int i = 0; i < 10; i++) j.append(JournalEvent.EQUITY, (byte) 0, (byte) 0, "BTCUSDT", null, i, i, 0, 0);
+		j.write(j.capture(123, List.of(new Snapshot.PositionState("BTCUSDT", "FIFO", 50, 7,
+				new long[]{2, 3}, new long[]{10, 20}))));
+		j.deleteBefore(j.latestSnapshot().seq());
+		j.close();
+
+		Journal r = open(dir);
+		Snapshot s = r.latestSnapshot();
+		assertThat(s.seq()).isEqualTo(10);
+		assertThat(s.cash()).isEqualTo(123);
+		assertThat(s.positions().get(0).lotPrice()).containsExactly(10, 20);
+		List<JournalEvent> events = new ArrayList<>();
+		r.read(0, 100, events::add);
+		assertThat(events).extracting(JournalEvent::seq).containsExactly(9L, 10L);
+	}
+
+	@Test
+	void dropsAnOlderSnapshotAndFallsBackFromACorruptOne() throws Exception {
+		Journal j = open(dir);
+		for (int i = 0; i < 2; i++) j.append(JournalEvent.EQUITY, (byte) 0, (byte) 0, "BTCUSDT", null, i, i, 0, 0);
+		Snapshot older = j.capture(200, List.of());
+		j.append(JournalEvent.EQUITY, (byte) 0, (byte) 0, "BTCUSDT", null, 2, 2, 0, 0);
+		j.write(j.capture(300, List.of()));
+		// a writer that captured first and got here last
+		j.write(older);
+		assertThat(j.latestSnapshot().seq()).isEqualTo(3);
+		j.append(JournalEvent.EQUITY, (byte) 0, (byte) 0, "BTCUSDT", null, 3, 3, 0, 0);
+		j.write(j.capture(400, List.of()));
+		j.close();
+		try (RandomAccessFile f = new RandomAccessFile(dir.resolve(String.format("snapshot-%020d.bin", 4)).toFile(), "rw")) {
+			f.seek(20);
+			f.write(0x7f);
+		}
+
+		Snapshot s = open(dir).latestSnapshot();
+		assertThat(s.seq()).isEqualTo(3);
+		assertThat(s.cash()).isEqualTo(300);
+	}
+
+	@Test
+	void refusesSegmentsOfAnotherFormat() throws Exception {
+		// a format 1 segment: 80-byte records under an unversioned name
+		Files.write(dir.resolve(String.format("%020d.log", 1)), new byte[4 * 80]);
+
+		assertThatThrownBy(() -> open(dir))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("00000000000000000001.log");
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.example.auto_trading_bot.market;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinanceKlineStreamTests {
+
+	private final AtomicInteger connections = new AtomicInteger();
+	private DisposableServer server;
+
+	@AfterEach
+	void stop() {
+		if (server != null) server.disposeNow();
+	}
+
+	private static String kline(long t, boolean closed) {
+		return "{\"e\":\"kline\",\"k\":{\"t\":" + t + ",\"o\":\"1\",\"h\":\"2\",\"l\":\"0.5\",\"c\":\"1.5\",\"v\":\"10\",\"x\":" + closed + "}}";
+	}
+
+	@Test
+	void emitsClosedBarsAndReconnectsWhenTheServerHangsUp() {
+		server = HttpServer.create().port(0)
+				.route(r -> r.ws("/ws/btcusdt@kline_1m", (in, out) -> {
+					long t = connections.incrementAndGet() * 60_000L;
+					// an update of the forming bar, then its close; the connection ends after that
+					return out.sendString(Flux.just(kline(t, false), kline(t, true)));
+				}))
+				.bindNow();
+		BinanceKlineStream stream = new BinanceKlineStream("ws://127.0.0.1:" + server.port(), new ObjectMapper());
+
+		List<Candle> bars = stream.closedBars("BTCUSDT", "1m").take(2).collectList().block(Duration.ofSeconds(10));
+
+		assertThat(bars).extracting(c -> c.ts().toEpochMilli()).containsExactly(60_000L, 120_000L);
+		assertThat(bars.get(0).close()).isEqualByComparingTo("1.5");
+		assertThat(connections.get()).isGreaterThanOrEqualTo(2);
+	}
+}
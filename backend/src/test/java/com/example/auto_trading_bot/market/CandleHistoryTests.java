@@ -0,0 +1,64 @@
+package com.example.auto_trading_bot.market;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandleHistoryTests {
+
+	private static final String KLINES = "[[0,\"1\",\"2\",\"0.5\",\"1.5\",\"10\",59999],[60000,\"1\",\"2\",\"0.5\",\"1.5\",\"10\",119999]]";
+
+	@TempDir
+	Path dir;
+
+	private DisposableServer server;
+
+	@AfterEach
+	void stop() {
+		if (server != null) server.disposeNow();
+	}
+
+	@Test
+	void aSlowFetchOfOneKeyDoesNotHoldBackAnother() throws Exception {
+		// BTCUSDT only answers once ETHUSDT has been served, so one lock for every key would stall it
+		Sinks.One<Boolean> ethServed = Sinks.one();
+		server = HttpServer.create().port(0)
+				.route(r -> r.get("/api/v3/klines", (req, res) -> {
+					if (req.uri().contains("symbol=ETHUSDT")) {
+						return res.sendString(Mono.just(KLINES)).then()
+								.doOnSuccess(v -> ethServed.tryEmitValue(true));
+					}
+					return res.sendString(ethServed.asMono().thenReturn(KLINES));
+				}))
+				.bindNow();
+		MarketDataClient client = new MarketDataClient("http://127.0.0.1:" + server.port(), 2_000, 0, 10, 4, 16, 6000, 100,
+				WebClient.builder(), new SimpleMeterRegistry());
+		Clock clock = Clock.fixed(Instant.ofEpochMilli(180_000), ZoneOffset.UTC);
+		CandleHistory history = new CandleHistory(new CandleStore(dir.toString()), client, clock);
+
+		Mono<CandleSeries> btc = Mono.fromCallable(() -> history.range("BTCUSDT", "1m", 0, 60_000))
+				.subscribeOn(Schedulers.boundedElastic())
+				.cache();
+		btc.subscribe();
+		Thread.sleep(100);
+		CandleSeries eth = history.range("ETHUSDT", "1m", 0, 60_000);
+
+		assertThat(eth.size()).isEqualTo(2);
+		assertThat(btc.block(Duration.ofSeconds(5)).size()).isEqualTo(2);
+	}
+}
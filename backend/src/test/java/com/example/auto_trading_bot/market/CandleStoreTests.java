@@ -0,0 +1,49 @@
+package com.example.auto_trading_bot.market;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandleStoreTests {
+
+	@TempDir
+	Path dir;
+
+	private static CandleSeries bars(long fromTs, int n) {
+		CandleSeries.Builder b = CandleSeries.builder(n);
+		for (int i = 0; i < n; i++) {
+			long ts = fromTs + i * 60_000L;
+			b.append(ts, i, i + 2, i - 1, i + 1, 10 * i);
+		}
+		return b.build();
+	}
+
+	@Test
+	void appendSkipsStoredBarsAndReadsRanges() {
+		CandleStore store = new CandleStore(dir.toString());
+		store.append("BTCUSDT", "1m", bars(0, 10));
+		store.append("BTCUSDT", "1m", bars(5 * 60_000L, 10));
+
+		assertThat(store.bounds("BTCUSDT", "1m")).containsExactly(0L, 14 * 60_000L);
+		CandleSeries s = store.read("BTCUSDT", "1m", 3 * 60_000L, 6 * 60_000L);
+		assertThat(s.size()).isEqualTo(4);
+		assertThat(s.ts(0)).isEqualTo(3 * 60_000L);
+		assertThat(s.close(3)).isEqualTo(7);
+	}
+
+	@Test
+	void prependKeepsOrderAndCoverage() {
+		CandleStore store = new CandleStore(dir.toString());
+		store.append("ETHUSDT", "1m", bars(10 * 60_000L, 5));
+		store.prepend("ETHUSDT", "1m", bars(7 * 60_000L, 5), 0);
+
+		assertThat(store.bounds("ETHUSDT", "1m")).containsExactly(0L, 14 * 60_000L);
+		CandleSeries s = store.read("ETHUSDT", "1m", 0, Long.MAX_VALUE);
+		assertThat(s.size()).isEqualTo(8);
+		for (int i = 1; i < s.size(); i++) assertThat(s.ts(i)).isEqualTo(s.ts(i - 1) + 60_000L);
+	}
+
+}
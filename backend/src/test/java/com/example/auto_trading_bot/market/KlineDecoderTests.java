@@ -0,0 +1,46 @@
+package com.example.auto_trading_bot.market;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KlineDecoderTests {
+
+	private static final byte[] BODY = ("[[1499040000000,\"0.01634790\",\"0.80000000\",\"0.01575800\",\"0.01577100\"," +
+			"\"148976.11427815\",1499644799999,\"2434.19055334\",308,\"1756.87402397\",\"28.46694368\",\"0\"]," +
+			"[1499040060000,\"27123.5\",\"27200\",\"27000.12345678\",\"27100.00000000\",\"1.5\",1499040119999," +
+			"\"0\",1,\"0\",\"0\",\"0\"]]").getBytes(StandardCharsets.UTF_8);
+
+	@Test
+	void decodesCandles() {
+		List<Candle> candles = KlineDecoder.decode(BODY);
+
+		assertThat(candles).hasSize(2);
+		assertThat(candles.get(0).ts().toEpochMilli()).isEqualTo(1499040000000L);
+		assertThat(candles.get(0).volume()).isEqualByComparingTo("148976.11427815");
+		assertThat(candles.get(1).high()).isEqualByComparingTo("27200");
+	}
+
+	@Test
+	void decodesIntoFixedPointColumns() {
+		CandleSeries.Builder b = CandleSeries.builder(2);
+		assertThat(KlineDecoder.decodeInto(BODY, b)).isEqualTo(2);
+		CandleSeries s = b.build();
+
+		assertThat(s.ts(1)).isEqualTo(1499040060000L);
+		assertThat(s.open(1)).isEqualTo(FixedPoint.of(new BigDecimal("27123.5")));
+		assertThat(s.low(1)).isEqualTo(2_700_012_345_678L);
+		assertThat(s.close(0)).isEqualTo(1_577_100L);
+	}
+
+	@Test
+	void emptyBodyYieldsNothing() {
+		assertThat(KlineDecoder.decode(new byte[0])).isEmpty();
+	}
+
+}
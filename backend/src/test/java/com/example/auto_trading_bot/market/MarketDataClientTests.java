@@ -0,0 +1,111 @@
+package com.example.auto_trading_bot.market;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MarketDataClientTests {
+
+	private final AtomicInteger hits = new AtomicInteger();
+	private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+	private DisposableServer server;
+
+	@AfterEach
+	void stop() {
+		if (server != null) server.disposeNow();
+	}
+
+	/** Serves klines for [startTime, endTime] at one minute, or the status {@code fail} returns for a hit. */
+	private MarketDataClient client(IntFunction<Integer> fail, long timeoutMillis) {
+		server = HttpServer.create().port(0)
+				.route(r -> r.get("/api/v3/klines", (req, res) -> {
+					int status = fail.apply(hits.incrementAndGet());
+					if (status == 0) return Mono.never();
+					if (status != 200) return res.status(status).send();
+					var q = UriComponentsBuilder.fromUriString(req.uri()).build().getQueryParams();
+					long from = Long.parseLong(q.getFirst("startTime"));
+					long to = q.containsKey("endTime") ? Long.parseLong(q.getFirst("endTime")) : from;
+					StringBuilder body = new StringBuilder("[");
+					for (long ts = from; ts <= to; ts += 60_000) {
+						if (body.length() > 1) body.append(',');
+						body.append('[').append(ts).append(",\"1\",\"2\",\"0.5\",\"1.5\",\"10\",").append(ts + 59_999).append(']');
+					}
+					return res.sendString(Mono.just(body.append(']').toString()));
+				}))
+				.bindNow();
+		return new MarketDataClient("http://127.0.0.1:" + server.port(), timeoutMillis, 3, 10, 4, 16, 6000, 100,
+				WebClient.builder(), meters);
+	}
+
+	@Test
+	void retriesServerErrorsThenSucceeds() {
+		MarketDataClient c = client(n -> n <= 2 ? 503 : 200, 2_000);
+
+		assertThat(c.since("BTCUSDT", "1m", 0, 1).block(Duration.ofSeconds(5))).hasSize(1);
+		assertThat(hits).hasValue(3);
+		// one call, timed across its retries
+		assertThat(fetches("success")).isEqualTo(1);
+		assertThat(fetches("error")).isZero();
+	}
+
+	@Test
+	void surfacesClientErrorsAndTimeouts() {
+		MarketDataClient bad = client(n -> 400, 2_000);
+		assertThatThrownBy(() -> bad.since("BTCUSDT", "1m", 0, 1).block(Duration.ofSeconds(5)))
+				.isInstanceOf(MarketDataException.class)
+				.hasMessageContaining("400");
+		assertThat(hits).hasValue(1);
+		assertThat(fetches("error")).isEqualTo(1);
+		assertThat(fetches("success")).isZero();
+		stop();
+
+		hits.set(0);
+		MarketDataClient slow = client(n -> 0, 100);
+		assertThatThrownBy(() -> slow.since("BTCUSDT", "1m", 0, 1).block(Duration.ofSeconds(5)))
+				.isInstanceOf(MarketDataException.class);
+		assertThat(hits).hasValue(4);
+	}
+
+	private long fetches(String outcome) {
+		var timer = meters.find("market.fetch")
+				.tags("endpoint", "klines", "symbol", "BTCUSDT", "interval", "1m", "outcome", outcome).timer();
+		return timer == null ? 0 : timer.count();
+	}
+
+	@Test
+	void rangeFetchesPagesConcurrentlyInOrder() {
+		MarketDataClient c = client(n -> 200, 2_000);
+
+		CandleSeries s = c.range("BTCUSDT", "1m", 0, 2_499 * 60_000L).block(Duration.ofSeconds(5));
+
+		assertThat(s.size()).isEqualTo(2_500);
+		for (int i = 0; i < s.size(); i++) assertThat(s.ts(i)).isEqualTo(i * 60_000L);
+		assertThat(hits).hasValue(3);
+	}
+
+	@Test
+	void weightBudgetQueuesRequestsPastTheBurst() {
+		WeightBudget budget = new WeightBudget(60, 4, 0);
+		long second = 1_000_000_000L;
+
+		assertThat(budget.reserve(2, 0)).isZero();
+		assertThat(budget.reserve(2, 0)).isZero();
+		assertThat(budget.reserve(2, 0)).isEqualTo(2 * second);
+		assertThat(budget.reserve(2, 0)).isEqualTo(4 * second);
+		assertThat(budget.reserve(2, 10 * second)).isZero();
+		assertThat(budget.reserve(2, 100 * second)).isZero();
+		assertThat(budget.available()).isLessThanOrEqualTo(4);
+	}
+}
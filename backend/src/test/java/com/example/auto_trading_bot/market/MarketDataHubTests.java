@@ -0,0 +1,101 @@
+package com.example.auto_trading_bot.market;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MarketDataHubTests {
+
+	private static final String KLINES = "[[0,\"1\",\"2\",\"0.5\",\"1.5\",\"10\",59999],[60000,\"1\",\"2\",\"0.5\",\"1.5\",\"10\",119999]]";
+
+	private final AtomicInteger hits = new AtomicInteger();
+	private volatile int status = 200;
+	private DisposableServer server;
+
+	@AfterEach
+	void stop() {
+		if (server != null) server.disposeNow();
+	}
+
+	private MarketDataHub hub(long cacheMillis, MarketDataStream stream) {
+		server = HttpServer.create().port(0)
+				.route(r -> r.get("/api/v3/klines", (req, res) -> {
+					hits.incrementAndGet();
+					if (status != 200) return res.status(status).send();
+					return res.sendString(Mono.just(KLINES).delayElement(Duration.ofMillis(100)));
+				}))
+				.bindNow();
+		MarketDataClient client = new MarketDataClient("http://127.0.0.1:" + server.port(), 2_000, 0, 10, 4, 16, 6000, 100,
+				WebClient.builder(), new SimpleMeterRegistry());
+		return new MarketDataHub(client, stream, cacheMillis, new SimpleMeterRegistry());
+	}
+
+	@Test
+	void coalescesConcurrentRequestsAndCachesForTheTtl() throws Exception {
+		MarketDataHub hub = hub(300, (s, i) -> Flux.never());
+
+		List<List<Candle>> results = Flux.range(0, 20)
+				.flatMap(i -> hub.recent("BTCUSDT", "1m", 2))
+				.collectList()
+				.block(Duration.ofSeconds(5));
+		assertThat(results).hasSize(20).allSatisfy(kl -> assertThat(kl).hasSize(2));
+		assertThat(hits).hasValue(1);
+
+		hub.recent("BTCUSDT", "1m", 2).block(Duration.ofSeconds(5));
+		hub.recent("ETHUSDT", "1m", 2).block(Duration.ofSeconds(5));
+		assertThat(hits).hasValue(2);
+
+		Thread.sleep(400);
+		hub.recent("BTCUSDT", "1m", 2).block(Duration.ofSeconds(5));
+		assertThat(hits).hasValue(3);
+	}
+
+	@Test
+	void doesNotCacheFailures() {
+		MarketDataHub hub = hub(60_000, (s, i) -> Flux.never());
+		status = 400;
+		assertThatThrownBy(() -> hub.recent("BTCUSDT", "1m", 2).block(Duration.ofSeconds(5)))
+				.isInstanceOf(MarketDataException.class);
+
+		status = 200;
+		assertThat(hub.recent("BTCUSDT", "1m", 2).block(Duration.ofSeconds(5))).hasSize(2);
+		assertThat(hits).hasValue(2);
+	}
+
+	@Test
+	void fansOneStreamOutToEverySubscriber() {
+		AtomicInteger opened = new AtomicInteger();
+		Sinks.Many<Candle> bars = Sinks.many().multicast().directBestEffort();
+		MarketDataHub hub = hub(1_000, (s, i) -> bars.asFlux().doOnSubscribe(x -> opened.incrementAndGet()));
+
+		List<Candle> a = new ArrayList<>(), b = new ArrayList<>();
+		var first = hub.closedBars("BTCUSDT", "1m").subscribe(a::add);
+		var second = hub.closedBars("BTCUSDT", "1m").subscribe(b::add);
+		bars.tryEmitNext(new Candle(Instant.EPOCH, BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE));
+
+		assertThat(opened).hasValue(1);
+		assertThat(a).hasSize(1);
+		assertThat(b).hasSize(1);
+
+		first.dispose();
+		second.dispose();
+		hub.closedBars("BTCUSDT", "1m").subscribe().dispose();
+		assertThat(opened).hasValue(2);
+	}
+}
@@ -0,0 +1,56 @@
+package com.example.auto_trading_bot.portfolio;
+
+import com.example.auto_trading_bot.dto.EquityPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class EquityCurveTests {
+
+	@Test
+	void samplerKeepsExtremesAndEnds() {
+		EquityCurve.Sampler s = new EquityCurve.Sampler(0, 99_999, 12);
+		for (int i = 0; i < 100_000; i++) {
+			long eq = i == 40_000 ? -5 : i == 70_000 ? 1_000_000 : i % 100;
+			s.add(i, eq);
+		}
+		List<EquityPoint> out = s.points();
+
+		assertThat(out).hasSizeLessThanOrEqualTo(12);
+		assertThat(out.get(0).ts().toEpochMilli()).isZero();
+		assertThat(out.get(out.size() - 1).ts().toEpochMilli()).isEqualTo(99_999);
+		assertThat(out).extracting(p -> p.ts().toEpochMilli()).isSorted().contains(40_000L, 70_000L);
+	}
+
+	@Test
+	void rollupSplitsBucketsPerResolution() {
+		EquityCurve.Rollup r = new EquityCurve.Rollup();
+		for (long ts = 0; ts < 2 * 3_600_000L; ts += 60_000) r.add(1, "BTCUSDT", ts, ts);
+
+		List<EquityCurve.Bucket> rows = r.rows();
+		assertThat(rows).filteredOn(b -> b.res == 5 * 60_000L).hasSize(24);
+		assertThat(rows).filteredOn(b -> b.res == 3_600_000L)
+				.allSatisfy(b -> assertThat(b.n).isEqualTo(60))
+				.hasSize(2);
+		assertThat(rows).filteredOn(b -> b.res == 86_400_000L).singleElement()
+				.satisfies(b -> {
+					assertThat(b.min).isZero();
+					assertThat(b.maxTs).isEqualTo(2 * 3_600_000L - 60_000);
+				});
+	}
+
+	@Test
+	void rollupKeepsRunsApart() {
+		EquityCurve.Rollup r = new EquityCurve.Rollup();
+		r.add(1, "BTCUSDT", 0, 10);
+		r.add(2, "BTCUSDT", 60_000, 20);
+		r.add(1, "BTCUSDT", 120_000, 30);
+
+		assertThat(r.rows()).filteredOn(b -> b.res == 86_400_000L)
+				.extracting(b -> b.run, b -> b.n)
+				.containsExactlyInAnyOrder(tuple(1L, 2), tuple(2L, 1));
+	}
+}
@@ -0,0 +1,49 @@
+package com.example.auto_trading_bot.portfolio;
+
+import com.example.auto_trading_bot.journal.JournalEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static com.example.auto_trading_bot.common.FixedPoint.of;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerPersisterTests {
+
+	private static JournalEvent event(long seq, byte type, String interval, long a) {
+		return new JournalEvent(seq, type, JournalEvent.BUY, JournalEvent.modeCode("LIVE"), "BTCUSDT", interval,
+				seq * 60_000L, a, of(100), JournalEvent.NO_PNL, 0);
+	}
+
+	@Test
+	void twoIntervalsOnOneSymbolProjectIntoTheirOwnRuns() {
+		LedgerPersister.Projection p = new LedgerPersister.Projection(Map.of(), Map.of());
+
+		p.add(event(1, JournalEvent.RUN, "1m", 0));
+		p.add(event(2, JournalEvent.RUN, "5m", 0));
+		p.add(event(3, JournalEvent.FILL, "1m", of(1)));
+		p.add(event(4, JournalEvent.EQUITY, "1m", of(1_000)));
+		p.add(event(5, JournalEvent.FILL, "5m", of(2)));
+		p.add(event(6, JournalEvent.EQUITY, "5m", of(2_000)));
+		p.add(event(7, JournalEvent.EQUITY, "1m", of(1_100)));
+
+		// starting the 5m run did not end the 1m one
+		assertThat(p.current).containsOnly(Map.entry(Runs.key("BTCUSDT", "1m"), 1L), Map.entry(Runs.key("BTCUSDT", "5m"), 2L));
+		assertThat(p.fills).extracting(Fill::runId).containsExactly(1L, 2L);
+		assertThat(p.equity).extracting(EquitySample::runId).containsExactly(1L, 2L, 1L);
+		assertThat(p.stats.get(1L).points).isEqualTo(2);
+		assertThat(p.stats.get(1L).fills).isEqualTo(1);
+		assertThat(p.stats.get(2L).points).isEqualTo(1);
+		assertThat(p.stats.get(2L).fills).isEqualTo(1);
+	}
+
+	@Test
+	void eventsWithoutAnIntervalGoToTheSymbolsNewestRun() {
+		LedgerPersister.Projection p = new LedgerPersister.Projection(
+				Map.of(Runs.key("BTCUSDT", "1m"), 5L, Runs.key("BTCUSDT", "5m"), 9L, Runs.key("ETHUSDT", "1m"), 12L), Map.of());
+
+		p.add(event(13, JournalEvent.EQUITY, null, of(1_000)));
+
+		assertThat(p.equity).extracting(EquitySample::runId).containsExactly(9L);
+	}
+}
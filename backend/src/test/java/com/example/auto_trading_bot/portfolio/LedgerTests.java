@@ -0,0 +1,92 @@
+package com.example.auto_trading_bot.portfolio;
+
+import com.example.auto_trading_bot.journal.Journal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+
+import static com.example.auto_trading_bot.common.FixedPoint.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LedgerTests {
+
+	@TempDir
+	Path dir;
+
+	private Journal journal;
+
+	/** 1000 in cash and 2 BTCUSDT bought at 100; the snapshot means the database is never read. */
+	private Ledger ledger() {
+		journal = new Journal(dir.toString(), 64);
+		journal.open();
+		journal.write(journal.capture(of(1000), List.of()));
+		Ledger l = new Ledger(null, journal, Clock.systemUTC(), Position.CostBasis.FIFO);
+		l.buy(Instant.EPOCH, "BTCUSDT", "1m", new BigDecimal("2"), new BigDecimal("100"), BigDecimal.ZERO);
+		return l;
+	}
+
+	@Test
+	void backtestSellOfAPositionAnotherSessionClosedIsSkipped() {
+		Ledger l = ledger();
+		// the backtest started from the 2 held and sold them at 150; a live session sold them at 120 meanwhile
+		l.sell(Instant.EPOCH, "BTCUSDT", "1m", new BigDecimal("2"), new BigDecimal("120"), BigDecimal.ZERO);
+
+		l.applyBacktest("BTCUSDT", new BigDecimal("300"), new long[]{-of(2)}, new long[]{of(150)}, new long[]{0});
+
+		assertThat(l.quantity("BTCUSDT")).isEqualByComparingTo("0");
+		assertThat(l.cash()).isEqualByComparingTo("1040");
+		assertThat(l.realizedPnl("BTCUSDT")).isEqualByComparingTo("40");
+	}
+
+	@Test
+	void backtestSellLargerThanThePositionSellsWhatIsLeft() {
+		Ledger l = ledger();
+		l.sell(Instant.EPOCH, "BTCUSDT", "1m", BigDecimal.ONE, new BigDecimal("120"), BigDecimal.ZERO);
+
+		l.applyBacktest("BTCUSDT", new BigDecimal("299"), new long[]{-of(2)}, new long[]{of(150)}, new long[]{of(1)});
+
+		// 1 of the 2 sold at 150; its fee stays booked
+		assertThat(l.quantity("BTCUSDT")).isEqualByComparingTo("0");
+		assertThat(l.cash()).isEqualByComparingTo("1069");
+		assertThat(l.realizedPnl("BTCUSDT")).isEqualByComparingTo("69");
+	}
+
+	@Test
+	void restoresFromTheSnapshotPlusTheFillsJournaledAfterIt() {
+		Ledger l = ledger();
+		l.sell(Instant.EPOCH, "BTCUSDT", "1m", BigDecimal.ONE, new BigDecimal("120"), BigDecimal.ONE);
+		l.buy(Instant.EPOCH, "ETHUSDT", "5m", new BigDecimal("3"), new BigDecimal("10"), BigDecimal.ZERO);
+		journal.close();
+
+		Journal j = new Journal(dir.toString(), 64);
+		j.open();
+		Ledger r = new Ledger(null, j, Clock.systemUTC(), Position.CostBasis.FIFO);
+
+		assertThat(r.cash()).isEqualByComparingTo("889");
+		assertThat(r.quantity("BTCUSDT")).isEqualByComparingTo("1");
+		assertThat(r.realizedPnl("BTCUSDT")).isEqualByComparingTo("19");
+		assertThat(r.averageEntryPrice("BTCUSDT")).isEqualByComparingTo("100");
+		assertThat(r.quantity("ETHUSDT")).isEqualByComparingTo("3");
+	}
+
+	@Test
+	void aFillTheJournalRefusesLeavesTheBooksAsTheyWere() {
+		Ledger l = ledger();
+		long seq = journal.lastSeq();
+
+		assertThatThrownBy(() -> l.sell(Instant.EPOCH, "BTCUSDT", "12345678m", BigDecimal.ONE, new BigDecimal("120"), BigDecimal.ZERO))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> l.buy(Instant.EPOCH, "BTCUSDT", "12345678m", BigDecimal.ONE, new BigDecimal("120"), BigDecimal.ZERO))
+				.isInstanceOf(IllegalArgumentException.class);
+
+		assertThat(journal.lastSeq()).isEqualTo(seq);
+		assertThat(l.cash()).isEqualByComparingTo("800");
+		assertThat(l.quantity("BTCUSDT")).isEqualByComparingTo("2");
+	}
+}
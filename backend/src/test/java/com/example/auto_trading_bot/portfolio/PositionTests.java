@@ -0,0 +1,50 @@
+package com.example.auto_trading_bot.portfolio;
+
+import org.junit.jupiter.api.Test;
+
+import static com.example.auto_trading_bot.common.FixedPoint.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PositionTests {
+
+	@Test
+	void fifoConsumesOldestLotsFirst() {
+		Position p = new Position(Position.CostBasis.FIFO);
+		p.buy(of(2), of(100));
+		p.buy(of(2), of(200));
+
+		assertThat(p.sell(of(3), of(300))).isEqualTo(of(300 * 3 - 100 * 2 - 200));
+		assertThat(p.lots()).isEqualTo(1);
+		assertThat(p.lotQty(0)).isEqualTo(of(1));
+		assertThat(p.averageCost()).isEqualTo(of(200));
+		assertThat(p.unrealizedPnl(of(250))).isEqualTo(of(50));
+		assertThat(p.realizedPnl()).isEqualTo(of(500));
+	}
+
+	@Test
+	void averageCostCollapsesLots() {
+		Position p = new Position(Position.CostBasis.AVERAGE);
+		p.buy(of(2), of(100));
+		p.buy(of(2), of(200));
+
+		assertThat(p.sell(of(2), of(300))).isEqualTo(of(300));
+		assertThat(p.lots()).isEqualTo(1);
+		assertThat(p.lotPrice(0)).isEqualTo(of(150));
+		assertThat(p.cost()).isEqualTo(of(300));
+	}
+
+	@Test
+	void ringGrowsAndRejectsOversell() {
+		Position p = new Position(Position.CostBasis.FIFO);
+		for (int i = 1; i <= 20; i++) {
+			p.buy(of(1), of(i));
+			if (i % 3 == 0) p.sell(of(1), of(i));
+		}
+		Position copy = p.copy();
+		assertThat(copy.lots()).isEqualTo(14);
+		assertThat(copy.lotPrice(0)).isEqualTo(of(7));
+		assertThat(copy.cost()).isEqualTo(p.cost());
+		assertThatThrownBy(() -> p.sell(of(15), of(1))).isInstanceOf(IllegalArgumentException.class);
+	}
+}
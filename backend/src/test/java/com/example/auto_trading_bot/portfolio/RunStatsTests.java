@@ -0,0 +1,72 @@
+package com.example.auto_trading_bot.portfolio;
+
+import com.example.auto_trading_bot.common.FixedPoint;
+import com.example.auto_trading_bot.dto.RunSummary;
+import com.example.auto_trading_bot.journal.JournalEvent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RunStatsTests {
+
+	@Test
+	void tracksDrawdownReturnAndExposure() {
+		RunStats s = new RunStats("BTCUSDT", "1m");
+		long[] equity = {100, 120, 90, 110, 60, 80};
+		for (int i = 0; i < equity.length; i++) s.equity(FixedPoint.of(equity[i]), i >= 2);
+
+		RunSummary r = s.summary(7);
+		assertThat(r.runId()).isEqualTo(7);
+		assertThat(r.points()).isEqualTo(6);
+		assertThat(r.returnPct()).isEqualByComparingTo("-20");
+		assertThat(r.maxDrawdownPct()).isEqualByComparingTo("50");
+		assertThat(r.drawdownPct()).isEqualByComparingTo(new BigDecimal("33.3333"));
+		assertThat(r.exposurePct()).isEqualByComparingTo(new BigDecimal("66.6667"));
+	}
+
+	@Test
+	void welfordMatchesATwoPassVariance() {
+		RunStats s = new RunStats("BTCUSDT", "1h");
+		Random rnd = new Random(42);
+		double[] eq = new double[5_000];
+		eq[0] = 10_000;
+		for (int i = 1; i < eq.length; i++) eq[i] = eq[i - 1] * (1 + rnd.nextGaussian() * 0.01);
+		for (double e : eq) s.equity(FixedPoint.fromDouble(e), false);
+
+		double[] ret = new double[eq.length - 1];
+		double mean = 0;
+		for (int i = 1; i < eq.length; i++) {
+			long a = FixedPoint.fromDouble(eq[i - 1]), b = FixedPoint.fromDouble(eq[i]);
+			ret[i - 1] = (b - a) / (double) a;
+			mean += ret[i - 1];
+		}
+		mean /= ret.length;
+		double ss = 0;
+		for (double r : ret) ss += (r - mean) * (r - mean);
+		double sharpe = mean / Math.sqrt(ss / (ret.length - 1)) * Math.sqrt(365 * 24);
+
+		assertThat(s.sharpe()).isCloseTo(sharpe, within(1e-9));
+	}
+
+	@Test
+	void countsClosedTradesOnly() {
+		RunStats s = new RunStats("BTCUSDT", "1m");
+		s.fill(JournalEvent.NO_PNL);
+		s.fill(FixedPoint.of(30));
+		s.fill(JournalEvent.NO_PNL);
+		s.fill(FixedPoint.of(-10));
+		s.fill(FixedPoint.of(20));
+
+		RunSummary r = s.summary(1);
+		assertThat(r.fills()).isEqualTo(5);
+		assertThat(r.wins()).isEqualTo(2);
+		assertThat(r.losses()).isEqualTo(1);
+		assertThat(r.winRatePct()).isEqualByComparingTo(new BigDecimal("66.6667"));
+		assertThat(r.profitFactor()).isEqualByComparingTo("5");
+		assertThat(r.sharpe()).isNull();
+	}
+}
@@ -1,5 +1,10 @@
 const API = (path) => `http://localhost:8080${path}`;
 let chart;
+let chartSymbol = null;
+let lastEquityTs = null;
+let lastTradeId = 0;
+let events;
+const CHART_POINTS = 1000;
 const el = (id) => document.getElementById(id);
 const fmt = (n, d=2) => Number(n).toFixed(d);
 
@@ -33,25 +38,45 @@ async function start() {
   const symbol = (el('symbol').value || 'BTCUSDT').trim();
   const interval = el('interval').value.trim();
   await fetchJSON(API(`/api/bot/start?mode=${encodeURIComponent(mode)}&symbol=${encodeURIComponent(symbol)}&interval=${encodeURIComponent(interval)}`), { method: 'POST' });
-  await refreshAll();
 }
 
-async function pause()  { await fetchJSON(API('/api/bot/pause'),  { method:'POST' }); await loadStatus(); }
-async function resume() { await fetchJSON(API('/api/bot/resume'), { method:'POST' }); await loadStatus(); }
-async function stop()   { await fetchJSON(API('/api/bot/stop'),   { method:'POST' }); await refreshAll(); }
+function sessionQuery() {
+  const symbol = (el('symbol').value || 'BTCUSDT').trim();
+  const interval = el('interval').value.trim();
+  return `symbol=${encodeURIComponent(symbol)}&interval=${encodeURIComponent(interval)}`;
+}
+
+async function pause()  { await fetchJSON(API(`/api/bot/pause?${sessionQuery()}`),  { method:'POST' }); await loadStatus(); }
+async function resume() { await fetchJSON(API(`/api/bot/resume?${sessionQuery()}`), { method:'POST' }); await loadStatus(); }
+async function stop()   { await fetchJSON(API(`/api/bot/stop?${sessionQuery()}`),   { method:'POST' }); await loadStatus(); }
 
 async function loadStatus() {
   const s = await fetchJSON(API('/api/bot/status'));
   el('statusBox').textContent = JSON.stringify(s, null, 2);
+  chartSymbol = s.symbol;
 }
 async function loadPortfolio() {
   const p = await fetchJSON(API('/api/portfolio'));
   el('portfolioBox').textContent = JSON.stringify(p, null, 2);
 }
-async function loadEquity() {
-  const data = await fetchJSON(API('/api/equity'));
-  const labels = data.map(p => new Date(p.ts).toLocaleString());
-  const values = data.map(p => Number(p.equity));
+
+function showMetrics(m) {
+  const pct = (v) => v == null ? '-' : `${fmt(v)}%`;
+  el('metricsBox').textContent = [
+    `run         ${m.runId}`,
+    `return      ${pct(m.returnPct)}`,
+    `drawdown    ${pct(m.drawdownPct)} (max ${pct(m.maxDrawdownPct)})`,
+    `sharpe      ${m.sharpe == null ? '-' : fmt(m.sharpe)}`,
+    `win rate    ${pct(m.winRatePct)} (${m.wins}/${m.wins + m.losses})`,
+    `exposure    ${pct(m.exposurePct)}`,
+  ].join('\n');
+}
+
+async function loadMetrics() {
+  showMetrics(await fetchJSON(API(`/api/summary?symbol=${encodeURIComponent(chartSymbol || '')}`)));
+}
+
+function drawEquity(labels, values) {
   if (!chart) {
     const ctx = el('equityChart').getContext('2d');
     chart = new Chart(ctx, {
@@ -68,26 +93,98 @@ async function loadEquity() {
     chart.update();
   }
 }
-async function loadTrades() {
-  const rows = await fetchJSON(API('/api/trades'));
-  const tbody = el('tradesTable').querySelector('tbody');
-  tbody.innerHTML = '';
-  rows.forEach(r => {
-    const tr = document.createElement('tr');
-    tr.innerHTML = `
+function appendEquity(points) {
+  points = points.filter(p => lastEquityTs == null || Date.parse(p.ts) > Date.parse(lastEquityTs));
+  if (!points.length) return;
+  chart.data.labels.push(...points.map(p => new Date(p.ts).toLocaleString()));
+  chart.data.datasets[0].data.push(...points.map(p => Number(p.equity)));
+  lastEquityTs = points[points.length - 1].ts;
+  // pushed points accumulate; past twice the chart budget, reload a downsampled curve
+  if (chart.data.labels.length > 2 * CHART_POINTS) return loadEquity();
+  chart.update();
+}
+async function loadEquity() {
+  const q = chartSymbol ? `&symbol=${encodeURIComponent(chartSymbol)}` : '';
+  const data = await fetchJSON(API(`/api/equity?points=${CHART_POINTS}${q}`));
+  drawEquity(data.map(p => new Date(p.ts).toLocaleString()), data.map(p => Number(p.equity)));
+  lastEquityTs = data.length ? data[data.length - 1].ts : null;
+}
+// since= pages come oldest first and hold at most PAGE rows
+async function catchUpEquity() {
+  if (!chart || lastEquityTs == null) return loadEquity();
+  for (;;) {
+    const page = await fetchJSON(API(`/api/equity?symbol=${encodeURIComponent(chartSymbol)}&since=${encodeURIComponent(lastEquityTs)}`));
+    appendEquity(page);
+    if (page.length < 5000) break;
+  }
+}
+
+function tradeRow(r) {
+  const tr = document.createElement('tr');
+  tr.innerHTML = `
       <td>${new Date(r.ts).toLocaleString()}</td>
       <td>${r.symbol}</td>
       <td>${r.side}</td>
       <td>${fmt(r.qty, 8)}</td>
       <td>${fmt(r.price, 2)}</td>
       <td>${r.pnl != null ? fmt(r.pnl, 2) : ''}</td>`;
-    tbody.appendChild(tr);
+  return tr;
+}
+async function loadTrades() {
+  const rows = await fetchJSON(API('/api/trades'));
+  const tbody = el('tradesTable').querySelector('tbody');
+  tbody.innerHTML = '';
+  rows.forEach(r => tbody.appendChild(tradeRow(r)));
+  lastTradeId = rows.reduce((m, r) => Math.max(m, r.id), 0);
+}
+function prependTrades(rows) {
+  const tbody = el('tradesTable').querySelector('tbody');
+  rows.filter(r => r.id > lastTradeId).forEach(r => {
+    tbody.insertBefore(tradeRow(r), tbody.firstChild);
+    lastTradeId = r.id;
+  });
+  while (tbody.rows.length > 500) tbody.deleteRow(-1);
+}
+async function catchUpTrades() {
+  for (;;) {
+    const page = await fetchJSON(API(`/api/trades?since=${lastTradeId}`));
+    prependTrades(page);
+    if (page.length < 5000) break;
+  }
+}
+
+// Pushed events replace polling; on (re)connect the since= cursors fill whatever was missed.
+function subscribe() {
+  events = new EventSource(API('/api/events'));
+  events.onopen = () => Promise.all([catchUpTrades(), catchUpEquity()]).catch(e => console.warn('Catch-up failed:', e));
+  events.addEventListener('trades', (e) => {
+    prependTrades(JSON.parse(e.data));
+    loadPortfolio().catch(() => {});
+  });
+  events.addEventListener('equity', (e) => {
+    if (chart) appendEquity(JSON.parse(e.data).filter(p => p.symbol === chartSymbol));
+  });
+  // a summary of every run the flush touched; the newest one of the charted symbol is shown
+  events.addEventListener('metrics', (e) => {
+    const runs = JSON.parse(e.data).filter(m => m.symbol === chartSymbol);
+    if (runs.length) showMetrics(runs.reduce((a, b) => a.runId > b.runId ? a : b));
+  });
+  events.addEventListener('status', async (e) => {
+    const s = JSON.parse(e.data);
+    // a new session resets its equity, and a finished backtest wrote its rows directly
+    if (s.status !== 'PAUSED') {
+      await loadStatus();
+      await Promise.all([loadEquity(), catchUpTrades(), loadPortfolio(), loadMetrics()]).catch(() => {});
+    } else {
+      await loadStatus();
+    }
   });
 }
 
 async function refreshAll() {
   try {
-    await Promise.all([loadStatus(), loadPortfolio(), loadEquity(), loadTrades()]);
+    await loadStatus();
+    await Promise.all([loadPortfolio(), loadEquity(), loadTrades(), loadMetrics()]);
   } catch (e) {
     console.warn("Refresh failed:", e);
   }
@@ -98,8 +195,7 @@ function wireUI() {
   document.getElementById('pauseBtn').onclick = pause;
   document.getElementById('resumeBtn').onclick = resume;
   document.getElementById('stopBtn').onclick = stop;
-  refreshAll();
-  setInterval(refreshAll, 5000);
+  refreshAll().then(subscribe);
 }
 
 document.addEventListener('DOMContentLoaded', wireUI);